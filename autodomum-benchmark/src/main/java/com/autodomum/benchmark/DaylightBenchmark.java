@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.benchmark;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.autodomum.core.daylight.Coordinate;
+import com.autodomum.daylight.algorithm.DaylightAlgorithm;
+import com.autodomum.daylight.algorithm.ZonedDaylightAlgorithm;
+
+/**
+ * Compare <code>Daylight</code> implementations, each call is for the next day
+ * of a year in Stockholm.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaylightBenchmark {
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+	private final Coordinate coordinate = new Coordinate(18.063240d, 59.334591d);
+
+	private final DaylightAlgorithm daylightAlgorithm = new DaylightAlgorithm();
+
+	private final ZonedDaylightAlgorithm zonedDaylightAlgorithm = new ZonedDaylightAlgorithm(ZONE);
+
+	private Date[] dates;
+
+	private LocalDate[] localDates;
+
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		TimeZone.setDefault(TimeZone.getTimeZone(ZONE));
+
+		this.localDates = new LocalDate[365];
+		this.dates = new Date[this.localDates.length];
+		for (int i = 0; i < this.localDates.length; i++) {
+			this.localDates[i] = LocalDate.ofYearDay(2016, i + 1);
+			this.dates[i] = Date.from(this.localDates[i].atTime(12, 0).atZone(ZONE).toInstant());
+		}
+	}
+
+	private int next() {
+		final int i = this.index;
+		this.index = i + 1 == this.dates.length ? 0 : i + 1;
+		return i;
+	}
+
+	/**
+	 * @return sunrise via <code>DaylightAlgorithm</code>
+	 */
+	@Benchmark
+	public Date daylightAlgorithm() {
+		return this.daylightAlgorithm.sunrise(this.coordinate, this.dates[this.next()]);
+	}
+
+	/**
+	 * @return sunrise via the <code>Date</code> API of
+	 *         <code>ZonedDaylightAlgorithm</code>
+	 */
+	@Benchmark
+	public Date zonedDaylightAlgorithm() {
+		return this.zonedDaylightAlgorithm.sunrise(this.coordinate, this.dates[this.next()]);
+	}
+
+	/**
+	 * @return sunrise via the primitive API of
+	 *         <code>ZonedDaylightAlgorithm</code>
+	 */
+	@Benchmark
+	public long zonedDaylightAlgorithmEpochMillis() {
+		return this.zonedDaylightAlgorithm.sunriseEpochMillis(this.coordinate, this.localDates[this.next()]);
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.benchmark;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.autodomum.core.event.DelayQueueEventStore;
+import com.autodomum.core.event.DelayedEvent;
+import com.autodomum.core.event.DelayedEventStore;
+import com.autodomum.core.event.FireOnceEvent;
+import com.autodomum.core.event.TimingWheelEventStore;
+
+/**
+ * Compare <code>DelayedEventStore</code> implementations with a large amount
+ * of pending events, spread over the next 24 hours like randomized script
+ * events.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelayedEventStoreBenchmark {
+
+	private static final long DAY = 86400000L;
+
+	@Param({ "10000", "100000", "1000000" })
+	private int pending;
+
+	@Param({ "DELAY_QUEUE", "TIMING_WHEEL" })
+	private String store;
+
+	private final Clock clock = Clock.fixed(Instant.parse("2016-04-05T12:00:00Z"), ZoneOffset.UTC);
+
+	private final SplittableRandom random = new SplittableRandom(1337);
+
+	private DelayedEventStore delayedEventStore;
+
+	private FireOnceEvent due;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		if ("TIMING_WHEEL".equals(this.store)) {
+			this.delayedEventStore = new TimingWheelEventStore(this.clock, 10);
+		} else {
+			this.delayedEventStore = new DelayQueueEventStore();
+		}
+
+		final long now = this.clock.millis();
+		for (int i = 0; i < this.pending; i++) {
+			this.delayedEventStore.put(new FireOnceEvent(this.clock, now + 1 + this.random.nextLong(DAY), "event" + i));
+		}
+
+		this.due = new FireOnceEvent(this.clock, now, "due");
+	}
+
+	/**
+	 * Schedule an event in the future and cancel it again
+	 * 
+	 * @return the removed state
+	 */
+	@Benchmark
+	public boolean scheduleAndCancel() {
+		final FireOnceEvent event = new FireOnceEvent(this.clock, this.clock.millis() + 1 + this.random.nextLong(DAY),
+				"cancel");
+		this.delayedEventStore.put(event);
+		return this.delayedEventStore.remove(event);
+	}
+
+	/**
+	 * Schedule an event that is due and retrieve it again
+	 * 
+	 * @return the fired event
+	 * @throws InterruptedException
+	 */
+	@Benchmark
+	public DelayedEvent scheduleAndFire() throws InterruptedException {
+		this.delayedEventStore.put(this.due);
+		return this.delayedEventStore.poll(0, TimeUnit.MILLISECONDS);
+	}
+}
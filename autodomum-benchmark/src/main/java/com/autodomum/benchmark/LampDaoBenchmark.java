@@ -0,0 +1,239 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.autodomum.core.model.Lamp;
+import com.autodomum.dao.lamp.json.JsonLampDao;
+import com.autodomum.dao.lamp.mmap.MappedLampDao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compare the JSON and the memory-mapped <code>LampDao</code> implementations
+ * with a large lamp inventory: the cost of making the lamps available at
+ * startup and the heap it retains, and of reading and updating a single lamp
+ * afterwards.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LampDaoBenchmark {
+
+	@Param({ "1000", "10000" })
+	private int lamps;
+
+	private final SplittableRandom random = new SplittableRandom(1337);
+
+	private byte[] json;
+
+	private Path directory;
+
+	private Path file;
+
+	private JsonLampDao jsonLampDao;
+
+	private MappedLampDao mappedLampDao;
+
+	private final Lamp update = new Lamp();
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		final Lamp[] lamps = new Lamp[this.lamps];
+		for (int i = 0; i < lamps.length; i++) {
+			lamps[i] = new Lamp("lamp" + i, "Lamp " + i, false, i % 640, i / 640,
+					Arrays.asList("call" + (i % 16), "call" + (i % 16 + 16)));
+		}
+
+		this.json = new ObjectMapper().writeValueAsBytes(lamps);
+		this.directory = Files.createTempDirectory("lamps");
+		this.file = this.directory.resolve("lamps.bin");
+
+		this.jsonLampDao = new JsonLampDao();
+		this.jsonLampDao.load(new ByteArrayInputStream(this.json));
+		this.mappedLampDao = MappedLampDao.create(this.file, lamps);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.mappedLampDao.close();
+		Files.deleteIfExists(this.file);
+		Files.deleteIfExists(this.directory);
+	}
+
+	/**
+	 * Heap retained by the DAO that a benchmark has made available, measured
+	 * as the used heap after garbage collection at the end of the iteration
+	 * compared to the start. Only meaningful for single shot benchmarks, and
+	 * JMH reports the sum over the measured iterations.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Retained {
+
+		public long retainedBytes;
+
+		private long before;
+
+		private Object dao;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.retainedBytes = 0;
+			this.dao = null;
+			this.before = usedHeap();
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown() {
+			this.retainedBytes = usedHeap() - this.before;
+			if (this.dao instanceof MappedLampDao) {
+				((MappedLampDao) this.dao).close();
+			}
+			this.dao = null;
+		}
+
+		private static long usedHeap() {
+			final Runtime runtime = Runtime.getRuntime();
+			for (int i = 0; i < 3; i++) {
+				System.gc();
+			}
+			return runtime.totalMemory() - runtime.freeMemory();
+		}
+	}
+
+	/**
+	 * Parse the complete JSON inventory
+	 * 
+	 * @return the DAO
+	 * @throws IOException
+	 */
+	@Benchmark
+	public JsonLampDao loadJson() throws IOException {
+		final JsonLampDao dao = new JsonLampDao();
+		dao.load(new ByteArrayInputStream(this.json));
+		return dao;
+	}
+
+	/**
+	 * Parse the complete JSON inventory once per iteration, and keep the DAO
+	 * until the retained heap has been measured
+	 * 
+	 * @param retained
+	 *            holds the DAO
+	 * @return the DAO
+	 * @throws IOException
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 20)
+	public JsonLampDao retainJson(final Retained retained) throws IOException {
+		final JsonLampDao dao = new JsonLampDao();
+		dao.load(new ByteArrayInputStream(this.json));
+		retained.dao = dao;
+		return dao;
+	}
+
+	/**
+	 * Map the binary inventory once per iteration and read the first lamp, and
+	 * keep the DAO until the retained heap has been measured. Mapping on every
+	 * invocation would pile up mappings that are only released by the garbage
+	 * collector.
+	 * 
+	 * @param retained
+	 *            holds the DAO
+	 * @return the first lamp
+	 * @throws IOException
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 20)
+	public Lamp openMapped(final Retained retained) throws IOException {
+		final MappedLampDao dao = MappedLampDao.open(this.file);
+		retained.dao = dao;
+		return dao.getLamp("lamp0");
+	}
+
+	/**
+	 * Read a random lamp from the JSON DAO
+	 * 
+	 * @return the lamp
+	 */
+	@Benchmark
+	public Lamp getLampJson() {
+		return this.jsonLampDao.getLamp(this.id());
+	}
+
+	/**
+	 * Read a random lamp from the memory-mapped DAO
+	 * 
+	 * @return the lamp
+	 */
+	@Benchmark
+	public Lamp getLampMapped() {
+		return this.mappedLampDao.getLamp(this.id());
+	}
+
+	/**
+	 * Toggle a random lamp in the memory-mapped DAO
+	 */
+	@Benchmark
+	public void updateLampMapped() {
+		this.update.setOn(this.random.nextBoolean());
+		this.mappedLampDao.updateLamp(this.id(), this.update);
+	}
+
+	private String id() {
+		return "lamp" + this.random.nextInt(this.lamps);
+	}
+}
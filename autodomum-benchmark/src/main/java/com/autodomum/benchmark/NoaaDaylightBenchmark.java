@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.benchmark;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.autodomum.core.daylight.CachingDaylight;
+import com.autodomum.core.daylight.Coordinate;
+import com.autodomum.daylight.noaa.NoaaDaylight;
+import com.autodomum.daylight.noaa.Zenith;
+
+/**
+ * Measure <code>NoaaDaylight</code> directly and behind a
+ * <code>CachingDaylight</code>, like the event loop that queries the same day
+ * repeatedly.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoaaDaylightBenchmark {
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+	private final Coordinate coordinate = new Coordinate(18.063240d, 59.334591d);
+
+	private final NoaaDaylight noaaDaylight = new NoaaDaylight(ZONE, Zenith.OFFICIAL);
+
+	private final CachingDaylight cachingDaylight = new CachingDaylight(this.noaaDaylight, 64,
+			TimeZone.getTimeZone(ZONE));
+
+	private LocalDate[] dates;
+
+	private long now;
+
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.dates = new LocalDate[365];
+		for (int i = 0; i < this.dates.length; i++) {
+			this.dates[i] = LocalDate.ofYearDay(2016, i + 1);
+		}
+		this.now = LocalDate.of(2016, 4, 5).atTime(12, 0).atZone(ZONE).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * @return sunrise calculated for the next day of the year
+	 */
+	@Benchmark
+	public long calculate() {
+		final int i = this.index;
+		this.index = i + 1 == this.dates.length ? 0 : i + 1;
+
+		return this.noaaDaylight.sunriseEpochMillis(this.coordinate.getLatitude(), this.coordinate.getLongitude(),
+				this.dates[i]);
+	}
+
+	/**
+	 * @return sunrise for the same day from the cache
+	 */
+	@Benchmark
+	public long cached() {
+		return this.cachingDaylight.sunriseMillis(this.coordinate, this.now);
+	}
+}
@@ -23,6 +23,8 @@
  */
 package com.autodomum.core.dao;
 
+import java.util.Map;
+
 import com.autodomum.core.model.Lamp;
 
 /**
@@ -52,6 +54,21 @@ public interface LampDao {
 	 */
 	void updateLamp(String id, Lamp lamp);
 
+	/**
+	 * Update several lamps at once, as a single change. The default
+	 * implementation updates one lamp at a time, implementations should
+	 * override it to publish a single <code>LampsStateChangedEvent</code>.
+	 * 
+	 * @param lamps
+	 *            the lamps to update by id, note that only fields that are
+	 *            non-null will be updated, and id may not be updated.
+	 */
+	default void updateLamps(Map<String, Lamp> lamps) {
+		for (final Map.Entry<String, Lamp> entry : lamps.entrySet()) {
+			this.updateLamp(entry.getKey(), entry.getValue());
+		}
+	}
+
 	/**
 	 * Get all available lamps
 	 * 
@@ -59,4 +76,4 @@ public interface LampDao {
 	 */
 	Lamp[] getLamps();
 
-}
\ No newline at end of file
+}
\ No newline at end of file
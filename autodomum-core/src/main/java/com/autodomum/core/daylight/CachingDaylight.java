@@ -0,0 +1,220 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Caching decorator of <code>Daylight</code>. Sunrise and sunset only change
+ * per day and coordinate, so the results of the decorated implementation are
+ * kept in a bounded LRU cache keyed by coordinate and local date. Repeated
+ * queries via {@link #sunriseMillis(Coordinate, long)} and
+ * {@link #sunsetMillis(Coordinate, long)} do not allocate.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class CachingDaylight implements Daylight {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private static final long DAY = 86400000L;
+
+	private static final long UNSET = Long.MIN_VALUE;
+
+	private final Daylight daylight;
+
+	private final TimeZone timeZone;
+
+	private final LinkedHashMap<CoordinateKey, Entry> cache;
+
+	private final CoordinateKey probe = new CoordinateKey();
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * Constructor, using the default time zone to decide the local date
+	 * 
+	 * @param daylight
+	 *            the decorated implementation
+	 */
+	public CachingDaylight(final Daylight daylight) {
+		this(daylight, DEFAULT_CAPACITY, TimeZone.getDefault());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param daylight
+	 *            the decorated implementation
+	 * @param capacity
+	 *            the maximum number of cached days
+	 * @param timeZone
+	 *            the time zone used to decide the local date
+	 */
+	public CachingDaylight(final Daylight daylight, final int capacity, final TimeZone timeZone) {
+		if (daylight == null) {
+			throw new NullPointerException("Daylight may not be null");
+		}
+
+		if (timeZone == null) {
+			throw new NullPointerException("Time zone may not be null");
+		}
+
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+
+		this.daylight = daylight;
+		this.timeZone = (TimeZone) timeZone.clone();
+		this.cache = new LinkedHashMap<CoordinateKey, Entry>(capacity * 4 / 3 + 1, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<CoordinateKey, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public Date sunrise(final Coordinate coordinate, final Date date) {
+		return new Date(this.sunriseMillis(coordinate, date.getTime()));
+	}
+
+	@Override
+	public Date sunset(final Coordinate coordinate, final Date date) {
+		return new Date(this.sunsetMillis(coordinate, date.getTime()));
+	}
+
+	/**
+	 * Estimate sunrise
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param time
+	 *            a time during the specific day in UTC milliseconds
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	@Override
+	public synchronized long sunriseMillis(final Coordinate coordinate, final long time) {
+		final Entry entry = this.lookup(coordinate, time);
+
+		if (entry.sunrise == UNSET) {
+			entry.sunrise = this.daylight.sunrise(coordinate, new Date(time)).getTime();
+			this.misses++;
+		} else {
+			this.hits++;
+		}
+		return entry.sunrise;
+	}
+
+	/**
+	 * Estimate sunset
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param time
+	 *            a time during the specific day in UTC milliseconds
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	@Override
+	public synchronized long sunsetMillis(final Coordinate coordinate, final long time) {
+		final Entry entry = this.lookup(coordinate, time);
+
+		if (entry.sunset == UNSET) {
+			entry.sunset = this.daylight.sunset(coordinate, new Date(time)).getTime();
+			this.misses++;
+		} else {
+			this.hits++;
+		}
+		return entry.sunset;
+	}
+
+	/**
+	 * Find the cached entry for a coordinate and day, must be called while
+	 * holding the lock
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param time
+	 *            a time during the day in UTC milliseconds
+	 * @return the entry
+	 */
+	private Entry lookup(final Coordinate coordinate, final long time) {
+		this.probe.set(coordinate, Math.floorDiv(time + this.timeZone.getOffset(time), DAY));
+
+		Entry entry = this.cache.get(this.probe);
+		if (entry == null) {
+			entry = new Entry();
+			this.cache.put(this.probe.copy(), entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * @return the number of queries served from the cache
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of queries that were calculated
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the ratio of queries served from the cache, or 0 if there have
+	 *         been no queries
+	 */
+	public synchronized double getHitRate() {
+		final long total = this.hits + this.misses;
+		return total == 0 ? 0d : (double) this.hits / total;
+	}
+
+	/**
+	 * @return the number of cached days
+	 */
+	public synchronized int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Cached sunrise and sunset of a day
+	 */
+	private static final class Entry {
+
+		private long sunrise = UNSET;
+
+		private long sunset = UNSET;
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+/**
+ * Key of a coordinate and a period, such as a day or a year. A key may be
+ * reused as a probe for lookups with <code>set</code> and copied before it is
+ * stored.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+final class CoordinateKey {
+
+	private Coordinate coordinate;
+
+	private long period;
+
+	/**
+	 * Constructor of an unset probe
+	 */
+	CoordinateKey() {
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param period
+	 *            the period
+	 */
+	CoordinateKey(final Coordinate coordinate, final long period) {
+		this.set(coordinate, period);
+	}
+
+	/**
+	 * Change the key, must not be used on keys that are stored
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param period
+	 *            the period
+	 */
+	void set(final Coordinate coordinate, final long period) {
+		if (coordinate == null) {
+			throw new NullPointerException("Coordinate may not be null");
+		}
+
+		this.coordinate = coordinate;
+		this.period = period;
+	}
+
+	/**
+	 * @return a copy of the key
+	 */
+	CoordinateKey copy() {
+		return new CoordinateKey(this.coordinate, this.period);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.coordinate.hashCode() + Long.hashCode(this.period);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (!(obj instanceof CoordinateKey)) {
+			return false;
+		}
+		final CoordinateKey other = (CoordinateKey) obj;
+		return this.period == other.period && this.coordinate.equals(other.coordinate);
+	}
+}
@@ -55,4 +55,31 @@ public interface Daylight {
 	 */
 	Date sunset(Coordinate coordinate, Date date);
 
-}
\ No newline at end of file
+	/**
+	 * Estimate sunrise. Implementations that can answer without allocating
+	 * should override this method.
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param time
+	 *            a time during the specific day in UTC milliseconds
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	default long sunriseMillis(final Coordinate coordinate, final long time) {
+		return this.sunrise(coordinate, new Date(time)).getTime();
+	}
+
+	/**
+	 * Estimate sunset. Implementations that can answer without allocating
+	 * should override this method.
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param time
+	 *            a time during the specific day in UTC milliseconds
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	default long sunsetMillis(final Coordinate coordinate, final long time) {
+		return this.sunset(coordinate, new Date(time)).getTime();
+	}
+}
\ No newline at end of file
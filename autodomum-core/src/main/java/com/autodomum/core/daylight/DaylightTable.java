@@ -0,0 +1,222 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed sunrise and sunset for every day of a year at a coordinate.
+ * The times are stored in a primitive array as UTC milliseconds, sunrise and
+ * sunset interleaved, and the days are calculated in parallel.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class DaylightTable {
+
+	private final Coordinate coordinate;
+
+	private final int year;
+
+	private final ZoneId zone;
+
+	private final long[] times;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param year
+	 *            the year
+	 * @param zone
+	 *            the time zone of the days
+	 * @param times
+	 *            sunrise and sunset for each day, interleaved
+	 */
+	private DaylightTable(final Coordinate coordinate, final int year, final ZoneId zone, final long[] times) {
+		this.coordinate = coordinate;
+		this.year = year;
+		this.zone = zone;
+		this.times = times;
+	}
+
+	/**
+	 * Calculate the table for a year
+	 * 
+	 * @param daylight
+	 *            the implementation used to calculate each day, must be thread
+	 *            safe
+	 * @param coordinate
+	 *            the coordinate
+	 * @param year
+	 *            the year
+	 * @param zone
+	 *            the time zone of the days
+	 * @return the table
+	 */
+	public static DaylightTable compute(final Daylight daylight, final Coordinate coordinate, final int year,
+			final ZoneId zone) {
+		if (daylight == null) {
+			throw new NullPointerException("Daylight may not be null");
+		}
+
+		if (coordinate == null) {
+			throw new NullPointerException("Coordinate may not be null");
+		}
+
+		if (zone == null) {
+			throw new NullPointerException("Zone may not be null");
+		}
+
+		final long[] times = new long[Year.of(year).length() * 2];
+
+		IntStream.range(0, times.length / 2).parallel().forEach(day -> {
+			// Noon is well within the local day, also on days with DST changes
+			final Date noon = Date.from(LocalDate.ofYearDay(year, day + 1).atTime(12, 0).atZone(zone).toInstant());
+
+			times[day * 2] = daylight.sunrise(coordinate, noon).getTime();
+			times[day * 2 + 1] = daylight.sunset(coordinate, noon).getTime();
+		});
+
+		return new DaylightTable(coordinate, year, zone, times);
+	}
+
+	/**
+	 * Retrieve sunrise
+	 * 
+	 * @param dayOfYear
+	 *            the day of the year, starting with 1
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	public long sunrise(final int dayOfYear) {
+		return this.times[this.index(dayOfYear)];
+	}
+
+	/**
+	 * Retrieve sunset
+	 * 
+	 * @param dayOfYear
+	 *            the day of the year, starting with 1
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	public long sunset(final int dayOfYear) {
+		return this.times[this.index(dayOfYear) + 1];
+	}
+
+	/**
+	 * Retrieve sunrise
+	 * 
+	 * @param date
+	 *            the day, must be in the year of the table
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	public long sunrise(final LocalDate date) {
+		return this.sunrise(this.dayOfYear(date));
+	}
+
+	/**
+	 * Retrieve sunset
+	 * 
+	 * @param date
+	 *            the day, must be in the year of the table
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	public long sunset(final LocalDate date) {
+		return this.sunset(this.dayOfYear(date));
+	}
+
+	/**
+	 * Retrieve sunrise and sunset for a range of days
+	 * 
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, exclusive
+	 * @return sunrise and sunset in UTC milliseconds for each day, interleaved
+	 */
+	public long[] range(final LocalDate from, final LocalDate to) {
+		final int start = this.index(this.dayOfYear(from));
+		final int end = to.getYear() == this.year + 1 && to.getDayOfYear() == 1 ? this.times.length
+				: this.index(this.dayOfYear(to));
+
+		if (end < start) {
+			throw new IllegalArgumentException("Range ends before it starts: " + from + " - " + to);
+		}
+
+		return Arrays.copyOfRange(this.times, start, end);
+	}
+
+	/**
+	 * @return the number of days in the table
+	 */
+	public int length() {
+		return this.times.length / 2;
+	}
+
+	/**
+	 * @return the coordinate
+	 */
+	public Coordinate getCoordinate() {
+		return coordinate;
+	}
+
+	/**
+	 * @return the year
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return the time zone of the days
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	private int dayOfYear(final LocalDate date) {
+		if (date.getYear() != this.year) {
+			throw new IllegalArgumentException("Date " + date + " is not in " + this.year);
+		}
+		return date.getDayOfYear();
+	}
+
+	private int index(final int dayOfYear) {
+		if (dayOfYear < 1 || dayOfYear > this.length()) {
+			throw new IllegalArgumentException("Invalid day of year: " + dayOfYear);
+		}
+		return (dayOfYear - 1) * 2;
+	}
+
+	@Override
+	public String toString() {
+		return "DaylightTable [coordinate=" + coordinate + ", year=" + year + ", zone=" + zone + "]";
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <code>Daylight</code> that serves sunrise and sunset from a
+ * <code>DaylightTable</code> per coordinate and year, calculated by another
+ * implementation the first time a year is queried.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class TabulatedDaylight implements Daylight {
+
+	private final Daylight daylight;
+
+	private final ZoneId zone;
+
+	private final Map<CoordinateKey, DaylightTable> tables = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param daylight
+	 *            the implementation used to calculate the tables, must be
+	 *            thread safe
+	 * @param zone
+	 *            the time zone of the days
+	 */
+	public TabulatedDaylight(final Daylight daylight, final ZoneId zone) {
+		if (daylight == null) {
+			throw new NullPointerException("Daylight may not be null");
+		}
+
+		if (zone == null) {
+			throw new NullPointerException("Zone may not be null");
+		}
+
+		this.daylight = daylight;
+		this.zone = zone;
+	}
+
+	@Override
+	public Date sunrise(final Coordinate coordinate, final Date date) {
+		final LocalDate day = this.toLocalDate(date);
+		return new Date(this.getTable(coordinate, day.getYear()).sunrise(day));
+	}
+
+	@Override
+	public Date sunset(final Coordinate coordinate, final Date date) {
+		final LocalDate day = this.toLocalDate(date);
+		return new Date(this.getTable(coordinate, day.getYear()).sunset(day));
+	}
+
+	/**
+	 * Retrieve the table of a year, calculating it if necessary
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param year
+	 *            the year
+	 * @return the table
+	 */
+	public DaylightTable getTable(final Coordinate coordinate, final int year) {
+		return this.tables.computeIfAbsent(new CoordinateKey(coordinate, year),
+				key -> DaylightTable.compute(this.daylight, coordinate, year, this.zone));
+	}
+
+	/**
+	 * Remove all calculated tables
+	 */
+	public void clear() {
+		this.tables.clear();
+	}
+
+	private LocalDate toLocalDate(final Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(this.zone).toLocalDate();
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Typed attributes stored in primitive slots. A key is registered once and
+ * resolved to an integer index, reads and writes by index are then lock and
+ * allocation free. All values are stored as longs; booleans as 0 or 1 and
+ * doubles as their raw bits. An unwritten slot has the value 0.
+ * </p>
+ * <p>
+ * The slots are kept in segments of atomic long arrays, so registering new
+ * keys never copies existing values.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class AttributeSlots {
+
+	private static final int SEGMENT_SHIFT = 6;
+
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+
+	private volatile AtomicLongArray[] segments = new AtomicLongArray[0];
+
+	private volatile int size;
+
+	/**
+	 * Register a key. Registering an already registered key returns the same
+	 * index.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the index of the slot
+	 */
+	public int register(final String key) {
+		if (key == null) {
+			throw new NullPointerException("Key may not be null");
+		}
+
+		final Integer index = this.indexes.get(key);
+		if (index != null) {
+			return index;
+		}
+
+		synchronized (this) {
+			final Integer existing = this.indexes.get(key);
+			if (existing != null) {
+				return existing;
+			}
+
+			final int next = this.size;
+			if ((next >>> SEGMENT_SHIFT) == this.segments.length) {
+				final AtomicLongArray[] grown = new AtomicLongArray[this.segments.length + 1];
+				System.arraycopy(this.segments, 0, grown, 0, this.segments.length);
+				grown[this.segments.length] = new AtomicLongArray(SEGMENT_SIZE);
+				this.segments = grown;
+			}
+
+			this.size = next + 1;
+			this.indexes.put(key, next);
+			return next;
+		}
+	}
+
+	/**
+	 * Resolve a key
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the index of the slot, or -1 if the key not is registered
+	 */
+	public int indexOf(final String key) {
+		if (key == null) {
+			return -1;
+		}
+
+		final Integer index = this.indexes.get(key);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return all registered keys and their indexes
+	 */
+	public Map<String, Integer> getIndexes() {
+		return Collections.unmodifiableMap(this.indexes);
+	}
+
+	/**
+	 * @return number of registered slots
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param index
+	 *            the slot
+	 * @return the value
+	 */
+	public long get(final int index) {
+		return this.segment(index).get(index & SEGMENT_MASK);
+	}
+
+	/**
+	 * @param index
+	 *            the slot
+	 * @param value
+	 *            the new value
+	 */
+	public void put(final int index, final long value) {
+		this.segment(index).set(index & SEGMENT_MASK, value);
+	}
+
+	/**
+	 * Increment a slot by one
+	 * 
+	 * @param index
+	 *            the slot
+	 * @return the new value
+	 */
+	public long increment(final int index) {
+		return this.segment(index).incrementAndGet(index & SEGMENT_MASK);
+	}
+
+	/**
+	 * Add to a slot
+	 * 
+	 * @param index
+	 *            the slot
+	 * @param delta
+	 *            the value to add
+	 * @return the new value
+	 */
+	public long add(final int index, final long delta) {
+		return this.segment(index).addAndGet(index & SEGMENT_MASK, delta);
+	}
+
+	/**
+	 * Set a slot if it has the expected value
+	 * 
+	 * @param index
+	 *            the slot
+	 * @param expect
+	 *            the expected value
+	 * @param update
+	 *            the new value
+	 * @return true if the slot was updated, otherwise false
+	 */
+	public boolean compareAndSet(final int index, final long expect, final long update) {
+		return this.segment(index).compareAndSet(index & SEGMENT_MASK, expect, update);
+	}
+
+	/**
+	 * @param index
+	 *            the slot
+	 * @return the value as a boolean
+	 */
+	public boolean getBoolean(final int index) {
+		return this.get(index) != 0;
+	}
+
+	/**
+	 * @param index
+	 *            the slot
+	 * @param value
+	 *            the new value
+	 */
+	public void putBoolean(final int index, final boolean value) {
+		this.put(index, value ? 1 : 0);
+	}
+
+	/**
+	 * @param index
+	 *            the slot
+	 * @return the value as a double
+	 */
+	public double getDouble(final int index) {
+		return Double.longBitsToDouble(this.get(index));
+	}
+
+	/**
+	 * @param index
+	 *            the slot
+	 * @param value
+	 *            the new value
+	 */
+	public void putDouble(final int index, final double value) {
+		this.put(index, Double.doubleToRawLongBits(value));
+	}
+
+	private AtomicLongArray segment(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Slot " + index + " not registered");
+		}
+
+		return this.segments[index >>> SEGMENT_SHIFT];
+	}
+
+	@Override
+	public String toString() {
+		return "AttributeSlots [indexes=" + indexes + "]";
+	}
+}
@@ -0,0 +1,409 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded FIFO queue of events, where an <code>OverflowPolicy</code> decides
+ * what happens when the queue is full. Rejected, dropped and coalesced
+ * elements are counted.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ * @param <E>
+ *            the element type
+ */
+public class BoundedEventQueue<E> {
+
+	private final int capacity;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final Function<? super E, ?> keyFunction;
+
+	private final ArrayDeque<E> elements;
+
+	private final LinkedHashMap<Object, E> coalescedElements;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = this.lock.newCondition();
+
+	private final Condition notFull = this.lock.newCondition();
+
+	private long rejected;
+
+	private long dropped;
+
+	private long coalesced;
+
+	/**
+	 * Constructor, coalescing elements that are equal
+	 * 
+	 * @param capacity
+	 *            the maximum number of queued elements
+	 * @param overflowPolicy
+	 *            the policy when the queue is full
+	 */
+	public BoundedEventQueue(final int capacity, final OverflowPolicy overflowPolicy) {
+		this(capacity, overflowPolicy, Function.identity());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            the maximum number of queued elements
+	 * @param overflowPolicy
+	 *            the policy when the queue is full
+	 * @param keyFunction
+	 *            the key of an element, used by
+	 *            <code>OverflowPolicy.COALESCE</code>
+	 */
+	public BoundedEventQueue(final int capacity, final OverflowPolicy overflowPolicy,
+			final Function<? super E, ?> keyFunction) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+
+		if (overflowPolicy == null) {
+			throw new NullPointerException("Overflow policy may not be null");
+		}
+
+		if (keyFunction == null) {
+			throw new NullPointerException("Key function may not be null");
+		}
+
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.keyFunction = keyFunction;
+
+		if (overflowPolicy == OverflowPolicy.COALESCE) {
+			this.elements = null;
+			this.coalescedElements = new LinkedHashMap<>();
+		} else {
+			this.elements = new ArrayDeque<>(Math.min(capacity, 16));
+			this.coalescedElements = null;
+		}
+	}
+
+	/**
+	 * Add an element according to the overflow policy. If the policy is
+	 * <code>OverflowPolicy.BLOCK</code> the calling thread waits until there
+	 * is space; if interrupted while waiting the element is rejected and the
+	 * interrupt flag is restored.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return true if the element was queued or coalesced, false if rejected
+	 */
+	public boolean offer(final E element) {
+		return this.offer(element, true);
+	}
+
+	/**
+	 * Add an element according to the overflow policy
+	 * 
+	 * @param element
+	 *            the element
+	 * @param wait
+	 *            false to reject the element instead of waiting for space if
+	 *            the policy is <code>OverflowPolicy.BLOCK</code>
+	 * @return true if the element was queued or coalesced, false if rejected
+	 */
+	public boolean offer(final E element, final boolean wait) {
+		if (element == null) {
+			throw new NullPointerException("Element may not be null");
+		}
+
+		this.lock.lock();
+		try {
+			switch (this.overflowPolicy) {
+			case COALESCE:
+				final Object key = this.keyFunction.apply(element);
+				if (this.coalescedElements.containsKey(key)) {
+					this.coalescedElements.put(key, element);
+					this.coalesced++;
+					return true;
+				}
+
+				if (this.coalescedElements.size() >= this.capacity) {
+					this.rejected++;
+					return false;
+				}
+
+				this.coalescedElements.put(key, element);
+				break;
+
+			case DROP_NEWEST:
+				if (this.elements.size() >= this.capacity) {
+					this.rejected++;
+					return false;
+				}
+
+				this.elements.add(element);
+				break;
+
+			case DROP_OLDEST:
+				if (this.elements.size() >= this.capacity) {
+					this.elements.poll();
+					this.dropped++;
+				}
+
+				this.elements.add(element);
+				break;
+
+			default:
+				if (!wait && this.elements.size() >= this.capacity) {
+					this.rejected++;
+					return false;
+				}
+
+				try {
+					while (this.elements.size() >= this.capacity) {
+						this.notFull.await();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					this.rejected++;
+					return false;
+				}
+
+				this.elements.add(element);
+			}
+
+			this.notEmpty.signal();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve and remove the oldest element
+	 * 
+	 * @return the element or null if the queue is empty
+	 */
+	public E poll() {
+		this.lock.lock();
+		try {
+			return this.dequeue();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve and remove the oldest element, waiting if necessary
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the time unit of the timeout
+	 * @return the element or null if the timeout elapsed
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public E poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+
+		this.lock.lockInterruptibly();
+		try {
+			E element;
+			while ((element = this.dequeue()) == null) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			return element;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove all queued elements, oldest first, without waiting
+	 * 
+	 * @param collection
+	 *            the collection to add the elements to
+	 * @return the number of elements added
+	 */
+	public int drainTo(final Collection<? super E> collection) {
+		if (collection == null) {
+			throw new NullPointerException("Collection may not be null");
+		}
+
+		this.lock.lock();
+		try {
+			int count = 0;
+			E element;
+			while ((element = this.dequeue()) != null) {
+				collection.add(element);
+				count++;
+			}
+			return count;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Check if an element with a specific key is queued
+	 * 
+	 * @param key
+	 *            the key
+	 * @return true if an element with the key is queued
+	 */
+	public boolean containsKey(final Object key) {
+		this.lock.lock();
+		try {
+			if (this.coalescedElements != null) {
+				return this.coalescedElements.containsKey(key);
+			}
+
+			for (final E element : this.elements) {
+				if (key == null ? this.keyFunction.apply(element) == null : key.equals(this.keyFunction.apply(element))) {
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of queued elements
+	 */
+	public int size() {
+		this.lock.lock();
+		try {
+			return this.coalescedElements != null ? this.coalescedElements.size() : this.elements.size();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return true if no elements are queued
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * @return the maximum number of queued elements
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the policy when the queue is full
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * @return the number of elements that have been rejected
+	 */
+	public long getRejectedCount() {
+		this.lock.lock();
+		try {
+			return rejected;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of queued elements that have been dropped to make
+	 *         space for newer elements
+	 */
+	public long getDroppedCount() {
+		this.lock.lock();
+		try {
+			return dropped;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of queued elements that have been replaced by a newer
+	 *         element with the same key
+	 */
+	public long getCoalescedCount() {
+		this.lock.lock();
+		try {
+			return coalesced;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove the oldest element, must be called while holding the lock
+	 * 
+	 * @return the element or null if the queue is empty
+	 */
+	private E dequeue() {
+		final E element;
+
+		if (this.coalescedElements != null) {
+			final Iterator<Map.Entry<Object, E>> iterator = this.coalescedElements.entrySet().iterator();
+			if (!iterator.hasNext()) {
+				return null;
+			}
+			element = iterator.next().getValue();
+			iterator.remove();
+		} else {
+			element = this.elements.poll();
+			if (element == null) {
+				return null;
+			}
+		}
+
+		this.notFull.signal();
+		return element;
+	}
+
+	@Override
+	public String toString() {
+		return "BoundedEventQueue [capacity=" + capacity + ", overflowPolicy=" + overflowPolicy + ", size="
+				+ this.size() + ", rejected=" + this.getRejectedCount() + ", dropped=" + this.getDroppedCount()
+				+ ", coalesced=" + this.getCoalescedCount() + "]";
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>DelayedEventStore</code> backed by a <code>DelayQueue</code>. Insert
+ * and poll are O(log n), remove is O(n).
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class DelayQueueEventStore implements DelayedEventStore {
+
+	private final DelayQueue<DelayedEvent> delayedEvents = new DelayQueue<>();
+
+	@Override
+	public void put(final DelayedEvent delayedEvent) {
+		this.delayedEvents.put(delayedEvent);
+	}
+
+	@Override
+	public DelayedEvent poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+		return this.delayedEvents.poll(timeout, unit);
+	}
+
+	@Override
+	public boolean remove(final DelayedEvent delayedEvent) {
+		return this.delayedEvents.remove(delayedEvent);
+	}
+
+	@Override
+	public DelayedEvent element() {
+		return this.delayedEvents.element();
+	}
+
+	@Override
+	public int size() {
+		return this.delayedEvents.size();
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage of pending <code>DelayedEvent</code>s that are waiting to be
+ * published by the <code>EventComponent</code>. Implementations must be thread
+ * safe and must wake up a waiting <code>poll</code> when an event with an
+ * earlier deadline is added.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public interface DelayedEventStore {
+
+	/**
+	 * Add a delayed event
+	 * 
+	 * @param delayedEvent
+	 *            the delayed event
+	 */
+	void put(DelayedEvent delayedEvent);
+
+	/**
+	 * Retrieve and remove the next event that has expired, waiting if
+	 * necessary until an event expires or the timeout elapses
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the time unit of the timeout
+	 * @return the expired event or null if the timeout elapsed
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	DelayedEvent poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+	/**
+	 * Remove a pending event. Events are matched with <code>equals</code>, so
+	 * an equal instance removes the pending event. If several equal events
+	 * are pending, only one of them is removed.
+	 * 
+	 * @param delayedEvent
+	 *            the event to remove
+	 * @return true if an equal event was pending and has been removed
+	 */
+	boolean remove(DelayedEvent delayedEvent);
+
+	/**
+	 * Retrieve, but do not remove, the event with the earliest deadline
+	 * 
+	 * @return the event with the earliest deadline
+	 * @throws NoSuchElementException
+	 *             if there are no pending events
+	 */
+	DelayedEvent element();
+
+	/**
+	 * @return the number of pending events
+	 */
+	int size();
+}
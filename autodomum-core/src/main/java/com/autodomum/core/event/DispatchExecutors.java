@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of executors used for asynchronous event dispatch
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public final class DispatchExecutors {
+
+	private DispatchExecutors() {
+	}
+
+	/**
+	 * Create an executor for asynchronous event dispatch. Virtual threads are
+	 * used when the running JDK supports them, otherwise a fixed pool of
+	 * daemon threads, one per available processor.
+	 * 
+	 * @return the executor
+	 */
+	public static ExecutorService newDispatchExecutor() {
+		try {
+			final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return newFixedDispatchExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()));
+		}
+	}
+
+	/**
+	 * Create an executor with a fixed number of daemon threads
+	 * 
+	 * @param threads
+	 *            the number of threads
+	 * @return the executor
+	 */
+	public static ExecutorService newFixedDispatchExecutor(final int threads) {
+		final AtomicInteger counter = new AtomicInteger();
+		final ThreadFactory threadFactory = runnable -> {
+			final Thread thread = new Thread(runnable);
+			thread.setDaemon(true);
+			thread.setName("EventDispatch-" + counter.incrementAndGet());
+			return thread;
+		};
+
+		return Executors.newFixedThreadPool(threads, threadFactory);
+	}
+}
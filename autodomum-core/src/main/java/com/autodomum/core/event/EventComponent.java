@@ -23,16 +23,24 @@
  */
 package com.autodomum.core.event;
 
+import java.io.IOException;
 import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +48,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import com.autodomum.core.daylight.Coordinate;
 import com.autodomum.core.daylight.Daylight;
 import com.autodomum.core.holiday.Holiday;
 
@@ -56,9 +65,19 @@ public class EventComponent implements Runnable {
 
 	private static final Logger LOG = LoggerFactory.getLogger(EventComponent.class);
 
-	private final Map<Class<?>, List<EventCallback>> eventCallbacks = new ConcurrentHashMap<>();
+	private static final long POLLING_INTERVAL = 1000L;
 
-	protected final DelayQueue<DelayedEvent> delayedEvents = new DelayQueue<>();
+	private static final long MINUTE = 60000L;
+
+	private static final EventSubscription[] NO_SUBSCRIPTIONS = new EventSubscription[0];
+
+	private final Map<Class<?>, List<EventSubscription>> eventCallbacks = new ConcurrentHashMap<>();
+
+	private final Map<Class<?>, EventSubscription[]> dispatchTable = new ConcurrentHashMap<>();
+
+	protected volatile DelayedEventStore delayedEvents = new DelayQueueEventStore();
+
+	private final Map<String, List<FireOnceEvent>> pendingEvents = new ConcurrentHashMap<>();
 
 	private Clock clock = Clock.systemUTC();
 
@@ -68,39 +87,205 @@ public class EventComponent implements Runnable {
 
 	private Holiday holiday;
 
+	private SchedulerMode schedulerMode = SchedulerMode.POLLING;
+
+	private DispatchPolicy dispatchPolicy = DispatchPolicy.SYNCHRONOUS;
+
+	private Executor dispatchExecutor;
+
+	private int dispatchQueueCapacity = Integer.MAX_VALUE;
+
+	private OverflowPolicy dispatchOverflowPolicy = OverflowPolicy.BLOCK;
+
+	private int delayedEventLimit = Integer.MAX_VALUE;
+
+	private OverflowPolicy delayedEventOverflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+	private final AtomicLong rejectedDelayedEvents = new AtomicLong();
+
+	private EventJournal journal;
+
+	/**
+	 * The journal once state has been recovered from it, changes made before
+	 * recovery are not recorded
+	 */
+	private volatile EventJournal activeJournal;
+
 	@Override
 	public void run() {
 		try {
 			LOG.info("Started!");
 			try {
 				this.updateEventContext();
+				this.recover();
 				this.publish(new StartupEvent());
 				while (true) {
 					this.updateEventContext();
 					this.handleDelayedEvent();
+					this.compactJournal();
 				}
 			} catch (InterruptedException e) {
 			}
 			this.publish(new ShutdownEvent());
+			this.closeJournal();
 			LOG.info("Exit!");
 		} catch (Exception e) {
 			LOG.error("Unknown error ocurred in EventComponent", e);
 		}
 	}
 
+	/**
+	 * Restore attributes, slots and pending events from the journal, if any,
+	 * and start recording changes. Events that should have fired while the
+	 * system was down fire immediately, events over the limit of pending
+	 * delayed events are dropped and counted. If recovery fails the journal is
+	 * closed and changes are not recorded.
+	 */
+	void recover() {
+		final EventJournal journal = this.journal;
+		if (journal == null) {
+			return;
+		}
+
+		try {
+			final EventJournal.State state = journal.recover();
+
+			this.eventContext.getAttributes().putAll(state.getAttributes());
+			final AttributeSlots slots = this.eventContext.getSlots();
+			for (final Map.Entry<String, Long> entry : state.getSlots().entrySet()) {
+				slots.put(slots.register(entry.getKey()), entry.getValue());
+			}
+
+			final long rejected = this.rejectedDelayedEvents.get();
+			for (final Map.Entry<String, Set<Long>> entry : state.getEvents().entrySet()) {
+				for (final Long timestamp : entry.getValue()) {
+					this.addDelayedEvent(new FireOnceEvent(this.clock, timestamp, entry.getKey()));
+				}
+			}
+			if (this.rejectedDelayedEvents.get() > rejected) {
+				LOG.warn("Dropped {} recovered events over the limit of {} pending delayed events",
+						this.rejectedDelayedEvents.get() - rejected, this.delayedEventLimit);
+			}
+
+			journal.compact(this::captureState);
+			this.eventContext.setJournal(journal);
+			this.activeJournal = journal;
+		} catch (IOException | RuntimeException e) {
+			try {
+				journal.close();
+			} catch (IOException closeFailure) {
+				e.addSuppressed(closeFailure);
+			}
+			LOG.error("Failed to recover from journal in " + journal.getDirectory(), e);
+		}
+	}
+
+	/**
+	 * Compact the journal if enough changes have been recorded
+	 */
+	void compactJournal() {
+		final EventJournal journal = this.activeJournal;
+		if (journal == null || !journal.isCompactionDue()) {
+			return;
+		}
+
+		try {
+			journal.compact(this::captureState);
+		} catch (IOException e) {
+			LOG.error("Failed to compact journal in " + journal.getDirectory(), e);
+		}
+	}
+
+	private void closeJournal() {
+		final EventJournal journal = this.activeJournal;
+		if (journal == null) {
+			return;
+		}
+
+		this.activeJournal = null;
+		this.eventContext.setJournal(null);
+		try {
+			journal.compact(this::captureState);
+			journal.close();
+		} catch (IOException e) {
+			LOG.error("Failed to close journal in " + journal.getDirectory(), e);
+		}
+	}
+
+	/**
+	 * @return the current persistent state
+	 */
+	private EventJournal.State captureState() {
+		final EventJournal.State state = new EventJournal.State();
+		state.getAttributes().putAll(this.eventContext.getAttributes());
+
+		final AttributeSlots slots = this.eventContext.getSlots();
+		for (final Map.Entry<String, Integer> entry : slots.getIndexes().entrySet()) {
+			state.getSlots().put(entry.getKey(), slots.get(entry.getValue()));
+		}
+
+		for (final List<FireOnceEvent> events : this.pendingEvents.values()) {
+			for (final FireOnceEvent event : events) {
+				state.schedule(event.getName(), event.getTimestamp());
+			}
+		}
+		return state;
+	}
+
 	/**
 	 * Retrieve and handle events
 	 * 
 	 * @throws InterruptedException
 	 */
 	void handleDelayedEvent() throws InterruptedException {
-		final DelayedEvent delayedEvent = this.delayedEvents.poll(1, TimeUnit.SECONDS);
+		final DelayedEvent delayedEvent = this.delayedEvents.poll(this.getTimeout(), TimeUnit.MILLISECONDS);
 
 		if (delayedEvent != null) {
+			this.unindex(delayedEvent);
 			this.publish(delayedEvent);
 		}
 	}
 
+	/**
+	 * Calculate how long the scheduler may wait for a delayed event before the
+	 * event context has to be updated again. A delayed event that is added
+	 * with an earlier deadline wakes the scheduler before the timeout.
+	 * 
+	 * @return the timeout in milliseconds
+	 */
+	long getTimeout() {
+		if (this.schedulerMode == SchedulerMode.POLLING) {
+			return POLLING_INTERVAL;
+		}
+
+		final long now = this.clock.millis();
+		long wakeup = now - (now % MINUTE) + MINUTE;
+
+		// Wake up just after sunrise/sunset so that daylight has changed
+		wakeup = earliest(wakeup, now, this.eventContext.getNextSunrise() + 1);
+		wakeup = earliest(wakeup, now, this.eventContext.getNextSunset() + 1);
+
+		return wakeup - now;
+	}
+
+	/**
+	 * Select the earliest wakeup that still is in the future
+	 * 
+	 * @param wakeup
+	 *            the current wakeup
+	 * @param now
+	 *            the current time
+	 * @param candidate
+	 *            the candidate wakeup
+	 * @return the earliest wakeup
+	 */
+	private static long earliest(final long wakeup, final long now, final long candidate) {
+		if (candidate > now && candidate < wakeup) {
+			return candidate;
+		}
+		return wakeup;
+	}
+
 	/**
 	 * @return the current time
 	 */
@@ -116,49 +301,88 @@ public class EventComponent implements Runnable {
 	}
 
 	/**
-	 * Update the event context with correct parameters
+	 * Update the event context with correct parameters. All parameters are
+	 * published at once as a new <code>EventContextSnapshot</code>, which is
+	 * computed again if the context has been changed meanwhile, e.g. by
+	 * <code>setCoordinate</code>.
 	 */
 	public void updateEventContext() {
+		EventContextSnapshot current;
+		EventContextSnapshot updated;
+		do {
+			current = this.eventContext.getSnapshot();
+			updated = this.nextSnapshot(current);
+		} while (!this.eventContext.compareAndSetSnapshot(current, updated));
+
+		if (updated.isDaylight() != current.isDaylight()) {
+			if (updated.isDaylight()) {
+				this.publish(new SunriseEvent());
+			} else {
+				this.publish(new SunsetEvent());
+			}
+		}
+	}
+
+	/**
+	 * Compute the time and daylight parameters
+	 * 
+	 * @param current
+	 *            the current snapshot
+	 * @return the new snapshot
+	 */
+	private EventContextSnapshot nextSnapshot(final EventContextSnapshot current) {
+		final Coordinate coordinate = current.getCoordinate();
 		final Date now = this.getNow();
 		final Calendar tomorrowCalendar = this.getCalendar();
 		tomorrowCalendar.setTime(now);
 
-		this.eventContext.setHoliday(holiday.isHoliday(tomorrowCalendar));
-		this.eventContext.setHour(tomorrowCalendar.get(Calendar.HOUR_OF_DAY));
-		this.eventContext.setMinute(tomorrowCalendar.get(Calendar.MINUTE));
+		final boolean isHoliday = holiday.isHoliday(tomorrowCalendar);
+		final int hour = tomorrowCalendar.get(Calendar.HOUR_OF_DAY);
+		final int minute = tomorrowCalendar.get(Calendar.MINUTE);
 
 		tomorrowCalendar.add(Calendar.DATE, 1);
-		final Date tomorrow = tomorrowCalendar.getTime();
+		final long today = now.getTime();
+		final long tomorrow = tomorrowCalendar.getTimeInMillis();
 
-		final Date sunrise = this.daylight.sunrise(eventContext.getCoordinate(), now);
-		final Date sunset = this.daylight.sunset(eventContext.getCoordinate(), now);
-		final Date sunriseTomorrow = this.daylight.sunrise(eventContext.getCoordinate(), tomorrow);
-		final Date sunsetTomorrow = this.daylight.sunset(eventContext.getCoordinate(), tomorrow);
+		// The millis queries do not allocate when the daylight is cached
+		final long sunrise = this.daylight.sunriseMillis(coordinate, today);
+		final long sunset = this.daylight.sunsetMillis(coordinate, today);
+		final long sunriseTomorrow = this.daylight.sunriseMillis(coordinate, tomorrow);
+		final long sunsetTomorrow = this.daylight.sunsetMillis(coordinate, tomorrow);
 
 		boolean newDaylight = false;
-		if (now.after(sunset)) {
+		final long nextSunrise;
+		final long nextSunset;
+		if (today > sunset) {
 			newDaylight = false;
-			this.eventContext.setNextSunrise(sunriseTomorrow.getTime());
-			this.eventContext.setNextSunset(sunsetTomorrow.getTime());
+			nextSunrise = sunriseTomorrow;
+			nextSunset = sunsetTomorrow;
 
-		} else if (now.after(sunrise)) {
+		} else if (today > sunrise) {
 			newDaylight = true;
-			this.eventContext.setNextSunrise(sunriseTomorrow.getTime());
-			this.eventContext.setNextSunset(sunset.getTime());
+			nextSunrise = sunriseTomorrow;
+			nextSunset = sunset;
 		} else {
-			this.eventContext.setNextSunrise(sunrise.getTime());
-			this.eventContext.setNextSunset(sunset.getTime());
+			nextSunrise = sunrise;
+			nextSunset = sunset;
 		}
 
-		if (newDaylight != this.eventContext.isDaylight()) {
-			this.eventContext.setDaylight(newDaylight);
+		return new EventContextSnapshot(coordinate, newDaylight, nextSunrise, nextSunset, hour, minute, isHoliday);
+	}
 
-			if (newDaylight) {
-				this.publish(new SunriseEvent());
-			} else {
-				this.publish(new SunsetEvent());
-			}
-		}
+	/**
+	 * Register callback to receive events for a specific type, using the
+	 * default dispatch policy. The callback receives all events that are
+	 * instances of the type, including subclasses and implementations of
+	 * interfaces.
+	 * 
+	 * @param eventType
+	 *            the event type that the callback should be assigned to
+	 * @param eventCallback
+	 *            the callback
+	 */
+	public void register(final Class<?> eventType, final EventCallback eventCallback) {
+		this.register(eventType, eventCallback, this.dispatchPolicy);
 	}
 
 	/**
@@ -168,12 +392,41 @@ public class EventComponent implements Runnable {
 	 *            the event type that the callback should be assigned to
 	 * @param eventCallback
 	 *            the callback
+	 * @param dispatchPolicy
+	 *            on which thread the callback should be called
 	 */
-	public synchronized void register(final Class<?> eventType, final EventCallback eventCallback) {
+	public void register(final Class<?> eventType, final EventCallback eventCallback,
+			final DispatchPolicy dispatchPolicy) {
+		if (dispatchPolicy == null) {
+			throw new NullPointerException("Dispatch policy may not be null");
+		}
+
+		if (dispatchPolicy == DispatchPolicy.ASYNCHRONOUS) {
+			this.register(eventType, eventCallback, this.getDispatchExecutor());
+		} else {
+			this.register(eventType, eventCallback, (Executor) null);
+		}
+	}
+
+	/**
+	 * Register callback to receive events for a specific type on an executor.
+	 * Events are delivered to the callback one at a time and in the order they
+	 * were published.
+	 * 
+	 * @param eventType
+	 *            the event type that the callback should be assigned to
+	 * @param eventCallback
+	 *            the callback
+	 * @param executor
+	 *            the executor or null to call the callback on the publishing
+	 *            thread
+	 */
+	public synchronized void register(final Class<?> eventType, final EventCallback eventCallback,
+			final Executor executor) {
 		checkEventType(eventType);
 		checkEventCallback(eventCallback);
 
-		List<EventCallback> callbacks = this.eventCallbacks.get(eventType);
+		List<EventSubscription> callbacks = this.eventCallbacks.get(eventType);
 
 		if (callbacks == null) {
 			callbacks = new CopyOnWriteArrayList<>();
@@ -181,7 +434,9 @@ public class EventComponent implements Runnable {
 		}
 
 		LOG.debug("Registered callback {} for event type {}", eventCallback, eventType);
-		callbacks.add(eventCallback);
+		callbacks.add(new EventSubscription(eventCallback, executor, this.dispatchQueueCapacity,
+				this.dispatchOverflowPolicy));
+		this.dispatchTable.clear();
 	}
 
 	/**
@@ -196,15 +451,56 @@ public class EventComponent implements Runnable {
 			throw new NullPointerException("Event may not be null");
 		}
 
-		final List<EventCallback> callbacks = this.eventCallbacks.getOrDefault(event.getClass(),
-				Collections.emptyList());
+		EventSubscription[] callbacks = this.dispatchTable.get(event.getClass());
+		if (callbacks == null) {
+			callbacks = this.resolve(event.getClass());
+		}
 
-		LOG.debug("Fire {} for {} callbacks", event);
-		for (final EventCallback callback : callbacks) {
-			callback.work(this.eventContext, event);
+		LOG.debug("Fire {} for {} callbacks", event, callbacks.length);
+		for (final EventSubscription callback : callbacks) {
+			callback.deliver(this.eventContext, event);
 		}
 	}
 
+	/**
+	 * Resolve all callbacks that are registered for a class, its superclasses
+	 * or any of its interfaces, and cache the result until the next register
+	 * or unregister
+	 * 
+	 * @param eventClass
+	 *            the concrete event class
+	 * @return the callbacks
+	 */
+	private synchronized EventSubscription[] resolve(final Class<?> eventClass) {
+		final EventSubscription[] cached = this.dispatchTable.get(eventClass);
+		if (cached != null) {
+			return cached;
+		}
+
+		final Set<Class<?>> types = new LinkedHashSet<>();
+		final Deque<Class<?>> queue = new ArrayDeque<>();
+		queue.add(eventClass);
+
+		while (!queue.isEmpty()) {
+			final Class<?> type = queue.poll();
+			if (types.add(type)) {
+				if (type.getSuperclass() != null) {
+					queue.add(type.getSuperclass());
+				}
+				queue.addAll(Arrays.asList(type.getInterfaces()));
+			}
+		}
+
+		final List<EventSubscription> callbacks = new ArrayList<>();
+		for (final Class<?> type : types) {
+			callbacks.addAll(this.eventCallbacks.getOrDefault(type, Collections.emptyList()));
+		}
+
+		final EventSubscription[] resolved = callbacks.toArray(NO_SUBSCRIPTIONS);
+		this.dispatchTable.put(eventClass, resolved);
+		return resolved;
+	}
+
 	/**
 	 * Unregister callback for a specific event
 	 * 
@@ -217,10 +513,16 @@ public class EventComponent implements Runnable {
 		checkEventType(eventType);
 		checkEventCallback(eventCallback);
 
-		final List<EventCallback> callbacks = this.eventCallbacks.get(eventType);
+		final List<EventSubscription> callbacks = this.eventCallbacks.get(eventType);
 
 		if (callbacks != null) {
-			callbacks.remove(eventCallback);
+			for (final EventSubscription callback : callbacks) {
+				if (callback.getEventCallback().equals(eventCallback)) {
+					callbacks.remove(callback);
+					break;
+				}
+			}
+			this.dispatchTable.clear();
 
 			LOG.debug("Unregistered callback {} for event type {}", eventCallback, eventType);
 		}
@@ -235,59 +537,339 @@ public class EventComponent implements Runnable {
 	 *            the minute tomorrow
 	 * @param name
 	 *            the name of the event
+	 * @return the registered event, which may be used to cancel it, or null if
+	 *         the limit of pending delayed events has been reached
 	 */
-	public void registerEventOnceTomorrow(final int hour, final int minute, final String name) {
-		if (hour < 0 || hour > 23) {
-			throw new IllegalArgumentException("Hour is a 24h clock, acceptable values are 0-23: " + hour);
+	public FireOnceEvent registerEventOnceTomorrow(final int hour, final int minute, final String name) {
+		final long time = this.tomorrow(hour, minute);
+		checkName(name);
+
+		final FireOnceEvent event = new FireOnceEvent(this.clock, time, name);
+		if (!this.addDelayedEvent(event)) {
+			return null;
 		}
+		LOG.debug("Added event {} to run {}", name, time);
+		return event;
+	}
 
-		if (minute < 0 || minute > 59) {
-			throw new IllegalArgumentException("Minute, acceptable values are 0-59: " + minute);
+	/**
+	 * Register a <code>FireOnceEvent</code> in the future
+	 * 
+	 * @param milliseconds
+	 *            the amount of milliseconds in the future
+	 * @param name
+	 *            the name of the event
+	 * @return the registered event, which may be used to cancel it, or null if
+	 *         the limit of pending delayed events has been reached
+	 */
+	public FireOnceEvent registerEventOnce(final long milliseconds, final String name) {
+		if (milliseconds < 0) {
+			throw new IllegalArgumentException("Event must be in the future");
 		}
 
 		checkName(name);
+		final long time = this.clock.millis() + milliseconds;
+		final FireOnceEvent event = new FireOnceEvent(this.clock, time, name);
+		if (!this.addDelayedEvent(event)) {
+			return null;
+		}
+		LOG.debug("Added event {} to run {}", name, time);
+		return event;
+	}
 
-		final Calendar calendar = this.getCalendar();
-		calendar.add(Calendar.DATE, 1);
-		calendar.set(Calendar.HOUR_OF_DAY, hour);
-		calendar.set(Calendar.MINUTE, minute);
-		calendar.set(Calendar.SECOND, 0);
-		calendar.set(Calendar.MILLISECOND, 0);
-
-		this.addDelayedEvent(new FireOnceEvent(this.clock, calendar.getTimeInMillis(), name));
-		LOG.debug("Added event {} to run {}", name, calendar.getTime());
+	/**
+	 * Replace all pending <code>FireOnceEvent</code>s with the same name with
+	 * a single event tomorrow
+	 * 
+	 * @param hour
+	 *            the hour tomorrow
+	 * @param minute
+	 *            the minute tomorrow
+	 * @param name
+	 *            the name of the event
+	 * @return the registered event, or null if the limit of pending delayed
+	 *         events has been reached and no event with the name is pending
+	 */
+	public FireOnceEvent replaceEventOnceTomorrow(final int hour, final int minute, final String name) {
+		return this.replace(name, this.tomorrow(hour, minute));
 	}
 
 	/**
-	 * Register a <code>FireOnceEvent</code> in the future
+	 * Replace all pending <code>FireOnceEvent</code>s with the same name with
+	 * a single event in the future
 	 * 
 	 * @param milliseconds
 	 *            the amount of milliseconds in the future
 	 * @param name
 	 *            the name of the event
+	 * @return the registered event, or null if the limit of pending delayed
+	 *         events has been reached and no event with the name is pending
 	 */
-	public void registerEventOnce(final long milliseconds, final String name) {
+	public FireOnceEvent replaceEventOnce(final long milliseconds, final String name) {
 		if (milliseconds < 0) {
 			throw new IllegalArgumentException("Event must be in the future");
 		}
 
+		return this.replace(name, this.clock.millis() + milliseconds);
+	}
+
+	/**
+	 * Replace all pending <code>FireOnceEvent</code>s with the same name with
+	 * a single event
+	 * 
+	 * @param name
+	 *            the name of the event
+	 * @param timestamp
+	 *            the time when the event should occur in UTC milliseconds
+	 * @return the registered event, or null if the limit of pending delayed
+	 *         events has been reached and no event with the name is pending
+	 */
+	public FireOnceEvent replace(final String name, final long timestamp) {
 		checkName(name);
-		final long time = this.clock.millis() + milliseconds;
-		this.addDelayedEvent(new FireOnceEvent(this.clock, time, name));
-		LOG.debug("Added event {} to run {}", name, time);
+
+		final FireOnceEvent event = new FireOnceEvent(this.clock, timestamp, name);
+
+		if (!this.pendingEvents.containsKey(name) && !this.checkDelayedEventLimit(event)) {
+			return null;
+		}
+		this.coalesce(event);
+
+		LOG.debug("Replaced event {} to run {}", name, timestamp);
+		return event;
+	}
+
+	/**
+	 * Replace all pending events with the same name as the event
+	 * 
+	 * @param event
+	 *            the event
+	 */
+	private void coalesce(final FireOnceEvent event) {
+		final EventJournal journal = this.activeJournal;
+		final long[] sequence = new long[1];
+		this.pendingEvents.compute(event.getName(), (key, events) -> {
+			if (events != null) {
+				for (final FireOnceEvent pending : events) {
+					this.delayedEvents.remove(pending);
+				}
+			}
+			this.delayedEvents.put(event);
+			if (journal != null) {
+				sequence[0] = journal.replaced(event.getName(), event.getTimestamp());
+			}
+			return Collections.singletonList(event);
+		});
+
+		sync(journal, sequence[0]);
 	}
 
 	/**
-	 * Add a delayed event
+	 * Check if a new delayed event may be added, counting it as rejected if
+	 * the limit of pending delayed events has been reached
 	 * 
 	 * @param delayed
 	 *            the delayed event
+	 * @return true if the event may be added
 	 */
-	public void addDelayedEvent(final DelayedEvent delayed) {
+	private boolean checkDelayedEventLimit(final DelayedEvent delayed) {
+		if (this.delayedEvents.size() >= this.delayedEventLimit) {
+			this.rejectedDelayedEvents.incrementAndGet();
+			LOG.debug("Limit of {} pending delayed events reached, rejected {}", this.delayedEventLimit, delayed);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Cancel all pending <code>FireOnceEvent</code>s with a specific name
+	 * 
+	 * @param name
+	 *            the name of the events
+	 * @return the number of cancelled events
+	 */
+	public int cancel(final String name) {
+		checkName(name);
+
+		final EventJournal journal = this.activeJournal;
+		final long[] sequence = new long[1];
+		final int[] cancelled = new int[1];
+		this.pendingEvents.computeIfPresent(name, (key, events) -> {
+			for (final FireOnceEvent event : events) {
+				if (this.delayedEvents.remove(event)) {
+					cancelled[0]++;
+				}
+			}
+			if (journal != null) {
+				sequence[0] = journal.cancelled(name);
+			}
+			return null;
+		});
+
+		sync(journal, sequence[0]);
+
+		LOG.debug("Cancelled {} events with name {}", cancelled[0], name);
+		return cancelled[0];
+	}
+
+	/**
+	 * Cancel a pending delayed event
+	 * 
+	 * @param delayed
+	 *            the delayed event
+	 * @return true if the event was pending and has been cancelled
+	 */
+	public boolean cancel(final DelayedEvent delayed) {
+		if (delayed == null) {
+			throw new NullPointerException("Delayed event may not be null");
+		}
+
+		if (!this.delayedEvents.remove(delayed)) {
+			return false;
+		}
+
+		this.unindex(delayed);
+		LOG.debug("Cancelled event {}", delayed);
+		return true;
+	}
+
+	/**
+	 * Add a delayed event. If the limit of pending delayed events has been
+	 * reached the event is dropped and counted, unless the overflow policy is
+	 * <code>OverflowPolicy.COALESCE</code> and the event replaces pending
+	 * events with the same name.
+	 * 
+	 * @param delayed
+	 *            the delayed event
+	 * @return true if the event has been added, false if it has been dropped
+	 */
+	public boolean addDelayedEvent(final DelayedEvent delayed) {
 		if (delayed == null) {
 			throw new NullPointerException("Delayed event may not be null");
 		}
-		this.delayedEvents.put(delayed);
+
+		if (this.delayedEventOverflowPolicy == OverflowPolicy.COALESCE && isIndexed(delayed)
+				&& this.delayedEvents.size() >= this.delayedEventLimit
+				&& this.pendingEvents.containsKey(((FireOnceEvent) delayed).getName())) {
+			this.coalesce((FireOnceEvent) delayed);
+			return true;
+		}
+
+		if (!this.checkDelayedEventLimit(delayed)) {
+			return false;
+		}
+
+		if (isIndexed(delayed)) {
+			final FireOnceEvent event = (FireOnceEvent) delayed;
+			final EventJournal journal = this.activeJournal;
+			final long[] sequence = new long[1];
+			this.pendingEvents.compute(event.getName(), (key, events) -> {
+				final List<FireOnceEvent> list = events == null ? new ArrayList<>(1) : new ArrayList<>(events);
+				list.add(event);
+				this.delayedEvents.put(event);
+				if (journal != null) {
+					sequence[0] = journal.scheduled(event.getName(), event.getTimestamp());
+				}
+				return list;
+			});
+
+			sync(journal, sequence[0]);
+		} else {
+			this.delayedEvents.put(delayed);
+		}
+		return true;
+	}
+
+	/**
+	 * Remove a delayed event from the name index. Events are matched with
+	 * <code>equals</code>, the same way as the <code>DelayedEventStore</code>
+	 * matches them.
+	 * 
+	 * @param delayed
+	 *            the delayed event
+	 * @return true if the event was indexed and has been removed
+	 */
+	private boolean unindex(final DelayedEvent delayed) {
+		if (!isIndexed(delayed)) {
+			return false;
+		}
+
+		final FireOnceEvent event = (FireOnceEvent) delayed;
+		final EventJournal journal = this.activeJournal;
+		final long[] sequence = new long[1];
+		final boolean[] removed = new boolean[1];
+		this.pendingEvents.computeIfPresent(event.getName(), (key, events) -> {
+			final List<FireOnceEvent> list = new ArrayList<>(events.size());
+			removed[0] = false;
+			for (final FireOnceEvent pending : events) {
+				if (!removed[0] && pending.equals(event)) {
+					removed[0] = true;
+				} else {
+					list.add(pending);
+				}
+			}
+			if (removed[0] && journal != null) {
+				sequence[0] = journal.removed(event.getName(), event.getTimestamp());
+			}
+			return list.isEmpty() ? null : list;
+		});
+
+		sync(journal, sequence[0]);
+		return removed[0];
+	}
+
+	/**
+	 * Wait until a journal record is on disk. Records are written inside the
+	 * <code>compute</code> that makes the change, so that the journal order
+	 * matches the order of the changes, and synced after it has returned.
+	 * 
+	 * @param journal
+	 *            the journal or null
+	 * @param sequence
+	 *            the sequence number of the record
+	 */
+	private static void sync(final EventJournal journal, final long sequence) {
+		if (journal != null) {
+			journal.sync(sequence);
+		}
+	}
+
+	/**
+	 * Check if a delayed event should be indexed by name
+	 * 
+	 * @param delayed
+	 *            the delayed event
+	 * @return true if the event is a named <code>FireOnceEvent</code>
+	 */
+	private static boolean isIndexed(final DelayedEvent delayed) {
+		return delayed instanceof FireOnceEvent && ((FireOnceEvent) delayed).getName() != null;
+	}
+
+	/**
+	 * Calculate a time tomorrow
+	 * 
+	 * @param hour
+	 *            the hour tomorrow
+	 * @param minute
+	 *            the minute tomorrow
+	 * @return the time in UTC milliseconds
+	 */
+	private long tomorrow(final int hour, final int minute) {
+		if (hour < 0 || hour > 23) {
+			throw new IllegalArgumentException("Hour is a 24h clock, acceptable values are 0-23: " + hour);
+		}
+
+		if (minute < 0 || minute > 59) {
+			throw new IllegalArgumentException("Minute, acceptable values are 0-59: " + minute);
+		}
+
+		final Calendar calendar = this.getCalendar();
+		calendar.add(Calendar.DATE, 1);
+		calendar.set(Calendar.HOUR_OF_DAY, hour);
+		calendar.set(Calendar.MINUTE, minute);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+
+		return calendar.getTimeInMillis();
 	}
 
 	@Autowired
@@ -305,10 +887,196 @@ public class EventComponent implements Runnable {
 		this.holiday = holiday;
 	}
 
+	/**
+	 * @return the journal that attributes and pending events are persisted in,
+	 *         or null
+	 */
+	public EventJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Persist attributes and pending events in a journal. The state is
+	 * recovered from the journal when the component is started, before the
+	 * <code>StartupEvent</code> is published.
+	 * 
+	 * @param journal
+	 *            the journal, or null to disable persistence
+	 */
+	public void setJournal(final EventJournal journal) {
+		this.journal = journal;
+	}
+
 	public void setClock(Clock clock) {
 		this.clock = clock;
 	}
 
+	/**
+	 * @return the store of pending delayed events
+	 */
+	public DelayedEventStore getDelayedEventStore() {
+		return delayedEvents;
+	}
+
+	/**
+	 * Replace the store of pending delayed events. Should be set before the
+	 * component is started, events in the previous store are not moved.
+	 * 
+	 * @param delayedEventStore
+	 *            the store of pending delayed events
+	 */
+	public void setDelayedEventStore(final DelayedEventStore delayedEventStore) {
+		if (delayedEventStore == null) {
+			throw new NullPointerException("Delayed event store may not be null");
+		}
+		this.delayedEvents = delayedEventStore;
+	}
+
+	/**
+	 * @return the dispatch policy used when registering callbacks without an
+	 *         explicit policy
+	 */
+	public DispatchPolicy getDispatchPolicy() {
+		return dispatchPolicy;
+	}
+
+	/**
+	 * @param dispatchPolicy
+	 *            the dispatch policy used when registering callbacks without
+	 *            an explicit policy
+	 */
+	public void setDispatchPolicy(final DispatchPolicy dispatchPolicy) {
+		if (dispatchPolicy == null) {
+			throw new NullPointerException("Dispatch policy may not be null");
+		}
+		this.dispatchPolicy = dispatchPolicy;
+	}
+
+	/**
+	 * @return the executor used for asynchronous dispatch, created on first
+	 *         use
+	 */
+	public synchronized Executor getDispatchExecutor() {
+		if (this.dispatchExecutor == null) {
+			this.dispatchExecutor = DispatchExecutors.newDispatchExecutor();
+		}
+		return dispatchExecutor;
+	}
+
+	/**
+	 * @param dispatchExecutor
+	 *            the executor used for asynchronous dispatch
+	 */
+	public synchronized void setDispatchExecutor(final Executor dispatchExecutor) {
+		if (dispatchExecutor == null) {
+			throw new NullPointerException("Dispatch executor may not be null");
+		}
+		this.dispatchExecutor = dispatchExecutor;
+	}
+
+	/**
+	 * Limit the number of events waiting for each asynchronous callback.
+	 * Applies to callbacks that are registered afterwards. With
+	 * <code>OverflowPolicy.BLOCK</code> a callback that publishes events of
+	 * its own type does not wait for its own queue; those events are rejected
+	 * when the queue is full. Callbacks that share a single threaded executor
+	 * and publish to each other may still wait for each other forever.
+	 * 
+	 * @param capacity
+	 *            the maximum number of events waiting for a callback
+	 * @param overflowPolicy
+	 *            the policy when too many events are waiting, equal events
+	 *            are coalesced by <code>OverflowPolicy.COALESCE</code>
+	 */
+	public synchronized void setDispatchQueueLimit(final int capacity, final OverflowPolicy overflowPolicy) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+
+		if (overflowPolicy == null) {
+			throw new NullPointerException("Overflow policy may not be null");
+		}
+
+		this.dispatchQueueCapacity = capacity;
+		this.dispatchOverflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * @return the number of events that have been rejected or dropped by
+	 *         asynchronous callbacks with too many waiting events
+	 */
+	public long getDispatchOverflowCount() {
+		long count = 0;
+		for (final List<EventSubscription> callbacks : this.eventCallbacks.values()) {
+			for (final EventSubscription callback : callbacks) {
+				count += callback.getOverflowCount();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Limit the number of pending delayed events. The limit is checked before
+	 * an event is added, so concurrent registrations may exceed it slightly.
+	 * Events over the limit are dropped and counted, and the register and
+	 * replace methods return null for them instead of throwing.
+	 * <code>OverflowPolicy.BLOCK</code> is not supported since
+	 * events are often registered by callbacks on the scheduler thread, which
+	 * is the only thread that makes room, and
+	 * <code>OverflowPolicy.DROP_OLDEST</code> is not supported since pending
+	 * events are ordered by deadline rather than by age.
+	 * 
+	 * @param limit
+	 *            the maximum number of pending delayed events
+	 * @param overflowPolicy
+	 *            <code>OverflowPolicy.DROP_NEWEST</code> to drop new events,
+	 *            or <code>OverflowPolicy.COALESCE</code> to let a named
+	 *            <code>FireOnceEvent</code> replace pending events with the
+	 *            same name
+	 */
+	public void setDelayedEventLimit(final int limit, final OverflowPolicy overflowPolicy) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Limit must be positive: " + limit);
+		}
+
+		if (overflowPolicy == null) {
+			throw new NullPointerException("Overflow policy may not be null");
+		}
+
+		if (overflowPolicy != OverflowPolicy.DROP_NEWEST && overflowPolicy != OverflowPolicy.COALESCE) {
+			throw new IllegalArgumentException("Unsupported overflow policy for delayed events: " + overflowPolicy);
+		}
+
+		this.delayedEventLimit = limit;
+		this.delayedEventOverflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * @return the number of delayed events that have been dropped because the
+	 *         limit was reached
+	 */
+	public long getRejectedDelayedEventCount() {
+		return this.rejectedDelayedEvents.get();
+	}
+
+	/**
+	 * @return how the scheduler waits between updates of the event context
+	 */
+	public SchedulerMode getSchedulerMode() {
+		return schedulerMode;
+	}
+
+	/**
+	 * @param schedulerMode
+	 *            how the scheduler waits between updates of the event context
+	 */
+	public void setSchedulerMode(final SchedulerMode schedulerMode) {
+		if (schedulerMode == null) {
+			throw new NullPointerException("Scheduler mode may not be null");
+		}
+		this.schedulerMode = schedulerMode;
+	}
+
 	/**
 	 * Verify that a name is set and not null
 	 * 
@@ -23,10 +23,11 @@
  */
 package com.autodomum.core.event;
 
-import java.security.SecureRandom;
 import java.time.Clock;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
@@ -41,7 +42,15 @@ import com.autodomum.core.daylight.Coordinate;
  * context data should be updated before running events.
  * </p>
  * <p>
- * Attributes may be used for storing temporary data between events.
+ * Attributes may be used for storing temporary data between events. Counters,
+ * timestamps and flags may instead be kept in the typed <code>slots</code>,
+ * which are accessed by index without boxing.
+ * </p>
+ * <p>
+ * The time and daylight parameters are kept in an immutable
+ * <code>EventContextSnapshot</code> that is replaced as a whole, so readers never
+ * lock and never see a mix of old and new values. Use
+ * <code>getSnapshot()</code> to read several parameters consistently.
  * </p>
  * 
  * @author Kenny Colliander Nordin
@@ -52,25 +61,17 @@ import com.autodomum.core.daylight.Coordinate;
 public class EventContext {
 	private final Clock clock;
 
-	private boolean daylight = false;
+	private volatile EventContextSnapshot snapshot = EventContextSnapshot.EMPTY;
 
 	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
 
-	private final SecureRandom random = new SecureRandom();
-
-	private long nextSunrise;
+	private final AttributeSlots slots = new AttributeSlots();
 
-	private long nextSunset;
-
-	private Coordinate coordinate;
+	private volatile Supplier<Random> random = RandomSources.threadLocal();
 
 	private LampDao lampDao;
 
-	private int hour;
-
-	private int minute;
-
-	private boolean holiday;
+	private volatile EventJournal journal;
 
 	/**
 	 * Constructor with default UTC clock
@@ -93,64 +94,65 @@ public class EventContext {
 	 * @return true if daylight, otherwise false
 	 */
 	public boolean isDaylight() {
-		return daylight;
+		return this.snapshot.isDaylight();
 	}
 
 	/**
 	 * @param daylight
 	 *            set true if daylight, otherwise false
 	 */
-	public void setDaylight(boolean daylight) {
-		this.daylight = daylight;
+	public synchronized void setDaylight(boolean daylight) {
+		this.snapshot = this.snapshot.withDaylight(daylight);
 	}
 
 	/**
 	 * @return the next calculated sunrise
 	 */
 	public long getNextSunrise() {
-		return nextSunrise;
+		return this.snapshot.getNextSunrise();
 	}
 
 	/**
 	 * @param nextSunrise
 	 *            the next calculated sunrise
 	 */
-	public void setNextSunrise(long nextSunrise) {
-		this.nextSunrise = nextSunrise;
+	public synchronized void setNextSunrise(long nextSunrise) {
+		this.snapshot = this.snapshot.withNextSunrise(nextSunrise);
 	}
 
 	/**
 	 * @return the next calculated sunset
 	 */
 	public long getNextSunset() {
-		return nextSunset;
+		return this.snapshot.getNextSunset();
 	}
 
 	/**
 	 * @param nextSunset
 	 *            the next calculated sunset
 	 */
-	public void setNextSunset(long nextSunset) {
-		this.nextSunset = nextSunset;
+	public synchronized void setNextSunset(long nextSunset) {
+		this.snapshot = this.snapshot.withNextSunset(nextSunset);
 	}
 
 	/**
 	 * @return the coordinates where the system is located
 	 */
 	public Coordinate getCoordinate() {
-		return coordinate;
+		return this.snapshot.getCoordinate();
 	}
 
 	/**
 	 * @param coordinate
 	 *            the coordinates where the system is located
 	 */
-	public void setCoordinate(Coordinate coordinate) {
-		this.coordinate = coordinate;
+	public synchronized void setCoordinate(Coordinate coordinate) {
+		this.snapshot = this.snapshot.withCoordinate(coordinate);
 	}
 
 	/**
-	 * @return all attributes. Attributes are available between events
+	 * @return all attributes. Attributes are available between events. Changes
+	 *         made directly to the map are not journaled
 	 */
 	public Map<String, Object> getAttributes() {
 		return attributes;
@@ -169,10 +171,19 @@ public class EventContext {
 			throw new NullPointerException("Parameter key may not be null");
 		}
 
-		if (value == null) {
-			this.attributes.remove(key);
-		} else {
-			this.attributes.put(key, value);
+		// Journaled inside compute, so that the journal order matches the
+		// order of the changes, and synced afterwards
+		final EventJournal journal = this.journal;
+		final long[] sequence = new long[1];
+		this.attributes.compute(key, (k, previous) -> {
+			if (journal != null) {
+				sequence[0] = journal.attributeChanged(k, value);
+			}
+			return value;
+		});
+
+		if (journal != null) {
+			journal.sync(sequence[0]);
 		}
 	}
 
@@ -221,14 +232,46 @@ public class EventContext {
 	 *            the key to the attribute to remove
 	 */
 	public void removeAttribute(String key) {
-		this.attributes.remove(key);
+		final EventJournal journal = this.journal;
+		final long[] sequence = new long[1];
+		this.attributes.computeIfPresent(key, (k, previous) -> {
+			if (journal != null) {
+				sequence[0] = journal.attributeChanged(k, null);
+			}
+			return null;
+		});
+
+		if (journal != null) {
+			journal.sync(sequence[0]);
+		}
+	}
+
+	/**
+	 * @return the typed attribute slots. Slots are available between events
+	 */
+	public AttributeSlots getSlots() {
+		return slots;
 	}
 
 	/**
-	 * @return a random object
+	 * @return a random object from the configured source, by default the
+	 *         generator of the current thread. Should not be shared between
+	 *         threads.
 	 */
-	public SecureRandom getRandom() {
-		return random;
+	public Random getRandom() {
+		return this.random.get();
+	}
+
+	/**
+	 * @param random
+	 *            the source of random objects, see <code>RandomSources</code>
+	 */
+	public void setRandomSource(final Supplier<Random> random) {
+		if (random == null) {
+			throw new NullPointerException("Random source may not be null");
+		}
+
+		this.random = random;
 	}
 
 	/**
@@ -242,45 +285,98 @@ public class EventContext {
 	 * @return the current hour in the local time zone using a 24h clock
 	 */
 	public int getHour() {
-		return hour;
+		return this.snapshot.getHour();
 	}
 
 	/**
 	 * @param currentHour
 	 *            the current hour in the local time zone using a 24h clock
 	 */
-	public void setHour(int currentHour) {
-		this.hour = currentHour;
+	public synchronized void setHour(int currentHour) {
+		this.snapshot = this.snapshot.withHour(currentHour);
 	}
 
 	/**
 	 * @return the current minute in the local time zone
 	 */
 	public int getMinute() {
-		return minute;
+		return this.snapshot.getMinute();
 	}
 
 	/**
 	 * @param currentMinute
 	 *            the current minute in the local time zone
 	 */
-	public void setMinute(int currentMinute) {
-		this.minute = currentMinute;
+	public synchronized void setMinute(int currentMinute) {
+		this.snapshot = this.snapshot.withMinute(currentMinute);
 	}
 
 	/**
 	 * @return true if is holiday, otherwise false
 	 */
 	public boolean isHoliday() {
-		return holiday;
+		return this.snapshot.isHoliday();
 	}
 
 	/**
 	 * @param holiday
 	 *            true if holiday, otherwise false
 	 */
-	public void setHoliday(boolean holiday) {
-		this.holiday = holiday;
+	public synchronized void setHoliday(boolean holiday) {
+		this.snapshot = this.snapshot.withHoliday(holiday);
+	}
+
+	/**
+	 * @return the current snapshot of the time and daylight parameters
+	 */
+	public EventContextSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * Replace all time and daylight parameters at once
+	 * 
+	 * @param snapshot
+	 *            the new snapshot
+	 */
+	public synchronized void setSnapshot(final EventContextSnapshot snapshot) {
+		if (snapshot == null) {
+			throw new NullPointerException("Snapshot may not be null");
+		}
+
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * Replace all time and daylight parameters at once, unless the snapshot
+	 * has been changed since it was read
+	 * 
+	 * @param expected
+	 *            the snapshot that the new snapshot was computed from
+	 * @param snapshot
+	 *            the new snapshot
+	 * @return true if the snapshot was replaced
+	 */
+	public synchronized boolean compareAndSetSnapshot(final EventContextSnapshot expected,
+			final EventContextSnapshot snapshot) {
+		if (snapshot == null) {
+			throw new NullPointerException("Snapshot may not be null");
+		}
+
+		if (this.snapshot != expected) {
+			return false;
+		}
+
+		this.snapshot = snapshot;
+		return true;
+	}
+
+	/**
+	 * @param journal
+	 *            the journal that attribute changes are recorded in, or null
+	 */
+	void setJournal(final EventJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
@@ -301,9 +397,7 @@ public class EventContext {
 
 	@Override
 	public String toString() {
-		return "EventContext [daylight=" + daylight + ", attributes=" + attributes + ", random=" + random
-				+ ", nextSunrise=" + nextSunrise + ", nextSunset=" + nextSunset + ", coordinate=" + coordinate
-				+ ", hour=" + hour + ", minute=" + minute + ", holiday=" + holiday + "]";
+		return "EventContext [snapshot=" + snapshot + ", attributes=" + attributes + ", slots=" + slots + "]";
 	}
 
 }
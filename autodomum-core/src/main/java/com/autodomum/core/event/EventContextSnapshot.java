@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import com.autodomum.core.daylight.Coordinate;
+
+/**
+ * Immutable snapshot of the time and daylight parameters of the
+ * <code>EventContext</code>. A new snapshot is published for every update, so
+ * all values of a snapshot are consistent with each other.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public final class EventContextSnapshot {
+
+	/**
+	 * Snapshot before the first update
+	 */
+	public static final EventContextSnapshot EMPTY = new EventContextSnapshot(null, false, 0, 0, 0, 0, false);
+
+	private final Coordinate coordinate;
+
+	private final boolean daylight;
+
+	private final long nextSunrise;
+
+	private final long nextSunset;
+
+	private final int hour;
+
+	private final int minute;
+
+	private final boolean holiday;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param coordinate
+	 *            the coordinates where the system is located
+	 * @param daylight
+	 *            true if daylight, otherwise false
+	 * @param nextSunrise
+	 *            the next calculated sunrise
+	 * @param nextSunset
+	 *            the next calculated sunset
+	 * @param hour
+	 *            the current hour in the local time zone using a 24h clock
+	 * @param minute
+	 *            the current minute in the local time zone
+	 * @param holiday
+	 *            true if holiday, otherwise false
+	 */
+	public EventContextSnapshot(final Coordinate coordinate, final boolean daylight, final long nextSunrise,
+			final long nextSunset, final int hour, final int minute, final boolean holiday) {
+		this.coordinate = coordinate;
+		this.daylight = daylight;
+		this.nextSunrise = nextSunrise;
+		this.nextSunset = nextSunset;
+		this.hour = hour;
+		this.minute = minute;
+		this.holiday = holiday;
+	}
+
+	/**
+	 * @return the coordinates where the system is located
+	 */
+	public Coordinate getCoordinate() {
+		return coordinate;
+	}
+
+	/**
+	 * @return true if daylight, otherwise false
+	 */
+	public boolean isDaylight() {
+		return daylight;
+	}
+
+	/**
+	 * @return the next calculated sunrise
+	 */
+	public long getNextSunrise() {
+		return nextSunrise;
+	}
+
+	/**
+	 * @return the next calculated sunset
+	 */
+	public long getNextSunset() {
+		return nextSunset;
+	}
+
+	/**
+	 * @return the current hour in the local time zone using a 24h clock
+	 */
+	public int getHour() {
+		return hour;
+	}
+
+	/**
+	 * @return the current minute in the local time zone
+	 */
+	public int getMinute() {
+		return minute;
+	}
+
+	/**
+	 * @return true if is holiday, otherwise false
+	 */
+	public boolean isHoliday() {
+		return holiday;
+	}
+
+	EventContextSnapshot withCoordinate(final Coordinate coordinate) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	EventContextSnapshot withDaylight(final boolean daylight) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	EventContextSnapshot withNextSunrise(final long nextSunrise) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	EventContextSnapshot withNextSunset(final long nextSunset) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	EventContextSnapshot withHour(final int hour) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	EventContextSnapshot withMinute(final int minute) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	EventContextSnapshot withHoliday(final boolean holiday) {
+		return new EventContextSnapshot(coordinate, daylight, nextSunrise, nextSunset, hour, minute, holiday);
+	}
+
+	@Override
+	public String toString() {
+		return "EventContextSnapshot [coordinate=" + coordinate + ", daylight=" + daylight + ", nextSunrise="
+				+ nextSunrise + ", nextSunset=" + nextSunset + ", hour=" + hour + ", minute=" + minute + ", holiday="
+				+ holiday + "]";
+	}
+}
@@ -0,0 +1,590 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * <p>
+ * Persistent journal of the <code>EventContext</code> attributes and the
+ * pending named <code>FireOnceEvent</code>s. Every change is appended as a JSON
+ * line to <code>journal.log</code> and the complete state is periodically
+ * compacted into <code>snapshot.json</code>, which is written to a temporary
+ * file and atomically renamed before the journal is truncated.
+ * </p>
+ * <p>
+ * Records are written while the caller holds the lock that orders the change,
+ * so that the journal order matches the order of the changes, and forced to
+ * disk with <code>sync</code> after the lock has been released, before the
+ * change returns. The journal survives a power loss as well as a crash of the
+ * process, and concurrent changes share a single force. The directory is
+ * forced after the snapshot has been renamed, before the journal is truncated.
+ * </p>
+ * <p>
+ * Replaying a record is idempotent, so a record that is both part of the
+ * snapshot and left in the journal after a crash during compaction is harmless.
+ * A torn last line from a crash while appending is ignored. Typed slots are
+ * only persisted by the snapshots, and attributes are only persisted if their
+ * values are strings, numbers or booleans.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class EventJournal implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EventJournal.class);
+
+	private static final String JOURNAL = "journal.log";
+
+	private static final String SNAPSHOT = "snapshot.json";
+
+	private static final String SNAPSHOT_TMP = "snapshot.json.tmp";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Path directory;
+
+	private FileChannel channel;
+
+	private int records;
+
+	/**
+	 * Sequence number of the last record written to the journal
+	 */
+	private long written;
+
+	/**
+	 * Sequence number of the last record known to be on disk
+	 */
+	private final AtomicLong synced = new AtomicLong();
+
+	/**
+	 * Held while forcing the journal, so that concurrent appends share a force
+	 */
+	private final Object syncLock = new Object();
+
+	private int compactThreshold = 1000;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param directory
+	 *            the directory of the journal and snapshot, created if missing
+	 */
+	public EventJournal(final Path directory) {
+		if (directory == null) {
+			throw new NullPointerException("Directory may not be null");
+		}
+
+		this.directory = directory;
+	}
+
+	/**
+	 * Read the snapshot and replay the journal, then open the journal for
+	 * appending
+	 * 
+	 * @return the recovered state
+	 * @throws IOException
+	 *             if the state could not be read
+	 */
+	public synchronized State recover() throws IOException {
+		Files.createDirectories(this.directory);
+
+		final State state = new State();
+		final Path snapshot = this.directory.resolve(SNAPSHOT);
+		if (Files.exists(snapshot)) {
+			this.readSnapshot(this.objectMapper.readTree(snapshot.toFile()), state);
+		}
+
+		this.records = 0;
+		final Path journal = this.directory.resolve(JOURNAL);
+		if (Files.exists(journal)) {
+			try (final BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.isEmpty()) {
+						continue;
+					}
+
+					final JsonNode record;
+					try {
+						record = this.objectMapper.readTree(line);
+					} catch (IOException e) {
+						LOG.warn("Ignoring unreadable journal record {}", line);
+						continue;
+					}
+					this.replay(record, state);
+					this.records++;
+				}
+			}
+		}
+
+		this.open(StandardOpenOption.APPEND);
+		this.syncDirectory();
+		LOG.info("Recovered {} attributes and {} pending events from {}", state.attributes.size(),
+				state.getEventCount(), this.directory);
+		return state;
+	}
+
+	/**
+	 * Record a changed attribute
+	 * 
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value, or null if removed
+	 * @return the sequence number of the record to pass to <code>sync</code>,
+	 *         or 0 if nothing was written
+	 */
+	public long attributeChanged(final String key, final Object value) {
+		final ObjectNode record = this.objectMapper.createObjectNode();
+		if (value == null) {
+			record.put("op", "unset");
+			record.put("key", key);
+		} else if (isPersistable(value)) {
+			record.put("op", "set");
+			record.put("key", key);
+			record.set("value", this.objectMapper.valueToTree(value));
+		} else {
+			LOG.debug("Attribute {} of type {} is not persisted", key, value.getClass().getName());
+			return 0;
+		}
+		return this.write(record);
+	}
+
+	/**
+	 * Record a scheduled event
+	 * 
+	 * @param name
+	 *            the name of the event
+	 * @param timestamp
+	 *            the time of the event
+	 * @return the sequence number of the record to pass to <code>sync</code>,
+	 *         or 0 if nothing was written
+	 */
+	public long scheduled(final String name, final long timestamp) {
+		return this.write(this.eventRecord("schedule", name).put("timestamp", timestamp));
+	}
+
+	/**
+	 * Record that all events with a name have been replaced by a single event
+	 * 
+	 * @param name
+	 *            the name of the event
+	 * @param timestamp
+	 *            the time of the event
+	 * @return the sequence number of the record to pass to <code>sync</code>,
+	 *         or 0 if nothing was written
+	 */
+	public long replaced(final String name, final long timestamp) {
+		return this.write(this.eventRecord("replace", name).put("timestamp", timestamp));
+	}
+
+	/**
+	 * Record that a single event has fired or been cancelled
+	 * 
+	 * @param name
+	 *            the name of the event
+	 * @param timestamp
+	 *            the time of the event
+	 * @return the sequence number of the record to pass to <code>sync</code>,
+	 *         or 0 if nothing was written
+	 */
+	public long removed(final String name, final long timestamp) {
+		return this.write(this.eventRecord("remove", name).put("timestamp", timestamp));
+	}
+
+	/**
+	 * Record that all events with a name have been cancelled
+	 * 
+	 * @param name
+	 *            the name of the events
+	 * @return the sequence number of the record to pass to <code>sync</code>,
+	 *         or 0 if nothing was written
+	 */
+	public long cancelled(final String name) {
+		return this.write(this.eventRecord("cancel", name));
+	}
+
+	/**
+	 * @return true if enough records have been appended since the last
+	 *         snapshot to compact the journal
+	 */
+	public synchronized boolean isCompactionDue() {
+		return this.records >= this.compactThreshold;
+	}
+
+	/**
+	 * Write a snapshot of the state and truncate the journal. Appends are
+	 * blocked while the state is captured.
+	 * 
+	 * @param state
+	 *            supplier of the complete current state
+	 * @throws IOException
+	 *             if the snapshot could not be written
+	 */
+	public synchronized void compact(final Supplier<State> state) throws IOException {
+		Files.createDirectories(this.directory);
+
+		final Path tmp = this.directory.resolve(SNAPSHOT_TMP);
+		final ByteBuffer buffer = ByteBuffer.wrap(this.objectMapper.writeValueAsBytes(this.writeSnapshot(state.get())));
+		try (final FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(tmp, this.directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		this.syncDirectory();
+
+		// Everything written so far is part of the snapshot on disk
+		this.synced.accumulateAndGet(this.written, Math::max);
+
+		this.closeWriter();
+		this.open(StandardOpenOption.TRUNCATE_EXISTING);
+		this.records = 0;
+		LOG.debug("Compacted journal in {}", this.directory);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.closeWriter();
+	}
+
+	/**
+	 * @return number of records appended since the last snapshot
+	 */
+	public synchronized int getRecordCount() {
+		return this.records;
+	}
+
+	/**
+	 * @param compactThreshold
+	 *            number of records after which the journal should be compacted
+	 */
+	public synchronized void setCompactThreshold(final int compactThreshold) {
+		if (compactThreshold < 1) {
+			throw new IllegalArgumentException("Compact threshold must be positive: " + compactThreshold);
+		}
+		this.compactThreshold = compactThreshold;
+	}
+
+	/**
+	 * @return the directory of the journal and snapshot
+	 */
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	private ObjectNode eventRecord(final String op, final String name) {
+		final ObjectNode record = this.objectMapper.createObjectNode();
+		record.put("op", op);
+		record.put("name", name);
+		return record;
+	}
+
+	/**
+	 * Write a record, without waiting until it is on disk
+	 * 
+	 * @param record
+	 *            the record
+	 * @return the sequence number of the record, or 0 if it was not written
+	 */
+	private synchronized long write(final ObjectNode record) {
+		if (this.channel == null) {
+			LOG.warn("Journal in {} is not open, dropped {}", this.directory, record);
+			return 0;
+		}
+
+		try {
+			final byte[] bytes = this.objectMapper.writeValueAsBytes(record);
+			final ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 1);
+			buffer.put(bytes).put((byte) '\n').flip();
+			while (buffer.hasRemaining()) {
+				this.channel.write(buffer);
+			}
+			this.records++;
+			return ++this.written;
+		} catch (IOException e) {
+			LOG.error("Failed to append to journal in " + this.directory, e);
+			return 0;
+		}
+	}
+
+	/**
+	 * Wait until a record is on disk. The journal is forced unless the record
+	 * has been forced by another thread meanwhile, records written while the
+	 * journal is forced are forced by the next caller. Should not be called
+	 * while holding a lock that other changes wait for.
+	 * 
+	 * @param sequence
+	 *            the sequence number of the record that must be on disk, 0
+	 *            is ignored
+	 */
+	public void sync(final long sequence) {
+		if (this.synced.get() >= sequence) {
+			return;
+		}
+
+		synchronized (this.syncLock) {
+			if (this.synced.get() >= sequence) {
+				return;
+			}
+
+			final FileChannel channel;
+			final long target;
+			synchronized (this) {
+				channel = this.channel;
+				target = this.written;
+			}
+
+			if (channel == null) {
+				return;
+			}
+
+			try {
+				channel.force(false);
+				this.synced.accumulateAndGet(target, Math::max);
+			} catch (ClosedChannelException e) {
+				// Replaced by a compaction or closed, both force the records
+			} catch (IOException e) {
+				LOG.error("Failed to force journal in " + this.directory, e);
+			}
+		}
+	}
+
+	/**
+	 * Force the directory, so that renamed and created files survive a power
+	 * loss. Not all platforms support this, e.g. Windows.
+	 */
+	private void syncDirectory() {
+		try (final FileChannel directory = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+			directory.force(true);
+		} catch (IOException e) {
+			LOG.debug("Could not force directory {}", this.directory, e);
+		}
+	}
+
+	private void open(final StandardOpenOption mode) throws IOException {
+		this.channel = FileChannel.open(this.directory.resolve(JOURNAL), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, mode);
+	}
+
+	private void closeWriter() throws IOException {
+		if (this.channel != null) {
+			try {
+				this.channel.force(false);
+				this.synced.accumulateAndGet(this.written, Math::max);
+			} finally {
+				this.channel.close();
+				this.channel = null;
+			}
+		}
+	}
+
+	private void replay(final JsonNode record, final State state) {
+		final String op = record.path("op").asText();
+		final String name = record.path("name").asText(null);
+		final long timestamp = record.path("timestamp").asLong();
+
+		switch (op) {
+		case "set":
+			state.attributes.put(record.path("key").asText(), toValue(record.get("value")));
+			break;
+		case "unset":
+			state.attributes.remove(record.path("key").asText());
+			break;
+		case "schedule":
+			state.schedule(name, timestamp);
+			break;
+		case "replace":
+			state.events.remove(name);
+			state.schedule(name, timestamp);
+			break;
+		case "remove":
+			final Set<Long> timestamps = state.events.get(name);
+			if (timestamps != null && timestamps.remove(timestamp) && timestamps.isEmpty()) {
+				state.events.remove(name);
+			}
+			break;
+		case "cancel":
+			state.events.remove(name);
+			break;
+		default:
+			LOG.warn("Ignoring unknown journal record {}", record);
+		}
+	}
+
+	private void readSnapshot(final JsonNode snapshot, final State state) {
+		final Iterator<Map.Entry<String, JsonNode>> attributes = snapshot.path("attributes").fields();
+		while (attributes.hasNext()) {
+			final Map.Entry<String, JsonNode> entry = attributes.next();
+			state.attributes.put(entry.getKey(), toValue(entry.getValue()));
+		}
+
+		final Iterator<Map.Entry<String, JsonNode>> slots = snapshot.path("slots").fields();
+		while (slots.hasNext()) {
+			final Map.Entry<String, JsonNode> entry = slots.next();
+			state.slots.put(entry.getKey(), entry.getValue().asLong());
+		}
+
+		final Iterator<Map.Entry<String, JsonNode>> events = snapshot.path("events").fields();
+		while (events.hasNext()) {
+			final Map.Entry<String, JsonNode> entry = events.next();
+			for (final JsonNode timestamp : entry.getValue()) {
+				state.schedule(entry.getKey(), timestamp.asLong());
+			}
+		}
+	}
+
+	private ObjectNode writeSnapshot(final State state) {
+		final ObjectNode snapshot = this.objectMapper.createObjectNode();
+
+		final ObjectNode attributes = snapshot.putObject("attributes");
+		for (final Map.Entry<String, Object> entry : state.attributes.entrySet()) {
+			if (isPersistable(entry.getValue())) {
+				attributes.set(entry.getKey(), this.objectMapper.valueToTree(entry.getValue()));
+			}
+		}
+
+		final ObjectNode slots = snapshot.putObject("slots");
+		for (final Map.Entry<String, Long> entry : state.slots.entrySet()) {
+			slots.put(entry.getKey(), entry.getValue());
+		}
+
+		final ObjectNode events = snapshot.putObject("events");
+		for (final Map.Entry<String, Set<Long>> entry : state.events.entrySet()) {
+			final ArrayNode timestamps = events.putArray(entry.getKey());
+			for (final Long timestamp : entry.getValue()) {
+				timestamps.add(timestamp);
+			}
+		}
+
+		return snapshot;
+	}
+
+	private static boolean isPersistable(final Object value) {
+		return value instanceof String || value instanceof Number || value instanceof Boolean;
+	}
+
+	private static Object toValue(final JsonNode node) {
+		if (node == null || node.isNull()) {
+			return null;
+		}
+		if (node.isTextual()) {
+			return node.asText();
+		}
+		if (node.isBoolean()) {
+			return node.asBoolean();
+		}
+		if (node.isInt()) {
+			return node.intValue();
+		}
+		if (node.isIntegralNumber()) {
+			return node.longValue();
+		}
+		return node.doubleValue();
+	}
+
+	/**
+	 * Persisted state
+	 */
+	public static class State {
+
+		private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+		private final Map<String, Long> slots = new LinkedHashMap<>();
+
+		private final Map<String, Set<Long>> events = new LinkedHashMap<>();
+
+		/**
+		 * @return the attributes
+		 */
+		public Map<String, Object> getAttributes() {
+			return this.attributes;
+		}
+
+		/**
+		 * @return the values of the typed slots by key
+		 */
+		public Map<String, Long> getSlots() {
+			return this.slots;
+		}
+
+		/**
+		 * @return the timestamps of the pending events by name
+		 */
+		public Map<String, Set<Long>> getEvents() {
+			return this.events;
+		}
+
+		/**
+		 * Add a pending event
+		 * 
+		 * @param name
+		 *            the name of the event
+		 * @param timestamp
+		 *            the time of the event
+		 */
+		public void schedule(final String name, final long timestamp) {
+			this.events.computeIfAbsent(name, key -> new TreeSet<>()).add(timestamp);
+		}
+
+		private int getEventCount() {
+			int count = 0;
+			for (final Set<Long> timestamps : this.events.values()) {
+				count += timestamps.size();
+			}
+			return count;
+		}
+	}
+}
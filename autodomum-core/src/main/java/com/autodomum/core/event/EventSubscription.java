@@ -0,0 +1,195 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A registered <code>EventCallback</code>. Callbacks with an executor receive
+ * their events on that executor, one at a time and in the order they were
+ * published. Events waiting for an asynchronous callback are held in a
+ * <code>BoundedEventQueue</code>. A callback that publishes events to itself
+ * never waits for space in its own queue, since it is the only one that could
+ * make room; such events are rejected when the queue is full.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+class EventSubscription {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EventSubscription.class);
+
+	private final EventCallback eventCallback;
+
+	private final Executor executor;
+
+	private final BoundedEventQueue<Event> pending;
+
+	private volatile EventContext eventContext;
+
+	private boolean running;
+
+	private volatile Thread drainer;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param eventCallback
+	 *            the callback
+	 * @param executor
+	 *            the executor or null to call the callback on the publishing
+	 *            thread
+	 * @param capacity
+	 *            the maximum number of events waiting for the callback
+	 * @param overflowPolicy
+	 *            the policy when too many events are waiting
+	 */
+	EventSubscription(final EventCallback eventCallback, final Executor executor, final int capacity,
+			final OverflowPolicy overflowPolicy) {
+		this.eventCallback = eventCallback;
+		this.executor = executor;
+		this.pending = executor == null ? null : new BoundedEventQueue<>(capacity, overflowPolicy);
+	}
+
+	/**
+	 * Deliver an event to the callback
+	 * 
+	 * @param eventContext
+	 *            the context
+	 * @param event
+	 *            the event
+	 */
+	void deliver(final EventContext eventContext, final Event event) {
+		if (this.executor == null) {
+			this.eventCallback.work(eventContext, event);
+			return;
+		}
+
+		this.eventContext = eventContext;
+
+		if (!this.pending.offer(event, Thread.currentThread() != this.drainer)) {
+			LOG.debug("Callback {} rejected {}", this.eventCallback, event);
+			return;
+		}
+
+		synchronized (this) {
+			if (this.running) {
+				return;
+			}
+			this.running = true;
+		}
+
+		try {
+			this.executor.execute(this::drain);
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				this.running = false;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Call the callback for all pending events. If the callback throws an
+	 * <code>Error</code> the drain is rescheduled for the remaining events
+	 * before the error is propagated to the executor.
+	 */
+	private void drain() {
+		this.drainer = Thread.currentThread();
+		boolean drained = false;
+		try {
+			while (true) {
+				final Event event = this.pending.poll();
+				if (event == null) {
+					synchronized (this) {
+						if (this.pending.isEmpty()) {
+							this.drainer = null;
+							this.running = false;
+							drained = true;
+							return;
+						}
+					}
+					continue;
+				}
+
+				try {
+					this.eventCallback.work(this.eventContext, event);
+				} catch (RuntimeException e) {
+					LOG.error("Callback {} failed for {}", this.eventCallback, event, e);
+				}
+			}
+		} finally {
+			if (!drained) {
+				this.abort();
+			}
+		}
+	}
+
+	/**
+	 * Reset the drain after it has been aborted by an error, and schedule a
+	 * new drain if events are still pending
+	 */
+	private void abort() {
+		final boolean reschedule;
+		synchronized (this) {
+			this.drainer = null;
+			reschedule = !this.pending.isEmpty();
+			this.running = reschedule;
+		}
+
+		if (reschedule) {
+			try {
+				this.executor.execute(this::drain);
+			} catch (RuntimeException e) {
+				synchronized (this) {
+					this.running = false;
+				}
+				LOG.error("Failed to reschedule callback {}", this.eventCallback, e);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of events that have been rejected or dropped because
+	 *         too many events were waiting for the callback
+	 */
+	long getOverflowCount() {
+		return this.pending == null ? 0 : this.pending.getRejectedCount() + this.pending.getDroppedCount();
+	}
+
+	/**
+	 * @return the callback
+	 */
+	EventCallback getEventCallback() {
+		return eventCallback;
+	}
+
+	@Override
+	public String toString() {
+		return "EventSubscription [eventCallback=" + eventCallback + ", executor=" + executor + "]";
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.autodomum.core.model.Lamp;
+
+/**
+ * Event that is sent when several lamp states have been updated at once
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class LampsStateChangedEvent implements Event {
+	private final List<Lamp> lamps;
+
+	public LampsStateChangedEvent(List<Lamp> lamps) {
+		super();
+
+		if (lamps == null) {
+			throw new NullPointerException("Lamps may not be null");
+		}
+
+		this.lamps = Collections.unmodifiableList(new ArrayList<>(lamps));
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + lamps.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LampsStateChangedEvent other = (LampsStateChangedEvent) obj;
+		return lamps.equals(other.lamps);
+	}
+
+	/**
+	 * @return the lamps that have been changed
+	 */
+	public List<Lamp> getLamps() {
+		return lamps;
+	}
+
+	@Override
+	public String toString() {
+		return "LampsStateChangedEvent [lamps=" + lamps + "]";
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+/**
+ * Decide what happens when an event is added to a bounded queue that is full
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Wait until there is space in the queue
+	 */
+	BLOCK,
+
+	/**
+	 * Drop the oldest queued element to make space for the new element
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Reject the new element
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Replace a queued element with the same key as the new element, keeping
+	 * its position in the queue. Elements with a new key are rejected if the
+	 * queue is full.
+	 */
+	COALESCE
+}
@@ -0,0 +1,92 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Factory of randomness sources for the <code>EventContext</code>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public final class RandomSources {
+
+	private RandomSources() {
+	}
+
+	/**
+	 * Per thread generator without contention that never blocks. This is the
+	 * default source.
+	 * 
+	 * @return the source
+	 */
+	public static Supplier<Random> threadLocal() {
+		return ThreadLocalRandom::current;
+	}
+
+	/**
+	 * Deterministic generator shared by all threads, intended for tests and
+	 * reproducible runs
+	 * 
+	 * @param seed
+	 *            the seed
+	 * @return the source
+	 */
+	public static Supplier<Random> seeded(final long seed) {
+		final Random random = new Random(seed);
+		return () -> random;
+	}
+
+	/**
+	 * Cryptographically strong generator shared by all threads. It is created on
+	 * first use, since seeding may block until the system has gathered enough
+	 * entropy.
+	 * 
+	 * @return the source
+	 */
+	public static Supplier<Random> secure() {
+		return new Supplier<Random>() {
+			private volatile SecureRandom random;
+
+			@Override
+			public Random get() {
+				SecureRandom result = this.random;
+				if (result == null) {
+					synchronized (this) {
+						result = this.random;
+						if (result == null) {
+							result = new SecureRandom();
+							this.random = result;
+						}
+					}
+				}
+				return result;
+			}
+		};
+	}
+}
@@ -0,0 +1,447 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * <code>DelayedEventStore</code> implemented as a hierarchical timing wheel.
+ * Insert and remove are O(1) and the clock is read once per poll, regardless
+ * of the number of pending events.
+ * </p>
+ * <p>
+ * The wheel has six levels of 64 slots each. A slot on level <i>n</i> covers
+ * 64<sup>n</sup> ticks and is cascaded down to lower levels when the wheel
+ * reaches it. Events are never fired early, but may be fired up to one tick
+ * late.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class TimingWheelEventStore implements DelayedEventStore {
+
+	private static final long DEFAULT_TICK_MILLIS = 10L;
+
+	private static final int SLOT_BITS = 6;
+
+	private static final int SLOTS = 1 << SLOT_BITS;
+
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	private static final int LEVELS = 6;
+
+	private final Clock clock;
+
+	private final long tickMillis;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition available = this.lock.newCondition();
+
+	private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+
+	private final long[] occupied = new long[LEVELS];
+
+	private final Map<DelayedEvent, Entry> entries = new HashMap<>();
+
+	private final Entry expired = new Entry(null, 0);
+
+	private long currentTick;
+
+	private long wakeupTick = Long.MAX_VALUE;
+
+	private int size;
+
+	/**
+	 * Constructor with default UTC clock and a tick of 10 milliseconds
+	 */
+	public TimingWheelEventStore() {
+		this(Clock.systemUTC(), DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param clock
+	 *            the clock
+	 * @param tickMillis
+	 *            the resolution of the wheel in milliseconds
+	 */
+	public TimingWheelEventStore(final Clock clock, final long tickMillis) {
+		if (clock == null) {
+			throw new NullPointerException("Clock may not be null");
+		}
+
+		if (tickMillis <= 0) {
+			throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+		}
+
+		this.clock = clock;
+		this.tickMillis = tickMillis;
+		this.currentTick = Math.floorDiv(clock.millis(), tickMillis);
+		this.expired.prev = this.expired;
+		this.expired.next = this.expired;
+	}
+
+	@Override
+	public void put(final DelayedEvent delayedEvent) {
+		if (delayedEvent == null) {
+			throw new NullPointerException("Delayed event may not be null");
+		}
+
+		final long deadline = this.deadline(delayedEvent);
+		final Entry entry = new Entry(delayedEvent, Math.floorDiv(deadline + this.tickMillis - 1, this.tickMillis));
+
+		this.lock.lock();
+		try {
+			final Entry previous = this.entries.put(delayedEvent, entry);
+			if (previous != null) {
+				entry.duplicate = previous;
+			}
+
+			this.schedule(entry);
+			this.size++;
+
+			if (entry.deadlineTick < this.wakeupTick) {
+				this.available.signal();
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public DelayedEvent poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+
+		this.lock.lockInterruptibly();
+		try {
+			while (true) {
+				final long now = this.clock.millis();
+				this.advance(Math.floorDiv(now, this.tickMillis));
+
+				final Entry entry = this.expired.next;
+				if (entry != this.expired) {
+					this.unlink(entry);
+					this.unmap(entry);
+					this.size--;
+					return entry.delayedEvent;
+				}
+
+				if (nanos <= 0) {
+					return null;
+				}
+
+				final long nextTick = this.nextTick();
+				this.wakeupTick = nextTick;
+				try {
+					if (nextTick == Long.MAX_VALUE) {
+						nanos = this.available.awaitNanos(nanos);
+					} else {
+						final long delay = TimeUnit.MILLISECONDS.toNanos(nextTick * this.tickMillis - now);
+						if (delay >= nanos) {
+							nanos = this.available.awaitNanos(nanos);
+						} else {
+							nanos -= delay - this.available.awaitNanos(delay);
+						}
+					}
+				} finally {
+					this.wakeupTick = Long.MAX_VALUE;
+				}
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(final DelayedEvent delayedEvent) {
+		this.lock.lock();
+		try {
+			final Entry entry = this.entries.get(delayedEvent);
+			if (entry == null) {
+				return false;
+			}
+
+			this.unlink(entry);
+			this.unmap(entry);
+			this.size--;
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve the event with the earliest deadline. Note that this requires a
+	 * scan of all pending events.
+	 */
+	@Override
+	public DelayedEvent element() {
+		this.lock.lock();
+		try {
+			if (this.expired.next != this.expired) {
+				return this.expired.next.delayedEvent;
+			}
+
+			Entry earliest = null;
+			for (final Entry entry : this.entries.values()) {
+				for (Entry current = entry; current != null; current = current.duplicate) {
+					if (earliest == null || current.deadlineTick < earliest.deadlineTick) {
+						earliest = current;
+					}
+				}
+			}
+
+			if (earliest == null) {
+				throw new NoSuchElementException();
+			}
+			return earliest.delayedEvent;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		this.lock.lock();
+		try {
+			return this.size;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Calculate the deadline of an event, avoiding clock reads when the
+	 * timestamp is known
+	 * 
+	 * @param delayedEvent
+	 *            the event
+	 * @return the deadline in UTC milliseconds
+	 */
+	private long deadline(final DelayedEvent delayedEvent) {
+		if (delayedEvent instanceof FireOnceEvent) {
+			return ((FireOnceEvent) delayedEvent).getTimestamp();
+		}
+		return this.clock.millis() + delayedEvent.getDelay(TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Place an entry in the wheel relative to the current tick
+	 * 
+	 * @param entry
+	 *            the entry
+	 */
+	private void schedule(final Entry entry) {
+		final long delta = entry.deadlineTick - this.currentTick;
+
+		if (delta <= 0) {
+			this.link(this.expired, entry);
+			entry.level = -1;
+			return;
+		}
+
+		int level = (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+		final long period;
+
+		if (level >= LEVELS) {
+			// Beyond the range of the wheel, park in the top level and
+			// reschedule when that slot is cascaded
+			level = LEVELS - 1;
+			period = (this.currentTick >>> (SLOT_BITS * level)) + SLOTS;
+		} else {
+			period = entry.deadlineTick >>> (SLOT_BITS * level);
+		}
+
+		final int slot = (int) (period & SLOT_MASK);
+		Entry head = this.slots[level][slot];
+
+		if (head == null) {
+			head = new Entry(null, 0);
+			head.prev = head;
+			head.next = head;
+			this.slots[level][slot] = head;
+		}
+
+		this.link(head, entry);
+		entry.level = level;
+		entry.slot = slot;
+		this.occupied[level] |= 1L << slot;
+	}
+
+	/**
+	 * Advance the wheel up to a tick, skipping ticks where no slot is occupied
+	 * 
+	 * @param tick
+	 *            the tick to advance to
+	 */
+	private void advance(final long tick) {
+		while (this.currentTick < tick) {
+			final long nextTick = this.nextTick();
+
+			if (nextTick > tick) {
+				this.currentTick = tick;
+				return;
+			}
+
+			this.currentTick = nextTick;
+
+			for (int level = LEVELS - 1; level > 0; level--) {
+				final int shift = SLOT_BITS * level;
+				if ((nextTick & ((1L << shift) - 1)) == 0) {
+					this.cascade(level, (int) ((nextTick >>> shift) & SLOT_MASK));
+				}
+			}
+			this.cascade(0, (int) (nextTick & SLOT_MASK));
+		}
+	}
+
+	/**
+	 * Move all entries in a slot to their new place in the wheel
+	 * 
+	 * @param level
+	 *            the level
+	 * @param slot
+	 *            the slot
+	 */
+	private void cascade(final int level, final int slot) {
+		if ((this.occupied[level] & (1L << slot)) == 0) {
+			return;
+		}
+
+		final Entry head = this.slots[level][slot];
+		this.occupied[level] &= ~(1L << slot);
+
+		Entry entry = head.next;
+		head.prev = head;
+		head.next = head;
+
+		while (entry != head) {
+			final Entry next = entry.next;
+			this.schedule(entry);
+			entry = next;
+		}
+	}
+
+	/**
+	 * @return the next tick where an occupied slot is reached or
+	 *         <code>Long.MAX_VALUE</code> if the wheel is empty
+	 */
+	private long nextTick() {
+		long nextTick = Long.MAX_VALUE;
+
+		for (int level = 0; level < LEVELS; level++) {
+			final long bits = this.occupied[level];
+			if (bits == 0) {
+				continue;
+			}
+
+			final int shift = SLOT_BITS * level;
+			final long period = this.currentTick >>> shift;
+			final long rotated = Long.rotateRight(bits, (int) ((period + 1) & SLOT_MASK));
+			final long tick = (period + 1 + Long.numberOfTrailingZeros(rotated)) << shift;
+
+			if (tick < nextTick) {
+				nextTick = tick;
+			}
+		}
+
+		return nextTick;
+	}
+
+	private void link(final Entry head, final Entry entry) {
+		entry.prev = head.prev;
+		entry.next = head;
+		head.prev.next = entry;
+		head.prev = entry;
+	}
+
+	private void unlink(final Entry entry) {
+		entry.prev.next = entry.next;
+		entry.next.prev = entry.prev;
+
+		if (entry.level >= 0) {
+			final Entry head = this.slots[entry.level][entry.slot];
+			if (head.next == head) {
+				this.occupied[entry.level] &= ~(1L << entry.slot);
+			}
+		}
+
+		entry.prev = null;
+		entry.next = null;
+	}
+
+	private void unmap(final Entry entry) {
+		final Entry mapped = this.entries.get(entry.delayedEvent);
+
+		if (mapped == entry) {
+			if (entry.duplicate == null) {
+				this.entries.remove(entry.delayedEvent);
+			} else {
+				this.entries.put(entry.delayedEvent, entry.duplicate);
+			}
+			return;
+		}
+
+		for (Entry current = mapped; current != null; current = current.duplicate) {
+			if (current.duplicate == entry) {
+				current.duplicate = entry.duplicate;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A pending event in a doubly linked slot list
+	 */
+	private static final class Entry {
+		private final DelayedEvent delayedEvent;
+
+		private final long deadlineTick;
+
+		private int level;
+
+		private int slot;
+
+		private Entry prev;
+
+		private Entry next;
+
+		private Entry duplicate;
+
+		private Entry(final DelayedEvent delayedEvent, final long deadlineTick) {
+			this.delayedEvent = delayedEvent;
+			this.deadlineTick = deadlineTick;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import java.util.Calendar;
+
+/**
+ * Holiday at a fixed number of days from Easter Sunday. Easter Sunday is
+ * calculated with the
+ * <a href="http://en.wikipedia.org/wiki/Computus">Meeus/Jones/Butcher
+ * algorithm</a>, which is a handful of integer operations without allocation.
+ * <code>HolidayCalendar</code> evaluates the rules once per year, so the
+ * result is not cached here.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public abstract class EasterRelativeHoliday implements Holiday {
+
+	private final int offset;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param offset
+	 *            number of days from Easter Sunday
+	 */
+	protected EasterRelativeHoliday(final int offset) {
+		this.offset = offset;
+	}
+
+	@Override
+	public boolean isHoliday(final Calendar calendar) {
+		final int year = calendar.get(Calendar.YEAR);
+		return HolidayCalendar.dayOfYear(year, calendar.get(Calendar.MONTH),
+				calendar.get(Calendar.DAY_OF_MONTH)) == easterSunday(year) + this.offset;
+	}
+
+	/**
+	 * @return number of days from Easter Sunday
+	 */
+	public int getOffset() {
+		return this.offset;
+	}
+
+	/**
+	 * Retrieve Easter Sunday of a year
+	 * 
+	 * @param year
+	 *            the year
+	 * @return Easter Sunday as day of year, starting with 0
+	 */
+	public static int easterSunday(final int year) {
+		final int a = year % 19;
+		final int b = year / 100;
+		final int c = year % 100;
+		final int d = b / 4;
+		final int e = b % 4;
+		final int f = (b + 8) / 25;
+		final int g = (b - f + 1) / 3;
+		final int h = (19 * a + b - d - g + 15) % 30;
+		final int i = c / 4;
+		final int k = c % 4;
+		final int l = (32 + 2 * e + 2 * i - h - k) % 7;
+		final int m = (a + 11 * h + 22 * l) / 451;
+
+		final int month = (h + l - 7 * m + 114) / 31 - 1;
+		final int day = (h + l - 7 * m + 114) % 31 + 1;
+
+		return HolidayCalendar.dayOfYear(year, month, day);
+	}
+}
@@ -23,8 +23,6 @@
  */
 package com.autodomum.core.holiday;
 
-import java.util.Calendar;
-
 /**
  * Calculation of Easter Sunday, based on calculations from
  * <a href="http://en.wikipedia.org/wiki/Computus">Meeus/Jones/Butcher
@@ -32,31 +30,9 @@ import java.util.Calendar;
  * 
  * @author Kenny Colliander Nordin
  */
-public class EasterSunday implements Holiday {
-
-	@Override
-	public boolean isHoliday(Calendar calendar) {
-		int a = calendar.get(Calendar.YEAR) % 19;
-		int b = calendar.get(Calendar.YEAR) / 100;
-		int c = calendar.get(Calendar.YEAR) % 100;
-		int d = b / 4;
-		int e = b % 4;
-		int f = (b + 8) / 25;
-		int g = (b - f + 1) / 3;
-		int h = (19 * a + b - d - g + 15) % 30;
-		int i = c / 4;
-		int k = c % 4;
-		int l = (32 + 2 * e + 2 * i - h - k) % 7;
-		int m = (a + 11 * h + 22 * l) / 451;
-
-		int easterMonth = (h + l - 7 * m + 114) / 31;
-		--easterMonth;
+public class EasterSunday extends EasterRelativeHoliday {
 
-		int p = (h + l - 7 * m + 114) % 31;
-
-		int easterDay = p + 1;
-
-		return calendar.get(Calendar.MONTH) == easterMonth && calendar.get(Calendar.DAY_OF_MONTH) == easterDay;
+	public EasterSunday() {
+		super(0);
 	}
-
 }
@@ -40,4 +40,11 @@ public interface Holiday {
 	 * @return true if holiday, otherwise false
 	 */
 	boolean isHoliday(Calendar calendar);
+
+	/**
+	 * @return the name of the holiday
+	 */
+	default String getName() {
+		return this.getClass().getSimpleName();
+	}
 }
@@ -0,0 +1,278 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled calendar of holidays. All rules are evaluated once per year into a
+ * <code>BitSet</code> indexed by day of year, so a lookup is a single bit test.
+ * The rules must be thread safe and only depend on the year, month and day of
+ * month of the calendar. The rule that matched each holiday is kept as well, so
+ * range queries and names are answered without evaluating the rules again.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class HolidayCalendar implements Holiday {
+
+	private static final int[] CUMULATIVE_DAYS = { 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334 };
+
+	/**
+	 * Maximum number of years searched by <code>nextHoliday</code>
+	 */
+	private static final int MAX_YEARS_AHEAD = 10;
+
+	private final List<Holiday> holidays;
+
+	private final Map<Integer, Year> years = new ConcurrentHashMap<>();
+
+	/**
+	 * The last used year, so that lookups within the same year do not box
+	 * the year
+	 */
+	private volatile Year last;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param holidays
+	 *            the rules of the calendar
+	 */
+	public HolidayCalendar(final Holiday... holidays) {
+		this(holidays == null ? null : Arrays.asList(holidays));
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param holidays
+	 *            the rules of the calendar
+	 */
+	public HolidayCalendar(final Collection<? extends Holiday> holidays) {
+		if (holidays == null) {
+			throw new NullPointerException("Holidays may not be null");
+		}
+
+		for (final Holiday holiday : holidays) {
+			if (holiday == null) {
+				throw new NullPointerException("Holiday may not be null");
+			}
+		}
+
+		this.holidays = Arrays.asList(holidays.toArray(new Holiday[holidays.size()]));
+	}
+
+	@Override
+	public boolean isHoliday(final Calendar calendar) {
+		return this.isHoliday(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH),
+				calendar.get(Calendar.DAY_OF_MONTH));
+	}
+
+	/**
+	 * Check if a day is a holiday
+	 * 
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, starting with <code>Calendar.JANUARY</code>
+	 * @param dayOfMonth
+	 *            the day of month, starting with 1
+	 * @return true if holiday, otherwise false
+	 */
+	public boolean isHoliday(final int year, final int month, final int dayOfMonth) {
+		return this.getYear(year).days.get(dayOfYear(year, month, dayOfMonth));
+	}
+
+	/**
+	 * Check if a day is a holiday
+	 * 
+	 * @param date
+	 *            the day
+	 * @return true if holiday, otherwise false
+	 */
+	public boolean isHoliday(final LocalDate date) {
+		return this.getYear(date.getYear()).days.get(date.getDayOfYear() - 1);
+	}
+
+	/**
+	 * Find the first holiday on or after a day
+	 * 
+	 * @param date
+	 *            the first day to check
+	 * @return the holiday, or null if there is none within ten years
+	 */
+	public NamedHoliday nextHoliday(final LocalDate date) {
+		if (date == null) {
+			throw new NullPointerException("Date may not be null");
+		}
+
+		int day = date.getDayOfYear() - 1;
+		for (int year = date.getYear(); year <= date.getYear() + MAX_YEARS_AHEAD; year++) {
+			final Year compiled = this.getYear(year);
+			final int next = compiled.days.nextSetBit(day);
+			if (next >= 0) {
+				return compiled.toNamedHoliday(next);
+			}
+			day = 0;
+		}
+
+		return null;
+	}
+
+	/**
+	 * List all holidays in a range of days
+	 * 
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, exclusive
+	 * @return the holidays in order
+	 */
+	public List<NamedHoliday> holidaysBetween(final LocalDate from, final LocalDate to) {
+		if (from == null) {
+			throw new NullPointerException("From may not be null");
+		}
+
+		if (to == null) {
+			throw new NullPointerException("To may not be null");
+		}
+
+		if (to.isBefore(from)) {
+			throw new IllegalArgumentException("To " + to + " is before from " + from);
+		}
+
+		final List<NamedHoliday> result = new ArrayList<>();
+		for (int year = from.getYear(); year <= to.getYear(); year++) {
+			final Year compiled = this.getYear(year);
+			final int first = year == from.getYear() ? from.getDayOfYear() - 1 : 0;
+			final int last = year == to.getYear() ? to.getDayOfYear() - 1 : compiled.length;
+
+			for (int day = compiled.days.nextSetBit(first); day >= 0
+					&& day < last; day = compiled.days.nextSetBit(day + 1)) {
+				result.add(compiled.toNamedHoliday(day));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Retrieve the holidays of a year, compiling them if necessary. Bit
+	 * <code>n</code> is set if day <code>n + 1</code> of the year is a holiday.
+	 * 
+	 * @param year
+	 *            the year
+	 * @return a copy of the compiled year
+	 */
+	public BitSet getHolidays(final int year) {
+		return (BitSet) this.getYear(year).days.clone();
+	}
+
+	/**
+	 * Remove all compiled years
+	 */
+	public void clear() {
+		this.years.clear();
+		this.last = null;
+	}
+
+	/**
+	 * @return the rules of the calendar
+	 */
+	public List<Holiday> getRules() {
+		return this.holidays;
+	}
+
+	private Year getYear(final int year) {
+		Year compiled = this.last;
+		if (compiled == null || compiled.year != year) {
+			compiled = this.years.computeIfAbsent(year, this::compile);
+			this.last = compiled;
+		}
+		return compiled;
+	}
+
+	private Year compile(final int year) {
+		final GregorianCalendar calendar = new GregorianCalendar(year, Calendar.JANUARY, 1);
+		final Year compiled = new Year(year, calendar.getActualMaximum(Calendar.DAY_OF_YEAR));
+
+		for (int day = 0; day < compiled.length; day++) {
+			for (int rule = 0; rule < this.holidays.size(); rule++) {
+				if (this.holidays.get(rule).isHoliday(calendar)) {
+					compiled.days.set(day);
+					compiled.rules[day] = rule;
+					break;
+				}
+			}
+			calendar.add(Calendar.DAY_OF_YEAR, 1);
+		}
+
+		return compiled;
+	}
+
+	static int dayOfYear(final int year, final int month, final int dayOfMonth) {
+		final boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+		return CUMULATIVE_DAYS[month] + (leap && month > Calendar.FEBRUARY ? 1 : 0) + dayOfMonth - 1;
+	}
+
+	/**
+	 * Compiled holidays of a year
+	 */
+	private final class Year {
+
+		private final int year;
+
+		private final int length;
+
+		private final BitSet days;
+
+		/**
+		 * Index of the matching rule per day, only valid for days set in
+		 * <code>days</code>
+		 */
+		private final int[] rules;
+
+		Year(final int year, final int length) {
+			this.year = year;
+			this.length = length;
+			this.days = new BitSet(length);
+			this.rules = new int[length];
+		}
+
+		NamedHoliday toNamedHoliday(final int day) {
+			return new NamedHoliday(LocalDate.ofYearDay(this.year, day + 1),
+					HolidayCalendar.this.holidays.get(this.rules[day]).getName());
+		}
+	}
+}
@@ -23,34 +23,60 @@
  */
 package com.autodomum.core.holiday;
 
-import java.util.Arrays;
+import java.time.LocalDate;
 import java.util.Calendar;
-import java.util.Collection;
+import java.util.List;
 
 /**
- * Collecting country holidays, etc and validate all with a single method
+ * Collecting country holidays, etc and validate all with a single method. The
+ * holidays are compiled into a <code>HolidayCalendar</code> once per year.
  * 
  * @author Kenny Colliander Nordin
  * @since 0.0.1
  */
 public class HolidayCollection implements Holiday {
-	private final Collection<Holiday> holidays;
+	private final HolidayCalendar calendar;
 
 	protected HolidayCollection(final Holiday... holidays) {
 		if (holidays == null) {
 			throw new NullPointerException("Parameter holidays may not be null");
 		}
-		this.holidays = Arrays.asList(holidays);
+		this.calendar = new HolidayCalendar(holidays);
 	}
 
 	@Override
 	public boolean isHoliday(final Calendar calendar) {
-		for (final Holiday holiday : this.holidays) {
-			if (holiday.isHoliday(calendar)) {
-				return true;
-			}
-		}
+		return this.calendar.isHoliday(calendar);
+	}
+
+	/**
+	 * Find the first holiday on or after a day
+	 * 
+	 * @param date
+	 *            the first day to check
+	 * @return the holiday, or null if there is none within ten years
+	 */
+	public NamedHoliday nextHoliday(final LocalDate date) {
+		return this.calendar.nextHoliday(date);
+	}
+
+	/**
+	 * List all holidays in a range of days
+	 * 
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, exclusive
+	 * @return the holidays in order
+	 */
+	public List<NamedHoliday> holidaysBetween(final LocalDate from, final LocalDate to) {
+		return this.calendar.holidaysBetween(from, to);
+	}
 
-		return false;
+	/**
+	 * @return the compiled calendar of the holidays
+	 */
+	public HolidayCalendar getCalendar() {
+		return this.calendar;
 	}
 }
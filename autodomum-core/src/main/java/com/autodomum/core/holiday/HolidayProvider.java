@@ -0,0 +1,48 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+/**
+ * Service provider of the holidays of a region. Implementations are located
+ * with <code>java.util.ServiceLoader</code> by <code>HolidayProviders</code>
+ * and must have a public no argument constructor.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public interface HolidayProvider {
+
+	/**
+	 * @return the region code, for instance the ISO 3166 country code
+	 */
+	String getRegion();
+
+	/**
+	 * Create the holiday calendar of the region. Only called once per region
+	 * and <code>HolidayProviders</code> instance.
+	 * 
+	 * @return the calendar
+	 */
+	HolidayCalendar createCalendar();
+}
@@ -0,0 +1,145 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the <code>HolidayProvider</code> implementations. The providers
+ * are located the first time a region is requested and the calendar of each
+ * region is created on first use and then cached. Region codes are case
+ * insensitive.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class HolidayProviders {
+
+	private final Iterable<HolidayProvider> source;
+
+	private volatile Map<String, HolidayProvider> providers;
+
+	private final Map<String, HolidayCalendar> calendars = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor that locates the providers with <code>ServiceLoader</code>
+	 * using the context class loader
+	 */
+	public HolidayProviders() {
+		this(ServiceLoader.load(HolidayProvider.class));
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param providers
+	 *            the providers, iterated on first use
+	 */
+	public HolidayProviders(final Iterable<HolidayProvider> providers) {
+		if (providers == null) {
+			throw new NullPointerException("Providers may not be null");
+		}
+
+		this.source = providers;
+	}
+
+	/**
+	 * Retrieve the holiday calendar of a region
+	 * 
+	 * @param region
+	 *            the region code
+	 * @return the calendar
+	 * @throws IllegalArgumentException
+	 *             if no provider supports the region
+	 */
+	public HolidayCalendar getCalendar(final String region) {
+		if (region == null) {
+			throw new NullPointerException("Region may not be null");
+		}
+
+		final String key = normalize(region);
+		final HolidayCalendar calendar = this.calendars.get(key);
+		if (calendar != null) {
+			return calendar;
+		}
+
+		final HolidayProvider provider = this.getProviders().get(key);
+		if (provider == null) {
+			throw new IllegalArgumentException("No holiday provider for region " + region);
+		}
+
+		return this.calendars.computeIfAbsent(key, k -> provider.createCalendar());
+	}
+
+	/**
+	 * @return the supported region codes
+	 */
+	public Set<String> getRegions() {
+		return Collections.unmodifiableSet(new TreeSet<>(this.getProviders().keySet()));
+	}
+
+	private Map<String, HolidayProvider> getProviders() {
+		Map<String, HolidayProvider> result = this.providers;
+		if (result == null) {
+			synchronized (this) {
+				result = this.providers;
+				if (result == null) {
+					result = this.load();
+					this.providers = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private Map<String, HolidayProvider> load() {
+		final Map<String, HolidayProvider> result = new ConcurrentHashMap<>();
+		final List<String> duplicates = new ArrayList<>();
+
+		for (final HolidayProvider provider : this.source) {
+			final String key = normalize(provider.getRegion());
+			if (result.putIfAbsent(key, provider) != null) {
+				duplicates.add(key);
+			}
+		}
+
+		if (!duplicates.isEmpty()) {
+			throw new IllegalStateException("Several holiday providers for regions " + duplicates);
+		}
+
+		return result;
+	}
+
+	private static String normalize(final String region) {
+		return region.trim().toUpperCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,231 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parser of data driven holiday rules. Each line contains one rule, empty lines
+ * and lines starting with <code>#</code> are ignored:
+ * 
+ * <pre>
+ * fixed MM-DD name                fixed date, for instance fixed 12-24 Christmas Eve
+ * easter N name                   days from Easter Sunday, for instance easter -2 Good Friday
+ * weekday MM-DD DAY [n] name      n:th DAY on or after MM-DD, or on or before if n is negative
+ * </pre>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public final class HolidayRules {
+
+	private HolidayRules() {
+	}
+
+	/**
+	 * Parse rules
+	 * 
+	 * @param reader
+	 *            the rules, not closed by this method
+	 * @return the holidays in the order of the rules
+	 * @throws IOException
+	 *             if the rules could not be read
+	 * @throws IllegalArgumentException
+	 *             if a rule is invalid
+	 */
+	public static List<Holiday> parse(final Reader reader) throws IOException {
+		final BufferedReader in = new BufferedReader(reader);
+		final List<Holiday> holidays = new ArrayList<>();
+
+		String line;
+		int number = 0;
+		while ((line = in.readLine()) != null) {
+			number++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+
+			try {
+				holidays.add(parse(line));
+			} catch (IllegalArgumentException | DateTimeException e) {
+				throw new IllegalArgumentException("Invalid holiday rule at line " + number + ": " + line, e);
+			}
+		}
+
+		return holidays;
+	}
+
+	/**
+	 * Parse a single rule
+	 * 
+	 * @param rule
+	 *            the rule
+	 * @return the holiday
+	 */
+	public static Holiday parse(final String rule) {
+		final String[] tokens = rule.trim().split("\\s+");
+		if (tokens.length < 3) {
+			throw new IllegalArgumentException("Rule must have a type, a date and a name");
+		}
+
+		switch (tokens[0]) {
+		case "fixed":
+			return new FixedRule(monthDay(tokens[1]), name(tokens, 2));
+		case "easter":
+			return new EasterRule(Integer.parseInt(tokens[1].startsWith("+") ? tokens[1].substring(1) : tokens[1]),
+					name(tokens, 2));
+		case "weekday":
+			if (tokens.length < 4) {
+				throw new IllegalArgumentException("Weekday rule must have a date, a day and a name");
+			}
+
+			final DayOfWeek dayOfWeek = DayOfWeek.valueOf(tokens[2].toUpperCase(Locale.ROOT));
+			int nth = 1;
+			int name = 3;
+			if (tokens[3].matches("[+-]?\\d+") && tokens.length > 4) {
+				nth = Integer.parseInt(tokens[3].startsWith("+") ? tokens[3].substring(1) : tokens[3]);
+				name = 4;
+			}
+
+			if (nth == 0) {
+				throw new IllegalArgumentException("Weekday number may not be 0");
+			}
+
+			return new WeekdayRule(monthDay(tokens[1]), dayOfWeek, nth, name(tokens, name));
+		default:
+			throw new IllegalArgumentException("Unknown rule type " + tokens[0]);
+		}
+	}
+
+	private static MonthDay monthDay(final String token) {
+		return MonthDay.parse("--" + token);
+	}
+
+	private static String name(final String[] tokens, final int from) {
+		final StringBuilder builder = new StringBuilder(tokens[from]);
+		for (int i = from + 1; i < tokens.length; i++) {
+			builder.append(' ').append(tokens[i]);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Holiday at the same date every year
+	 */
+	private static final class FixedRule implements Holiday {
+
+		private final int month;
+
+		private final int dayOfMonth;
+
+		private final String name;
+
+		FixedRule(final MonthDay monthDay, final String name) {
+			this.month = monthDay.getMonthValue() - 1;
+			this.dayOfMonth = monthDay.getDayOfMonth();
+			this.name = name;
+		}
+
+		@Override
+		public boolean isHoliday(final Calendar calendar) {
+			return calendar.get(Calendar.MONTH) == this.month && calendar.get(Calendar.DAY_OF_MONTH) == this.dayOfMonth;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+	}
+
+	/**
+	 * Holiday relative to Easter Sunday
+	 */
+	private static final class EasterRule extends EasterRelativeHoliday {
+
+		private final String name;
+
+		EasterRule(final int offset, final String name) {
+			super(offset);
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+	}
+
+	/**
+	 * Holiday at the n:th day of week from a date
+	 */
+	private static final class WeekdayRule implements Holiday {
+
+		private final MonthDay anchor;
+
+		private final DayOfWeek dayOfWeek;
+
+		private final int nth;
+
+		private final String name;
+
+		WeekdayRule(final MonthDay anchor, final DayOfWeek dayOfWeek, final int nth, final String name) {
+			this.anchor = anchor;
+			this.dayOfWeek = dayOfWeek;
+			this.nth = nth;
+			this.name = name;
+		}
+
+		@Override
+		public boolean isHoliday(final Calendar calendar) {
+			final LocalDate date = this.dateOf(calendar.get(Calendar.YEAR));
+			return calendar.get(Calendar.MONTH) == date.getMonthValue() - 1
+					&& calendar.get(Calendar.DAY_OF_MONTH) == date.getDayOfMonth();
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		private LocalDate dateOf(final int year) {
+			final LocalDate date = this.anchor.atYear(year);
+			if (this.nth > 0) {
+				return date.with(TemporalAdjusters.nextOrSame(this.dayOfWeek)).plusWeeks(this.nth - 1);
+			}
+			return date.with(TemporalAdjusters.previousOrSame(this.dayOfWeek)).minusWeeks(-this.nth - 1);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <code>HolidayProvider</code> that reads its holidays from a rule resource in
+ * the format of <code>HolidayRules</code>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public abstract class RuleHolidayProvider implements HolidayProvider {
+
+	private final String region;
+
+	private final String resource;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param region
+	 *            the region code
+	 * @param resource
+	 *            the rule resource, relative to the class of the provider
+	 */
+	protected RuleHolidayProvider(final String region, final String resource) {
+		if (region == null) {
+			throw new NullPointerException("Region may not be null");
+		}
+
+		if (resource == null) {
+			throw new NullPointerException("Resource may not be null");
+		}
+
+		this.region = region;
+		this.resource = resource;
+	}
+
+	@Override
+	public String getRegion() {
+		return this.region;
+	}
+
+	@Override
+	public HolidayCalendar createCalendar() {
+		try (final InputStream in = this.getClass().getResourceAsStream(this.resource)) {
+			if (in == null) {
+				throw new IllegalStateException("Resource " + this.resource + " not found for region " + this.region);
+			}
+
+			return new HolidayCalendar(HolidayRules.parse(new InputStreamReader(in, StandardCharsets.UTF_8)));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read " + this.resource, e);
+		}
+	}
+}
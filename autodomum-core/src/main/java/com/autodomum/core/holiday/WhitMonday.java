@@ -23,9 +23,6 @@
  */
 package com.autodomum.core.holiday;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-
 /**
  * Calculation of Whit Monday day, based on calculations from
  * <a href="http://en.wikipedia.org/wiki/Computus">Meeus/Jones/Butcher
@@ -33,35 +30,9 @@ import java.util.GregorianCalendar;
  * 
  * @author Kenny Colliander Nordin
  */
-public class WhitMonday implements Holiday {
-
-	@Override
-	public boolean isHoliday(Calendar calendar) {
-		int a = calendar.get(Calendar.YEAR) % 19;
-		int b = calendar.get(Calendar.YEAR) / 100;
-		int c = calendar.get(Calendar.YEAR) % 100;
-		int d = b / 4;
-		int e = b % 4;
-		int f = (b + 8) / 25;
-		int g = (b - f + 1) / 3;
-		int h = (19 * a + b - d - g + 15) % 30;
-		int i = c / 4;
-		int k = c % 4;
-		int l = (32 + 2 * e + 2 * i - h - k) % 7;
-		int m = (a + 11 * h + 22 * l) / 451;
-
-		int easterMonth = (h + l - 7 * m + 114) / 31;
-		--easterMonth;
-
-		int p = (h + l - 7 * m + 114) % 31;
-
-		int easterDay = p + 1;
-
-		GregorianCalendar cal = new GregorianCalendar(calendar.get(Calendar.YEAR), easterMonth, easterDay);
-
-		cal.add(Calendar.DAY_OF_MONTH, 50);
+public class WhitMonday extends EasterRelativeHoliday {
 
-		return calendar.get(Calendar.MONTH) == cal.get(Calendar.MONTH)
-				&& calendar.get(Calendar.DAY_OF_MONTH) == cal.get(Calendar.DAY_OF_MONTH);
+	public WhitMonday() {
+		super(50);
 	}
 }
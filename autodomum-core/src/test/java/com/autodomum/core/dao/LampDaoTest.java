@@ -0,0 +1,78 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.autodomum.core.model.Lamp;
+
+/**
+ * Test of the <code>LampDao</code> interface
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class LampDaoTest {
+
+	@Test
+	public void testUpdateLamps() {
+		final List<String> updated = new ArrayList<>();
+		final LampDao lampDao = new LampDao() {
+			@Override
+			public Lamp getLamp(String id) {
+				return null;
+			}
+
+			@Override
+			public void updateLamp(String id, Lamp lamp) {
+				updated.add(id + "=" + lamp.getOn());
+			}
+
+			@Override
+			public Lamp[] getLamps() {
+				return new Lamp[0];
+			}
+		};
+
+		final Lamp on = new Lamp();
+		on.setOn(true);
+		final Lamp off = new Lamp();
+		off.setOn(false);
+
+		final Map<String, Lamp> lamps = new LinkedHashMap<>();
+		lamps.put("1", on);
+		lamps.put("2", off);
+		lampDao.updateLamps(lamps);
+
+		assertEquals(Arrays.asList("1=true", "2=false"), updated);
+	}
+}
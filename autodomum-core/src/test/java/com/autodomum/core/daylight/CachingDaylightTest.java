@@ -0,0 +1,132 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * Test of the <code>CachingDaylight</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingDaylightTest {
+
+	private static final long HOUR = 3600000L;
+
+	private static final long DAY = 24 * HOUR;
+
+	@Mock
+	private Daylight daylight;
+
+	private CachingDaylight cachingDaylight;
+
+	private final Coordinate coordinate = new Coordinate(18d, 59d);
+
+	@Before
+	public void before() {
+		when(daylight.sunrise(any(), any())).thenReturn(new Date(1000L));
+		when(daylight.sunset(any(), any())).thenReturn(new Date(2000L));
+
+		this.cachingDaylight = new CachingDaylight(daylight, 2, TimeZone.getTimeZone("Europe/Stockholm"));
+	}
+
+	@Test
+	public void testSameDay() {
+		// 2016-04-05 00:30 and 23:30 in Stockholm
+		final long midnight = 1459807200000L;
+
+		assertEquals(1000L, this.cachingDaylight.sunrise(coordinate, new Date(midnight + HOUR / 2)).getTime());
+		assertEquals(1000L, this.cachingDaylight.sunrise(coordinate, new Date(midnight + 23 * HOUR + HOUR / 2))
+				.getTime());
+		assertEquals(2000L, this.cachingDaylight.sunsetMillis(coordinate, midnight + 12 * HOUR));
+		assertEquals(2000L, this.cachingDaylight.sunsetMillis(coordinate, midnight + 13 * HOUR));
+
+		verify(daylight, times(1)).sunrise(any(), any());
+		verify(daylight, times(1)).sunset(any(), any());
+		assertEquals(2, this.cachingDaylight.getHitCount());
+		assertEquals(2, this.cachingDaylight.getMissCount());
+		assertEquals(0.5d, this.cachingDaylight.getHitRate(), 0.0001d);
+		assertEquals(1, this.cachingDaylight.size());
+	}
+
+	@Test
+	public void testDifferentDaysAndCoordinates() {
+		final long midnight = 1459807200000L;
+
+		this.cachingDaylight.sunriseMillis(coordinate, midnight);
+		this.cachingDaylight.sunriseMillis(coordinate, midnight + DAY);
+		this.cachingDaylight.sunriseMillis(new Coordinate(18d, 60d), midnight);
+
+		verify(daylight, times(3)).sunrise(any(), any());
+		assertEquals(0, this.cachingDaylight.getHitCount());
+	}
+
+	@Test
+	public void testEviction() {
+		final long midnight = 1459807200000L;
+
+		this.cachingDaylight.sunriseMillis(coordinate, midnight);
+		this.cachingDaylight.sunriseMillis(coordinate, midnight + DAY);
+		this.cachingDaylight.sunriseMillis(coordinate, midnight);
+		this.cachingDaylight.sunriseMillis(coordinate, midnight + 2 * DAY);
+
+		assertEquals(2, this.cachingDaylight.size());
+
+		// The first day was used recently and is kept, the second is evicted
+		this.cachingDaylight.sunriseMillis(coordinate, midnight);
+		verify(daylight, times(3)).sunrise(any(), any());
+		this.cachingDaylight.sunriseMillis(coordinate, midnight + DAY);
+		verify(daylight, times(4)).sunrise(any(), any());
+	}
+
+	@Test
+	public void testHitRateWithoutQueries() {
+		assertEquals(0d, this.cachingDaylight.getHitRate(), 0d);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullDaylight() {
+		new CachingDaylight(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new CachingDaylight(daylight, 0, TimeZone.getDefault());
+	}
+}
@@ -24,6 +24,7 @@
 package com.autodomum.core.daylight;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -53,6 +54,14 @@ public class CoordinateTest {
 		assertEquals(2, this.coordinate.getLatitude(), 0.00001d);
 	}
 
+	@Test
+	public void testEquals() {
+		assertEquals(new Coordinate(1d, 2d), this.coordinate);
+		assertEquals(new Coordinate(1d, 2d).hashCode(), this.coordinate.hashCode());
+		assertNotEquals(new Coordinate(2d, 1d), this.coordinate);
+		assertNotEquals(null, this.coordinate);
+	}
+
 	@Test
 	public void testToString() {
 		assertEquals("Coordinate [longitude=1.0, latitude=2.0]", this.coordinate.toString());
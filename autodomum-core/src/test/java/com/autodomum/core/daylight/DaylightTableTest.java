@@ -0,0 +1,128 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test of the <code>DaylightTable</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class DaylightTableTest {
+
+	private static final long HOUR = 3600000L;
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+	private final Coordinate coordinate = new Coordinate(18d, 59d);
+
+	private DaylightTable table;
+
+	/**
+	 * Daylight with sunrise six hours before and sunset six hours after the
+	 * queried time
+	 */
+	static class FixedDaylight implements Daylight {
+
+		@Override
+		public Date sunrise(Coordinate coordinate, Date date) {
+			return new Date(date.getTime() - 6 * HOUR);
+		}
+
+		@Override
+		public Date sunset(Coordinate coordinate, Date date) {
+			return new Date(date.getTime() + 6 * HOUR);
+		}
+	}
+
+	private static long noon(final LocalDate date) {
+		return date.atTime(12, 0).atZone(ZONE).toInstant().toEpochMilli();
+	}
+
+	@Before
+	public void before() {
+		this.table = DaylightTable.compute(new FixedDaylight(), coordinate, 2016, ZONE);
+	}
+
+	@Test
+	public void testLength() {
+		assertEquals(366, this.table.length());
+		assertEquals(365, DaylightTable.compute(new FixedDaylight(), coordinate, 2017, ZONE).length());
+	}
+
+	@Test
+	public void testEveryDay() {
+		for (LocalDate date = LocalDate.of(2016, 1, 1); date.getYear() == 2016; date = date.plusDays(1)) {
+			assertEquals(noon(date) - 6 * HOUR, this.table.sunrise(date));
+			assertEquals(noon(date) + 6 * HOUR, this.table.sunset(date));
+			assertEquals(this.table.sunrise(date), this.table.sunrise(date.getDayOfYear()));
+		}
+	}
+
+	@Test
+	public void testRange() {
+		final LocalDate date = LocalDate.of(2016, 3, 26);
+
+		assertArrayEquals(new long[] { noon(date) - 6 * HOUR, noon(date) + 6 * HOUR,
+				noon(date.plusDays(1)) - 6 * HOUR, noon(date.plusDays(1)) + 6 * HOUR },
+				this.table.range(date, date.plusDays(2)));
+	}
+
+	@Test
+	public void testRangeWholeYear() {
+		assertEquals(366 * 2, this.table.range(LocalDate.of(2016, 1, 1), LocalDate.of(2017, 1, 1)).length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRangeReversed() {
+		this.table.range(LocalDate.of(2016, 2, 1), LocalDate.of(2016, 1, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOtherYear() {
+		this.table.sunrise(LocalDate.of(2015, 12, 31));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDayOfYear() {
+		this.table.sunset(367);
+	}
+
+	@Test
+	public void testGetters() {
+		assertEquals(coordinate, this.table.getCoordinate());
+		assertEquals(2016, this.table.getYear());
+		assertEquals(ZONE, this.table.getZone());
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.daylight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test of the <code>TabulatedDaylight</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class TabulatedDaylightTest {
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final Coordinate coordinate = new Coordinate(18d, 59d);
+
+	private TabulatedDaylight tabulatedDaylight;
+
+	@Before
+	public void before() {
+		this.tabulatedDaylight = new TabulatedDaylight(new DaylightTableTest.FixedDaylight() {
+			@Override
+			public Date sunrise(Coordinate coordinate, Date date) {
+				calls.incrementAndGet();
+				return super.sunrise(coordinate, date);
+			}
+		}, ZONE);
+	}
+
+	@Test
+	public void testSunriseAndSunset() {
+		final Date morning = Date.from(LocalDate.of(2016, 4, 5).atTime(7, 0).atZone(ZONE).toInstant());
+		final long noon = LocalDate.of(2016, 4, 5).atTime(12, 0).atZone(ZONE).toInstant().toEpochMilli();
+
+		assertEquals(noon - 6 * 3600000L, this.tabulatedDaylight.sunrise(coordinate, morning).getTime());
+		assertEquals(noon + 6 * 3600000L, this.tabulatedDaylight.sunset(coordinate, morning).getTime());
+		assertEquals(366, calls.get());
+
+		this.tabulatedDaylight.sunrise(coordinate, new Date(noon + 86400000L));
+		assertEquals(366, calls.get());
+	}
+
+	@Test
+	public void testTablePerCoordinateAndYear() {
+		final DaylightTable table = this.tabulatedDaylight.getTable(coordinate, 2016);
+
+		assertSame(table, this.tabulatedDaylight.getTable(new Coordinate(18d, 59d), 2016));
+		assertNotSame(table, this.tabulatedDaylight.getTable(coordinate, 2017));
+		assertNotSame(table, this.tabulatedDaylight.getTable(new Coordinate(18d, 60d), 2016));
+
+		this.tabulatedDaylight.clear();
+		assertNotSame(table, this.tabulatedDaylight.getTable(coordinate, 2016));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullZone() {
+		new TabulatedDaylight(new DaylightTableTest.FixedDaylight(), null);
+	}
+}
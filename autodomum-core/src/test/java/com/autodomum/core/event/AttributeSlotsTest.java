@@ -0,0 +1,141 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test of the <code>AttributeSlots</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class AttributeSlotsTest {
+
+	private AttributeSlots slots;
+
+	@Before
+	public void before() {
+		this.slots = new AttributeSlots();
+	}
+
+	@Test
+	public void testRegister() {
+		assertEquals(0, this.slots.register("counter"));
+		assertEquals(1, this.slots.register("timestamp"));
+		assertEquals(0, this.slots.register("counter"));
+		assertEquals(2, this.slots.size());
+		assertEquals(1, this.slots.indexOf("timestamp"));
+		assertEquals(-1, this.slots.indexOf("unknown"));
+		assertEquals(-1, this.slots.indexOf(null));
+		assertEquals(Integer.valueOf(0), this.slots.getIndexes().get("counter"));
+	}
+
+	@Test
+	public void testLong() {
+		final int index = this.slots.register("counter");
+
+		assertEquals(0, this.slots.get(index));
+		this.slots.put(index, 1337);
+		assertEquals(1337, this.slots.get(index));
+		assertEquals(1338, this.slots.increment(index));
+		assertEquals(1348, this.slots.add(index, 10));
+		assertFalse(this.slots.compareAndSet(index, 0, 1));
+		assertTrue(this.slots.compareAndSet(index, 1348, 1));
+		assertEquals(1, this.slots.get(index));
+	}
+
+	@Test
+	public void testBooleanAndDouble() {
+		final int flag = this.slots.register("flag");
+		final int level = this.slots.register("level");
+
+		assertFalse(this.slots.getBoolean(flag));
+		this.slots.putBoolean(flag, true);
+		assertTrue(this.slots.getBoolean(flag));
+
+		this.slots.putDouble(level, -0.25);
+		assertEquals(-0.25, this.slots.getDouble(level), 0);
+	}
+
+	@Test
+	public void testManySegments() {
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, this.slots.register("key" + i));
+			this.slots.put(i, i * 10);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i * 10, this.slots.get(this.slots.indexOf("key" + i)));
+		}
+	}
+
+	@Test
+	public void testConcurrentIncrement() throws InterruptedException {
+		final int index = this.slots.register("counter");
+		final List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < 4; i++) {
+			final int thread = i;
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < 10000; j++) {
+					this.slots.increment(index);
+					this.slots.register("key" + thread + "-" + (j % 100));
+				}
+			}));
+		}
+
+		threads.forEach(Thread::start);
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(40000, this.slots.get(index));
+		assertEquals(401, this.slots.size());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testUnregisteredIndex() {
+		this.slots.register("counter");
+		this.slots.get(1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testNegativeIndex() {
+		this.slots.put(-1, 0);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testRegisterNull() {
+		this.slots.register(null);
+	}
+}
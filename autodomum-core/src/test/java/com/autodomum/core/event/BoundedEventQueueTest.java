@@ -0,0 +1,186 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test of the <code>BoundedEventQueue</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class BoundedEventQueueTest {
+
+	@Test
+	public void testFifo() {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(3, OverflowPolicy.BLOCK);
+
+		assertTrue(queue.offer("a"));
+		assertTrue(queue.offer("b"));
+		assertTrue(queue.offer("c"));
+
+		assertEquals(3, queue.size());
+		assertEquals("a", queue.poll());
+		assertEquals("b", queue.poll());
+		assertEquals("c", queue.poll());
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testDropNewest() {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(2, OverflowPolicy.DROP_NEWEST);
+
+		assertTrue(queue.offer("a"));
+		assertTrue(queue.offer("b"));
+		assertFalse(queue.offer("c"));
+
+		assertEquals(1, queue.getRejectedCount());
+		assertEquals("a", queue.poll());
+		assertEquals("b", queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void testDropOldest() {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(2, OverflowPolicy.DROP_OLDEST);
+
+		assertTrue(queue.offer("a"));
+		assertTrue(queue.offer("b"));
+		assertTrue(queue.offer("c"));
+
+		assertEquals(1, queue.getDroppedCount());
+		assertEquals("b", queue.poll());
+		assertEquals("c", queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void testCoalesce() {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(2, OverflowPolicy.COALESCE,
+				s -> s.charAt(0));
+
+		assertTrue(queue.offer("a1"));
+		assertTrue(queue.offer("b1"));
+		assertTrue(queue.offer("a2"));
+		assertFalse(queue.offer("c1"));
+
+		assertEquals(1, queue.getCoalescedCount());
+		assertEquals(1, queue.getRejectedCount());
+		assertTrue(queue.containsKey('b'));
+		assertFalse(queue.containsKey('c'));
+		assertEquals("a2", queue.poll());
+		assertEquals("b1", queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void testBlock() throws InterruptedException {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(1, OverflowPolicy.BLOCK);
+		final CountDownLatch offered = new CountDownLatch(1);
+
+		queue.offer("a");
+
+		final Thread thread = new Thread(() -> {
+			queue.offer("b");
+			offered.countDown();
+		});
+		thread.start();
+
+		assertFalse(offered.await(100, TimeUnit.MILLISECONDS));
+		assertEquals("a", queue.poll());
+		assertTrue(offered.await(5, TimeUnit.SECONDS));
+		assertEquals("b", queue.poll(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testBlockInterrupted() throws InterruptedException {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(1, OverflowPolicy.BLOCK);
+
+		queue.offer("a");
+		Thread.currentThread().interrupt();
+
+		assertFalse(queue.offer("b"));
+		assertTrue(Thread.interrupted());
+		assertEquals(1, queue.getRejectedCount());
+	}
+
+	@Test
+	public void testBlockWithoutWaiting() {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(1, OverflowPolicy.BLOCK);
+
+		assertTrue(queue.offer("a", false));
+		assertFalse(queue.offer("b", false));
+		assertEquals(1, queue.getRejectedCount());
+		assertEquals("a", queue.poll());
+	}
+
+	@Test
+	public void testDrainTo() {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(3, OverflowPolicy.DROP_NEWEST);
+		final List<String> elements = new ArrayList<>();
+
+		queue.offer("a");
+		queue.offer("b");
+
+		assertEquals(2, queue.drainTo(elements));
+		assertEquals(Arrays.asList("a", "b"), elements);
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.drainTo(elements));
+	}
+
+	@Test
+	public void testPollTimeout() throws InterruptedException {
+		final BoundedEventQueue<String> queue = new BoundedEventQueue<>(1, OverflowPolicy.BLOCK);
+
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroCapacity() {
+		new BoundedEventQueue<String>(0, OverflowPolicy.BLOCK);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullPolicy() {
+		new BoundedEventQueue<String>(1, null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testOfferNull() {
+		new BoundedEventQueue<String>(1, OverflowPolicy.BLOCK).offer(null);
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * Test of the <code>DelayQueueEventStore</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DelayQueueEventStoreTest {
+
+	@Mock
+	private Clock clock;
+
+	private DelayQueueEventStore store;
+
+	@Before
+	public void before() {
+		when(clock.millis()).thenReturn(1000l);
+		this.store = new DelayQueueEventStore();
+	}
+
+	@Test
+	public void testPutAndPoll() throws InterruptedException {
+		final FireOnceEvent event1 = new FireOnceEvent(clock, 1000, "event1");
+		final FireOnceEvent event2 = new FireOnceEvent(clock, 2000, "event2");
+
+		this.store.put(event2);
+		this.store.put(event1);
+
+		assertEquals(2, this.store.size());
+		assertSame(event1, this.store.element());
+		assertSame(event1, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testRemove() {
+		final FireOnceEvent event1 = new FireOnceEvent(clock, 1000, "event1");
+
+		this.store.put(event1);
+		assertTrue(this.store.remove(event1));
+		assertFalse(this.store.remove(event1));
+		assertEquals(0, this.store.size());
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test of the contract of the <code>DelayedEventStore</code> interface, run
+ * against all implementations
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@RunWith(Parameterized.class)
+public class DelayedEventStoreTest {
+
+	private static final long START = 1459857600000L;
+
+	private final Clock clock = Clock.fixed(Instant.ofEpochMilli(START), ZoneOffset.UTC);
+
+	@Parameter(0)
+	public String name;
+
+	@Parameter(1)
+	public Function<Clock, DelayedEventStore> factory;
+
+	private DelayedEventStore store;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> stores() {
+		return Arrays.asList(
+				new Object[] { "DelayQueueEventStore",
+						(Function<Clock, DelayedEventStore>) clock -> new DelayQueueEventStore() },
+				new Object[] { "TimingWheelEventStore",
+						(Function<Clock, DelayedEventStore>) clock -> new TimingWheelEventStore(clock, 10) });
+	}
+
+	@Before
+	public void before() {
+		this.store = this.factory.apply(this.clock);
+	}
+
+	@Test
+	public void testPutAndPoll() throws InterruptedException {
+		final FireOnceEvent due = new FireOnceEvent(this.clock, START - 10, "due");
+		final FireOnceEvent pending = new FireOnceEvent(this.clock, START + 1000, "pending");
+
+		this.store.put(pending);
+		this.store.put(due);
+
+		assertEquals(2, this.store.size());
+		assertSame(due, this.store.element());
+		assertSame(due, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertEquals(1, this.store.size());
+	}
+
+	@Test
+	public void testRemove() {
+		final FireOnceEvent event = new FireOnceEvent(this.clock, START + 1000, "event");
+
+		this.store.put(event);
+
+		assertTrue(this.store.remove(event));
+		assertFalse(this.store.remove(event));
+		assertEquals(0, this.store.size());
+	}
+
+	@Test
+	public void testRemoveEqual() {
+		this.store.put(new FireOnceEvent(this.clock, START + 1000, "event"));
+
+		assertFalse(this.store.remove(new FireOnceEvent(this.clock, START + 1000, "other")));
+		assertFalse(this.store.remove(new FireOnceEvent(this.clock, START + 2000, "event")));
+		assertTrue(this.store.remove(new FireOnceEvent(this.clock, START + 1000, "event")));
+		assertEquals(0, this.store.size());
+	}
+
+	@Test
+	public void testRemoveEqualDuplicates() throws InterruptedException {
+		final FireOnceEvent event1 = new FireOnceEvent(this.clock, START - 10, "event");
+		final FireOnceEvent event2 = new FireOnceEvent(this.clock, START - 10, "event");
+
+		this.store.put(event1);
+		this.store.put(event2);
+
+		assertTrue(this.store.remove(new FireOnceEvent(this.clock, START - 10, "event")));
+		assertEquals(1, this.store.size());
+		assertEquals(event1, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertFalse(this.store.remove(event2));
+		assertEquals(0, this.store.size());
+	}
+}
@@ -24,21 +24,43 @@
 package com.autodomum.core.event;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
-
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -74,6 +96,9 @@ public class EventComponentTest extends EventComponent {
 	@Mock
 	private Clock clock;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Override
 	public Date getNow() {
 		return now;
@@ -84,6 +109,42 @@ public class EventComponentTest extends EventComponent {
 		return calendar;
 	}
 
+	@Test
+	public void testUpdateEventContextKeepsConcurrentChanges() throws ParseException {
+		final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+		eventContext = spy(EventContext.class);
+		calendar = Calendar.getInstance();
+		now = dateFormat.parse("2016-04-05 12:30:05");
+
+		final Coordinate first = mock(Coordinate.class);
+		final Coordinate second = mock(Coordinate.class);
+		this.eventContext.setCoordinate(first);
+
+		this.setDaylight(daylight);
+		this.setHoliday(holiday);
+		this.setEventContext(eventContext);
+
+		final Date sunrise = dateFormat.parse("2016-04-05 06:37:08");
+		final Date sunset = dateFormat.parse("2016-04-05 18:38:09");
+
+		// The coordinate is changed while the first snapshot is computed
+		when(daylight.sunriseMillis(any(), anyLong())).thenAnswer(invocation -> {
+			if (invocation.getArguments()[0] == first) {
+				this.eventContext.setCoordinate(second);
+			}
+			return sunrise.getTime();
+		});
+		when(daylight.sunsetMillis(any(), anyLong())).thenReturn(sunset.getTime());
+
+		this.updateEventContext();
+
+		verify(eventContext, times(2)).compareAndSetSnapshot(any(), any());
+		verify(daylight, times(1)).sunriseMillis(second, now.getTime());
+		assertSame(second, eventContext.getSnapshot().getCoordinate());
+		assertTrue(eventContext.getSnapshot().isDaylight());
+	}
+
 	@Test
 	public void testUpdateEventContextPassedTodaysSunset() throws ParseException {
 		final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
@@ -102,8 +163,8 @@ public class EventComponentTest extends EventComponent {
 
 		Coordinate coordinate = mock(Coordinate.class);
 
-		when(this.eventContext.getCoordinate()).thenReturn(coordinate);
-		when(this.eventContext.isDaylight()).thenReturn(true);
+		this.eventContext.setCoordinate(coordinate);
+		this.eventContext.setDaylight(true);
 
 		this.setDaylight(daylight);
 		this.setHoliday(holiday);
@@ -115,19 +176,26 @@ public class EventComponentTest extends EventComponent {
 		Date sunsetTomorrow = dateFormat.parse("2016-04-06 18:40:03");
 
 		when(holiday.isHoliday(calendar)).thenReturn(true);
-		when(daylight.sunrise(coordinate, now)).thenReturn(sunriseToday);
-		when(daylight.sunset(coordinate, now)).thenReturn(sunsetToday);
-		when(daylight.sunrise(coordinate, tomorrow)).thenReturn(sunriseTomorrow);
-		when(daylight.sunset(coordinate, tomorrow)).thenReturn(sunsetTomorrow);
+		when(daylight.sunriseMillis(coordinate, now.getTime())).thenReturn(sunriseToday.getTime());
+		when(daylight.sunsetMillis(coordinate, now.getTime())).thenReturn(sunsetToday.getTime());
+		when(daylight.sunriseMillis(coordinate, tomorrow.getTime())).thenReturn(sunriseTomorrow.getTime());
+		when(daylight.sunsetMillis(coordinate, tomorrow.getTime())).thenReturn(sunsetTomorrow.getTime());
 
 		this.updateEventContext();
 
-		verify(eventContext, times(1)).setHoliday(true);
-		verify(eventContext, times(1)).setHour(22);
-		verify(eventContext, times(1)).setMinute(30);
-		verify(eventContext, times(1)).setNextSunrise(sunriseTomorrow.getTime());
-		verify(eventContext, times(1)).setNextSunset(sunsetTomorrow.getTime());
+		verify(eventContext, times(1)).compareAndSetSnapshot(any(), any());
+		final EventContextSnapshot snapshot = eventContext.getSnapshot();
+		assertSame(coordinate, snapshot.getCoordinate());
+		assertFalse(snapshot.isDaylight());
+		assertEquals(true, snapshot.isHoliday());
+		assertEquals(22, snapshot.getHour());
+		assertEquals(30, snapshot.getMinute());
+		assertEquals(sunriseTomorrow.getTime(), snapshot.getNextSunrise());
+		assertEquals(sunsetTomorrow.getTime(), snapshot.getNextSunset());
 		verify(sunriseCallback, times(0)).work(any(), any());
+		// The Date queries allocate, the millis queries do not when cached
+		verify(daylight, times(0)).sunrise(any(), any());
+		verify(daylight, times(0)).sunset(any(), any());
 		verify(sunsetCallback, times(1)).work(any(), any());
 	}
 
@@ -143,8 +211,8 @@ public class EventComponentTest extends EventComponent {
 
 		Coordinate coordinate = mock(Coordinate.class);
 
-		when(this.eventContext.getCoordinate()).thenReturn(coordinate);
-		when(this.eventContext.isDaylight()).thenReturn(false);
+		this.eventContext.setCoordinate(coordinate);
+		this.eventContext.setDaylight(false);
 
 		EventCallback sunriseCallback = spy(EventCallback.class);
 		EventCallback sunsetCallback = spy(EventCallback.class);
@@ -162,18 +230,22 @@ public class EventComponentTest extends EventComponent {
 		Date sunsetTomorrow = dateFormat.parse("2016-04-06 18:40:03");
 
 		when(holiday.isHoliday(calendar)).thenReturn(false);
-		when(daylight.sunrise(coordinate, now)).thenReturn(sunriseToday);
-		when(daylight.sunset(coordinate, now)).thenReturn(sunsetToday);
-		when(daylight.sunrise(coordinate, tomorrow)).thenReturn(sunriseTomorrow);
-		when(daylight.sunset(coordinate, tomorrow)).thenReturn(sunsetTomorrow);
+		when(daylight.sunriseMillis(coordinate, now.getTime())).thenReturn(sunriseToday.getTime());
+		when(daylight.sunsetMillis(coordinate, now.getTime())).thenReturn(sunsetToday.getTime());
+		when(daylight.sunriseMillis(coordinate, tomorrow.getTime())).thenReturn(sunriseTomorrow.getTime());
+		when(daylight.sunsetMillis(coordinate, tomorrow.getTime())).thenReturn(sunsetTomorrow.getTime());
 
 		this.updateEventContext();
 
-		verify(eventContext, times(1)).setHoliday(false);
-		verify(eventContext, times(1)).setHour(8);
-		verify(eventContext, times(1)).setMinute(30);
-		verify(eventContext, times(1)).setNextSunrise(sunriseTomorrow.getTime());
-		verify(eventContext, times(1)).setNextSunset(sunsetToday.getTime());
+		verify(eventContext, times(1)).compareAndSetSnapshot(any(), any());
+		final EventContextSnapshot snapshot = eventContext.getSnapshot();
+		assertSame(coordinate, snapshot.getCoordinate());
+		assertTrue(snapshot.isDaylight());
+		assertEquals(false, snapshot.isHoliday());
+		assertEquals(8, snapshot.getHour());
+		assertEquals(30, snapshot.getMinute());
+		assertEquals(sunriseTomorrow.getTime(), snapshot.getNextSunrise());
+		assertEquals(sunsetToday.getTime(), snapshot.getNextSunset());
 
 		verify(sunriseCallback, times(1)).work(any(), any());
 		verify(sunsetCallback, times(0)).work(any(), any());
@@ -191,8 +263,8 @@ public class EventComponentTest extends EventComponent {
 
 		Coordinate coordinate = mock(Coordinate.class);
 
-		when(this.eventContext.getCoordinate()).thenReturn(coordinate);
-		when(this.eventContext.isDaylight()).thenReturn(false);
+		this.eventContext.setCoordinate(coordinate);
+		this.eventContext.setDaylight(false);
 
 		EventCallback sunriseCallback = spy(EventCallback.class);
 		EventCallback sunsetCallback = spy(EventCallback.class);
@@ -210,18 +282,22 @@ public class EventComponentTest extends EventComponent {
 		Date sunsetTomorrow = dateFormat.parse("2016-04-06 18:40:03");
 
 		when(holiday.isHoliday(calendar)).thenReturn(false);
-		when(daylight.sunrise(coordinate, now)).thenReturn(sunriseToday);
-		when(daylight.sunset(coordinate, now)).thenReturn(sunsetToday);
-		when(daylight.sunrise(coordinate, tomorrow)).thenReturn(sunriseTomorrow);
-		when(daylight.sunset(coordinate, tomorrow)).thenReturn(sunsetTomorrow);
+		when(daylight.sunriseMillis(coordinate, now.getTime())).thenReturn(sunriseToday.getTime());
+		when(daylight.sunsetMillis(coordinate, now.getTime())).thenReturn(sunsetToday.getTime());
+		when(daylight.sunriseMillis(coordinate, tomorrow.getTime())).thenReturn(sunriseTomorrow.getTime());
+		when(daylight.sunsetMillis(coordinate, tomorrow.getTime())).thenReturn(sunsetTomorrow.getTime());
 
 		this.updateEventContext();
 
-		verify(eventContext, times(1)).setHoliday(false);
-		verify(eventContext, times(1)).setHour(4);
-		verify(eventContext, times(1)).setMinute(30);
-		verify(eventContext, times(1)).setNextSunrise(sunriseToday.getTime());
-		verify(eventContext, times(1)).setNextSunset(sunsetToday.getTime());
+		verify(eventContext, times(1)).compareAndSetSnapshot(any(), any());
+		final EventContextSnapshot snapshot = eventContext.getSnapshot();
+		assertSame(coordinate, snapshot.getCoordinate());
+		assertFalse(snapshot.isDaylight());
+		assertEquals(false, snapshot.isHoliday());
+		assertEquals(4, snapshot.getHour());
+		assertEquals(30, snapshot.getMinute());
+		assertEquals(sunriseToday.getTime(), snapshot.getNextSunrise());
+		assertEquals(sunsetToday.getTime(), snapshot.getNextSunset());
 
 		verify(sunriseCallback, times(0)).work(any(), any());
 		verify(sunsetCallback, times(0)).work(any(), any());
@@ -352,4 +428,574 @@ public class EventComponentTest extends EventComponent {
 	public void testAddDelayedNull() {
 		this.addDelayedEvent(null);
 	}
+
+	@Test
+	public void testCancelByName() {
+		when(clock.millis()).thenReturn(1000l);
+		this.setClock(clock);
+
+		this.registerEventOnce(10000, "name1");
+		this.registerEventOnce(20000, "name1");
+		this.registerEventOnce(30000, "name2");
+
+		assertEquals(2, this.cancel("name1"));
+		assertEquals(0, this.cancel("name1"));
+		assertEquals(1, this.delayedEvents.size());
+		assertEquals("name2", ((FireOnceEvent) this.delayedEvents.element()).getName());
+	}
+
+	@Test
+	public void testCancelByHandle() {
+		when(clock.millis()).thenReturn(1000l);
+		this.setClock(clock);
+
+		final FireOnceEvent event1 = this.registerEventOnce(10000, "name1");
+		final FireOnceEvent event2 = this.registerEventOnce(20000, "name1");
+
+		assertTrue(this.cancel(event1));
+		assertFalse(this.cancel(event1));
+		assertEquals(1, this.delayedEvents.size());
+		assertSame(event2, this.delayedEvents.element());
+		assertEquals(1, this.cancel("name1"));
+	}
+
+	@Test
+	public void testCancelByEqualHandle() throws IOException {
+		when(clock.millis()).thenReturn(1000l);
+		this.setClock(clock);
+		this.setEventContext(new EventContext(clock));
+		this.setJournal(new EventJournal(this.folder.getRoot().toPath()));
+		this.recover();
+
+		this.registerEventOnce(10000, "name1");
+
+		assertTrue(this.cancel(new FireOnceEvent(clock, 11000, "name1")));
+		assertEquals(0, this.delayedEvents.size());
+		assertEquals(0, this.cancel("name1"));
+
+		this.getJournal().setCompactThreshold(1);
+		this.compactJournal();
+		this.getJournal().close();
+
+		try (final EventJournal journal = new EventJournal(this.folder.getRoot().toPath())) {
+			assertTrue(journal.recover().getEvents().isEmpty());
+		}
+	}
+
+	@Test
+	public void testReplace() {
+		when(clock.millis()).thenReturn(1000l);
+		this.setClock(clock);
+
+		this.registerEventOnce(10000, "name1");
+		this.registerEventOnce(20000, "name1");
+		final FireOnceEvent event = this.replaceEventOnce(5000, "name1");
+
+		assertEquals(6000, event.getTimestamp());
+		assertEquals(1, this.delayedEvents.size());
+		assertSame(event, this.delayedEvents.element());
+	}
+
+	@Test
+	public void testReplaceEventOnceTomorrow() throws ParseException {
+		DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+		this.calendar = Calendar.getInstance();
+		this.calendar.setTime(dateFormat.parse("2016-04-04 22:59:12"));
+		this.registerEventOnceTomorrow(10, 12, "name1");
+
+		this.calendar = Calendar.getInstance();
+		this.calendar.setTime(dateFormat.parse("2016-04-04 22:59:12"));
+		final FireOnceEvent event = this.replaceEventOnceTomorrow(11, 13, "name1");
+
+		assertEquals(dateFormat.parse("2016-04-05 11:13:00").getTime(), event.getTimestamp());
+		assertEquals(1, this.delayedEvents.size());
+	}
+
+	@Test
+	public void testFiredEventIsNotCancelled() throws InterruptedException {
+		when(clock.millis()).thenReturn(1000l);
+		this.setClock(clock);
+		this.setEventContext(eventContext);
+
+		this.registerEventOnce(0, "name1");
+		this.handleDelayedEvent();
+
+		assertEquals(0, this.cancel("name1"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCancelNameEmpty() {
+		this.cancel("");
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testCancelNull() {
+		this.cancel((DelayedEvent) null);
+	}
+
+	@Test
+	public void testPublishAsynchronousInOrder() throws InterruptedException {
+		final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch done = new CountDownLatch(100);
+		final ExecutorService executor = DispatchExecutors.newFixedDispatchExecutor(4);
+
+		try {
+			this.setEventContext(eventContext);
+			this.register(FireOnceEvent.class, (context, event) -> {
+				events.add(event);
+				done.countDown();
+			}, executor);
+
+			final List<Event> published = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				final FireOnceEvent event = new FireOnceEvent(clock, i, "event" + i);
+				published.add(event);
+				this.publish(event);
+			}
+
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			assertEquals(published, events);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testPublishAsynchronousDoesNotBlock() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+
+		this.setEventContext(eventContext);
+		this.setDispatchExecutor(DispatchExecutors.newFixedDispatchExecutor(1));
+		this.setDispatchPolicy(DispatchPolicy.ASYNCHRONOUS);
+		this.register(StartupEvent.class, (context, event) -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+			}
+			done.countDown();
+		});
+
+		this.publish(new StartupEvent());
+		assertEquals(1, done.getCount());
+
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testPublishAsynchronousCallbackFailure() throws InterruptedException {
+		final CountDownLatch done = new CountDownLatch(1);
+
+		this.setEventContext(eventContext);
+		this.register(StartupEvent.class, (context, event) -> {
+			throw new IllegalStateException("Failure");
+		}, DispatchPolicy.ASYNCHRONOUS);
+		this.register(StartupEvent.class, (context, event) -> done.countDown(), DispatchPolicy.ASYNCHRONOUS);
+
+		this.publish(new StartupEvent());
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testPublishAsynchronousCallbackError() throws InterruptedException {
+		final CountDownLatch second = new CountDownLatch(1);
+		final CountDownLatch third = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+
+		this.setEventContext(eventContext);
+		this.register(StartupEvent.class, (context, event) -> {
+			final int call = calls.incrementAndGet();
+			if (call == 1) {
+				throw new StackOverflowError("Failure");
+			}
+			(call == 2 ? second : third).countDown();
+		}, DispatchPolicy.ASYNCHRONOUS);
+
+		this.publish(new StartupEvent());
+		this.publish(new StartupEvent());
+		assertTrue(second.await(5, TimeUnit.SECONDS));
+
+		this.publish(new StartupEvent());
+		assertTrue(third.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testPublishAsynchronousOverflow() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch started = new CountDownLatch(1);
+		final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+		final ExecutorService executor = DispatchExecutors.newFixedDispatchExecutor(1);
+
+		try {
+			this.setEventContext(eventContext);
+			this.setDispatchQueueLimit(1, OverflowPolicy.DROP_NEWEST);
+			this.register(FireOnceEvent.class, (context, event) -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+				}
+				events.add(event);
+			}, executor);
+
+			final FireOnceEvent first = new FireOnceEvent(clock, 0, "first");
+			this.publish(first);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			final FireOnceEvent second = new FireOnceEvent(clock, 0, "second");
+			this.publish(second);
+			this.publish(new FireOnceEvent(clock, 0, "third"));
+			assertEquals(1, this.getDispatchOverflowCount());
+
+			release.countDown();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+			assertEquals(2, events.size());
+			assertSame(first, events.get(0));
+			assertSame(second, events.get(1));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testPublishAsynchronousBlockToItself() throws InterruptedException {
+		final CountDownLatch done = new CountDownLatch(1);
+		final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+		final ExecutorService executor = DispatchExecutors.newFixedDispatchExecutor(1);
+
+		try {
+			this.setEventContext(eventContext);
+			this.setDispatchQueueLimit(1, OverflowPolicy.BLOCK);
+			this.register(FireOnceEvent.class, (context, event) -> {
+				events.add(event);
+				if ("first".equals(((FireOnceEvent) event).getName())) {
+					// The second event fills the queue, the third would wait
+					// for this callback to make room
+					this.publish(new FireOnceEvent(clock, 0, "second"));
+					this.publish(new FireOnceEvent(clock, 0, "third"));
+					done.countDown();
+				}
+			}, executor);
+
+			this.publish(new FireOnceEvent(clock, 0, "first"));
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+			assertEquals(2, events.size());
+			assertEquals("second", ((FireOnceEvent) events.get(1)).getName());
+			assertEquals(1, this.getDispatchOverflowCount());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testDelayedEventLimitRejects() {
+		this.setClock(clock);
+		this.setDelayedEventLimit(1, OverflowPolicy.DROP_NEWEST);
+
+		final FireOnceEvent first = this.registerEventOnce(1000, "a");
+		assertNull(this.registerEventOnce(2000, "a"));
+		assertNull(this.replaceEventOnce(3000, "b"));
+
+		assertEquals(2, this.getRejectedDelayedEventCount());
+		assertEquals(1, this.delayedEvents.size());
+		assertSame(first, this.delayedEvents.element());
+		assertEquals(0, this.cancel("b"));
+
+		// Replacing a pending name is not limited
+		final FireOnceEvent replaced = this.replaceEventOnce(4000, "a");
+		assertNotNull(replaced);
+		assertSame(replaced, this.delayedEvents.element());
+	}
+
+	@Test
+	public void testDelayedEventLimitCoalesces() {
+		this.setClock(clock);
+		this.setDelayedEventLimit(1, OverflowPolicy.COALESCE);
+
+		this.registerEventOnce(1000, "a");
+		final FireOnceEvent latest = this.registerEventOnce(2000, "a");
+
+		assertEquals(1, this.delayedEvents.size());
+		assertSame(latest, this.delayedEvents.element());
+		assertEquals(0, this.getRejectedDelayedEventCount());
+
+		this.registerEventOnce(1000, "b");
+		assertEquals(1, this.getRejectedDelayedEventCount());
+		assertSame(latest, this.delayedEvents.element());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDelayedEventLimitUnsupportedPolicy() {
+		this.setDelayedEventLimit(1, OverflowPolicy.BLOCK);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testRegisterNullDispatchPolicy() {
+		this.register(Event.class, (a, b) -> {
+		}, (DispatchPolicy) null);
+	}
+
+	@Test
+	public void testPublishToSuperTypes() {
+		final EventCallback eventCallback = spy(EventCallback.class);
+		final EventCallback delayedCallback = spy(EventCallback.class);
+		final EventCallback fireOnceCallback = spy(EventCallback.class);
+
+		this.setEventContext(eventContext);
+		this.register(Event.class, eventCallback);
+		this.register(DelayedEvent.class, delayedCallback);
+		this.register(FireOnceEvent.class, fireOnceCallback);
+
+		final StartupEvent startupEvent = new StartupEvent();
+		final FireOnceEvent fireOnceEvent = new FireOnceEvent(clock, 1, "value1");
+
+		this.publish(startupEvent);
+		this.publish(fireOnceEvent);
+
+		verify(eventCallback, times(1)).work(eventContext, startupEvent);
+		verify(eventCallback, times(1)).work(eventContext, fireOnceEvent);
+		verify(delayedCallback, times(0)).work(eventContext, startupEvent);
+		verify(delayedCallback, times(1)).work(eventContext, fireOnceEvent);
+		verify(fireOnceCallback, times(1)).work(eventContext, fireOnceEvent);
+	}
+
+	@Test
+	public void testPublishAfterUnregisterSuperType() {
+		final EventCallback eventCallback = spy(EventCallback.class);
+		final StartupEvent startupEvent = new StartupEvent();
+
+		this.setEventContext(eventContext);
+		this.register(Event.class, eventCallback);
+		this.publish(startupEvent);
+		this.unregister(Event.class, eventCallback);
+		this.publish(startupEvent);
+
+		verify(eventCallback, times(1)).work(eventContext, startupEvent);
+
+		this.register(StartupEvent.class, eventCallback);
+		this.publish(startupEvent);
+
+		verify(eventCallback, times(2)).work(eventContext, startupEvent);
+	}
+
+	@Test
+	public void testGetTimeoutPolling() {
+		assertEquals(SchedulerMode.POLLING, this.getSchedulerMode());
+		assertEquals(1000, this.getTimeout());
+	}
+
+	@Test
+	public void testGetTimeoutNextMinute() {
+		when(clock.millis()).thenReturn(600000l + 15000l);
+		when(eventContext.getNextSunrise()).thenReturn(900000l);
+		when(eventContext.getNextSunset()).thenReturn(500000l);
+
+		this.setClock(clock);
+		this.setEventContext(eventContext);
+		this.setSchedulerMode(SchedulerMode.EVENT_DRIVEN);
+
+		assertEquals(45000, this.getTimeout());
+	}
+
+	@Test
+	public void testGetTimeoutNextSunset() {
+		when(clock.millis()).thenReturn(600000l + 15000l);
+		when(eventContext.getNextSunrise()).thenReturn(900000l);
+		when(eventContext.getNextSunset()).thenReturn(625000l);
+
+		this.setClock(clock);
+		this.setEventContext(eventContext);
+		this.setSchedulerMode(SchedulerMode.EVENT_DRIVEN);
+
+		assertEquals(10001, this.getTimeout());
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testSetSchedulerModeNull() {
+		this.setSchedulerMode(null);
+	}
+
+	@Test
+	public void testHandleDelayedEventWakesOnEarlierEvent() throws InterruptedException {
+		final EventCallback eventCallback1 = spy(EventCallback.class);
+		when(clock.millis()).thenReturn(600000l + 1000l);
+
+		this.register(FireOnceEvent.class, eventCallback1);
+		this.setClock(clock);
+		this.setEventContext(eventContext);
+		this.setSchedulerMode(SchedulerMode.EVENT_DRIVEN);
+
+		final Thread thread = new Thread(() -> {
+			try {
+				this.handleDelayedEvent();
+			} catch (InterruptedException e) {
+			}
+		});
+		thread.start();
+		Thread.sleep(100);
+
+		final FireOnceEvent fireOnceEvent = new FireOnceEvent(clock, 600000l + 1000l, "value1");
+		this.addDelayedEvent(fireOnceEvent);
+
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		verify(eventCallback1, times(1)).work(eventContext, fireOnceEvent);
+	}
+
+	@Test
+	public void testJournal() throws IOException, InterruptedException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Clock fixedClock = Clock.fixed(Instant.ofEpochMilli(1000000), ZoneOffset.UTC);
+
+		final EventComponent first = new EventComponent();
+		final EventContext firstContext = new EventContext(fixedClock);
+		first.setClock(fixedClock);
+		first.setEventContext(firstContext);
+		first.setJournal(new EventJournal(directory));
+
+		// Not recorded before recovery
+		first.registerEventOnce(10, "beforeRecovery");
+		first.recover();
+		first.cancel("beforeRecovery");
+
+		firstContext.addAttribute("text", "value");
+		firstContext.getSlots().put(firstContext.getSlots().register("counter"), 3);
+		first.registerEventOnce(1000, "later");
+		first.registerEventOnce(2000, "later");
+		first.replaceEventOnce(3000, "replaced");
+		first.replaceEventOnce(4000, "replaced");
+		first.registerEventOnce(5000, "cancelled");
+		first.cancel("cancelled");
+
+		// Slots are only persisted by snapshots
+		first.getJournal().setCompactThreshold(1);
+		first.compactJournal();
+		assertEquals(0, first.getJournal().getRecordCount());
+		first.getJournal().close();
+
+		final EventComponent second = new EventComponent();
+		final EventContext secondContext = new EventContext(fixedClock);
+		second.setClock(fixedClock);
+		second.setEventContext(secondContext);
+		second.setJournal(new EventJournal(directory));
+		second.recover();
+
+		assertEquals("value", secondContext.getAttribute("text"));
+		assertEquals(3, secondContext.getSlots().get(secondContext.getSlots().indexOf("counter")));
+		assertEquals(3, second.getDelayedEventStore().size());
+
+		final List<FireOnceEvent> events = new ArrayList<>();
+		while (second.getDelayedEventStore().size() > 0) {
+			events.add((FireOnceEvent) second.getDelayedEventStore().element());
+			second.getDelayedEventStore().remove(second.getDelayedEventStore().element());
+		}
+		assertEquals(new FireOnceEvent(fixedClock, 1001000, "later"), events.get(0));
+		assertEquals(new FireOnceEvent(fixedClock, 1002000, "later"), events.get(1));
+		assertEquals(new FireOnceEvent(fixedClock, 1004000, "replaced"), events.get(2));
+		second.getJournal().close();
+	}
+
+	@Test
+	public void testJournalRecoveryOverLimit() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Clock fixedClock = Clock.fixed(Instant.ofEpochMilli(1000000), ZoneOffset.UTC);
+
+		try (final EventJournal journal = new EventJournal(directory)) {
+			journal.recover();
+			journal.scheduled("a", 1001000);
+			journal.scheduled("b", 1002000);
+		}
+
+		final EventComponent component = new EventComponent();
+		component.setClock(fixedClock);
+		component.setEventContext(new EventContext(fixedClock));
+		component.setDelayedEventLimit(1, OverflowPolicy.DROP_NEWEST);
+		component.setJournal(new EventJournal(directory));
+		component.recover();
+
+		assertEquals(1, component.getDelayedEventStore().size());
+		assertEquals(1, component.getRejectedDelayedEventCount());
+		component.getJournal().close();
+	}
+
+	@Test
+	public void testJournalRecoveryFailure() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Clock fixedClock = Clock.fixed(Instant.ofEpochMilli(1000000), ZoneOffset.UTC);
+
+		// The snapshot can not be written
+		Files.createDirectories(directory.resolve("snapshot.json.tmp"));
+
+		final EventComponent component = new EventComponent();
+		final EventContext context = new EventContext(fixedClock);
+		component.setClock(fixedClock);
+		component.setEventContext(context);
+		component.setJournal(new EventJournal(directory));
+		component.recover();
+
+		// Not recorded, and the journal has been closed
+		context.addAttribute("text", "value");
+		component.registerEventOnce(1000, "event");
+		component.getJournal().attributeChanged("text", "value");
+		assertEquals(0, component.getJournal().getRecordCount());
+		assertEquals(0, Files.size(directory.resolve("journal.log")));
+	}
+
+	@Test
+	public void testJournalConcurrentReplaces() throws Exception {
+		final Clock fixedClock = Clock.fixed(Instant.ofEpochMilli(1000000), ZoneOffset.UTC);
+
+		for (int trial = 0; trial < 10; trial++) {
+			final Path directory = this.folder.newFolder().toPath();
+			final EventComponent component = new EventComponent();
+			component.setClock(fixedClock);
+			component.setEventContext(new EventContext(fixedClock));
+			component.setJournal(new EventJournal(directory) {
+				@Override
+				public long replaced(final String name, final long timestamp) {
+					// Widen the window between the change and its record
+					try {
+						Thread.sleep(5);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return super.replaced(name, timestamp);
+				}
+			});
+			component.recover();
+
+			final CyclicBarrier barrier = new CyclicBarrier(4);
+			final Thread[] threads = new Thread[4];
+			for (int i = 0; i < threads.length; i++) {
+				final int thread = i;
+				threads[i] = new Thread(() -> {
+					try {
+						barrier.await();
+					} catch (InterruptedException | BrokenBarrierException e) {
+						return;
+					}
+					component.replaceEventOnce(1000 + thread, "replaced");
+				});
+				threads[i].start();
+			}
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+
+			// Replay the journal without compacting it
+			final FireOnceEvent pending = (FireOnceEvent) component.getDelayedEventStore().element();
+			component.getJournal().close();
+
+			try (final EventJournal journal = new EventJournal(directory)) {
+				assertEquals(Collections.singleton(pending.getTimestamp()),
+						journal.recover().getEvents().get("replaced"));
+			}
+		}
+	}
 }
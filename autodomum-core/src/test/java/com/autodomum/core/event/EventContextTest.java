@@ -32,9 +32,9 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import java.security.SecureRandom;
 import java.time.Clock;
 import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -134,10 +134,32 @@ public class EventContextTest {
 		assertNull(eventContext.getAttributeAsString("key3"));
 	}
 
+	@Test
+	public void testSlots() {
+		final int index = eventContext.getSlots().register("counter");
+		eventContext.getSlots().increment(index);
+
+		assertEquals(1, eventContext.getSlots().get(eventContext.getSlots().indexOf("counter")));
+	}
+
 	@Test
 	public void testGetRandom() {
 		assertNotNull(eventContext.getRandom());
-		assertTrue(eventContext.getRandom() instanceof SecureRandom);
+		assertSame(ThreadLocalRandom.current(), eventContext.getRandom());
+	}
+
+	@Test
+	public void testRandomSource() {
+		eventContext.setRandomSource(RandomSources.seeded(1337));
+		final int first = eventContext.getRandom().nextInt(1000);
+
+		eventContext.setRandomSource(RandomSources.seeded(1337));
+		assertEquals(first, eventContext.getRandom().nextInt(1000));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testRandomSourceNull() {
+		eventContext.setRandomSource(null);
 	}
 
 	@Test
@@ -170,6 +192,34 @@ public class EventContextTest {
 		assertFalse(eventContext.isHoliday());
 	}
 
+	@Test
+	public void testSnapshot() {
+		final Coordinate coordinate = new Coordinate(123, 321);
+		final EventContextSnapshot snapshot = new EventContextSnapshot(coordinate, true, 1, 2, 3, 4, true);
+
+		assertSame(EventContextSnapshot.EMPTY, eventContext.getSnapshot());
+
+		eventContext.setSnapshot(snapshot);
+		assertSame(snapshot, eventContext.getSnapshot());
+		assertSame(coordinate, eventContext.getCoordinate());
+		assertTrue(eventContext.isDaylight());
+		assertEquals(1, eventContext.getNextSunrise());
+		assertEquals(2, eventContext.getNextSunset());
+		assertEquals(3, eventContext.getHour());
+		assertEquals(4, eventContext.getMinute());
+		assertTrue(eventContext.isHoliday());
+
+		eventContext.setHour(5);
+		assertEquals(3, snapshot.getHour());
+		assertEquals(5, eventContext.getSnapshot().getHour());
+		assertEquals(4, eventContext.getSnapshot().getMinute());
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testSnapshotNull() {
+		eventContext.setSnapshot(null);
+	}
+
 	@Test
 	public void testLampDao() {
 		final LampDao lampDao = mock(LampDao.class);
@@ -0,0 +1,221 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test of the <code>EventJournal</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class EventJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	@Before
+	public void before() {
+		this.directory = this.folder.getRoot().toPath().resolve("journal");
+	}
+
+	@Test
+	public void testRecoverEmpty() throws IOException {
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			final EventJournal.State state = journal.recover();
+
+			assertTrue(state.getAttributes().isEmpty());
+			assertTrue(state.getSlots().isEmpty());
+			assertTrue(state.getEvents().isEmpty());
+		}
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			journal.recover();
+			journal.attributeChanged("text", "value");
+			journal.attributeChanged("long", 12345678901L);
+			journal.attributeChanged("int", 42);
+			journal.attributeChanged("flag", true);
+			journal.attributeChanged("removed", "value");
+			journal.attributeChanged("removed", null);
+			journal.attributeChanged("object", new Object());
+
+			journal.scheduled("a", 1000);
+			journal.scheduled("a", 2000);
+			journal.scheduled("a", 3000);
+			journal.removed("a", 1000);
+			journal.scheduled("b", 1000);
+			journal.scheduled("b", 2000);
+			journal.replaced("b", 5000);
+			journal.scheduled("c", 1000);
+			journal.cancelled("c");
+			journal.scheduled("d", 1000);
+			journal.removed("d", 1000);
+
+			assertEquals(17, journal.getRecordCount());
+		}
+
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			final EventJournal.State state = journal.recover();
+
+			assertEquals("value", state.getAttributes().get("text"));
+			assertEquals(12345678901L, state.getAttributes().get("long"));
+			assertEquals(42, state.getAttributes().get("int"));
+			assertEquals(true, state.getAttributes().get("flag"));
+			assertEquals(new HashSet<>(Arrays.asList("text", "long", "int", "flag")), state.getAttributes().keySet());
+
+			assertEquals(new TreeSet<>(Arrays.asList(2000L, 3000L)), state.getEvents().get("a"));
+			assertEquals(Collections.singleton(5000L), state.getEvents().get("b"));
+			assertEquals(new HashSet<>(Arrays.asList("a", "b")), state.getEvents().keySet());
+			assertEquals(17, journal.getRecordCount());
+		}
+	}
+
+	@Test
+	public void testConcurrentAppends() throws IOException, InterruptedException {
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			journal.recover();
+
+			final Thread[] threads = new Thread[4];
+			for (int i = 0; i < threads.length; i++) {
+				final String name = "event" + i;
+				threads[i] = new Thread(() -> {
+					for (int j = 0; j < 100; j++) {
+						journal.scheduled(name, j);
+					}
+				});
+				threads[i].start();
+			}
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+
+			assertEquals(400, journal.getRecordCount());
+		}
+
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			final EventJournal.State state = journal.recover();
+
+			assertEquals(4, state.getEvents().size());
+			for (final Set<Long> times : state.getEvents().values()) {
+				assertEquals(100, times.size());
+			}
+		}
+	}
+
+	@Test
+	public void testCompact() throws IOException {
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			journal.setCompactThreshold(2);
+			journal.recover();
+			journal.scheduled("a", 1000);
+			assertFalse(journal.isCompactionDue());
+			journal.attributeChanged("text", "value");
+			assertTrue(journal.isCompactionDue());
+
+			journal.compact(() -> {
+				final EventJournal.State state = new EventJournal.State();
+				state.getAttributes().put("text", "value");
+				state.getSlots().put("counter", 7L);
+				state.schedule("a", 1000);
+				return state;
+			});
+			assertEquals(0, journal.getRecordCount());
+			assertEquals(0, Files.size(this.directory.resolve("journal.log")));
+			assertFalse(Files.exists(this.directory.resolve("snapshot.json.tmp")));
+
+			journal.removed("a", 1000);
+			journal.scheduled("b", 2000);
+			// Already part of the snapshot, replaying it again is harmless
+			journal.attributeChanged("text", "value");
+		}
+
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			final EventJournal.State state = journal.recover();
+
+			assertEquals(Collections.singletonMap("text", "value"), state.getAttributes());
+			assertEquals(Collections.singletonMap("counter", 7L), state.getSlots());
+			assertEquals(Collections.singletonMap("b", Collections.singleton(2000L)), state.getEvents());
+			assertEquals(3, journal.getRecordCount());
+		}
+	}
+
+	@Test
+	public void testTornRecord() throws IOException {
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			journal.recover();
+			journal.scheduled("a", 1000);
+		}
+
+		Files.write(this.directory.resolve("journal.log"), "{\"op\":\"schedule\",\"na".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			final EventJournal.State state = journal.recover();
+
+			assertEquals(Collections.singletonMap("a", Collections.singleton(1000L)), state.getEvents());
+		}
+	}
+
+	@Test
+	public void testNotRecovered() throws IOException {
+		try (final EventJournal journal = new EventJournal(this.directory)) {
+			journal.scheduled("a", 1000);
+			assertEquals(0, journal.getRecordCount());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCompactThreshold() {
+		new EventJournal(this.directory).setCompactThreshold(0);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullDirectory() {
+		new EventJournal(null);
+	}
+}
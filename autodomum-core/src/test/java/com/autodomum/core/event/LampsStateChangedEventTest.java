@@ -0,0 +1,116 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.autodomum.core.model.Lamp;
+
+/**
+ * Test of the <code>LampsStateChangedEvent</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LampsStateChangedEventTest {
+
+	private LampsStateChangedEvent lampsStateChangedEvent1;
+	private LampsStateChangedEvent lampsStateChangedEvent1b;
+	private LampsStateChangedEvent lampsStateChangedEvent2;
+
+	@Mock
+	private Lamp lamp1;
+
+	@Mock
+	private Lamp lamp2;
+
+	@Before
+	public void before() {
+		lampsStateChangedEvent1 = new LampsStateChangedEvent(Arrays.asList(lamp1, lamp2));
+		lampsStateChangedEvent1b = new LampsStateChangedEvent(Arrays.asList(lamp1, lamp2));
+		lampsStateChangedEvent2 = new LampsStateChangedEvent(Arrays.asList(lamp2));
+
+		when(lamp1.toString()).thenReturn("Lamp1");
+		when(lamp2.toString()).thenReturn("Lamp2");
+	}
+
+	@Test
+	public void testHashCode() {
+		assertEquals(lampsStateChangedEvent1.hashCode(), lampsStateChangedEvent1b.hashCode());
+		assertNotEquals(lampsStateChangedEvent1.hashCode(), lampsStateChangedEvent2.hashCode());
+	}
+
+	@Test
+	public void testEqualsObject() {
+		assertTrue(lampsStateChangedEvent1.equals(lampsStateChangedEvent1));
+		assertTrue(lampsStateChangedEvent1.equals(lampsStateChangedEvent1b));
+		assertFalse(lampsStateChangedEvent1.equals(lampsStateChangedEvent2));
+		assertFalse(lampsStateChangedEvent1.equals(null));
+		assertFalse(lampsStateChangedEvent1.equals(new Object()));
+	}
+
+	@Test
+	public void testGetLamps() {
+		assertEquals(Arrays.asList(lamp1, lamp2), lampsStateChangedEvent1.getLamps());
+	}
+
+	@Test
+	public void testGetLampsIsCopy() {
+		final List<Lamp> lamps = new ArrayList<>(Arrays.asList(lamp1));
+		final LampsStateChangedEvent event = new LampsStateChangedEvent(lamps);
+		lamps.add(lamp2);
+
+		assertEquals(Arrays.asList(lamp1), event.getLamps());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testGetLampsUnmodifiable() {
+		lampsStateChangedEvent1.getLamps().add(lamp1);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNull() {
+		new LampsStateChangedEvent(null);
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals("LampsStateChangedEvent [lamps=[Lamp1, Lamp2]]", lampsStateChangedEvent1.toString());
+	}
+}
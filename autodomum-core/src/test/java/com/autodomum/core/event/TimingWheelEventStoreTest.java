@@ -0,0 +1,217 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * Test of the <code>TimingWheelEventStore</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TimingWheelEventStoreTest {
+
+	private static final long START = 1459807200000l;
+
+	@Mock
+	private Clock clock;
+
+	private TimingWheelEventStore store;
+
+	@Before
+	public void before() {
+		when(clock.millis()).thenReturn(START);
+		this.store = new TimingWheelEventStore(clock, 1);
+	}
+
+	@Test
+	public void testPollExpired() throws InterruptedException {
+		final FireOnceEvent event = new FireOnceEvent(clock, START, "event1");
+
+		this.store.put(event);
+		assertEquals(1, this.store.size());
+		assertSame(event, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertEquals(0, this.store.size());
+		assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testPollNotExpired() throws InterruptedException {
+		final FireOnceEvent event = new FireOnceEvent(clock, START + 100, "event1");
+
+		this.store.put(event);
+		when(clock.millis()).thenReturn(START + 99);
+		assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+		when(clock.millis()).thenReturn(START + 100);
+		assertSame(event, this.store.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testAllLevels() throws InterruptedException {
+		final long[] delays = { 5, 100, 5000, 400000, 2 * 86400000l, 5 * 365 * 86400000l };
+
+		for (final long delay : delays) {
+			this.store.put(new FireOnceEvent(clock, START + delay, "event" + delay));
+		}
+
+		for (final long delay : delays) {
+			when(clock.millis()).thenReturn(START + delay - 1);
+			assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+
+			when(clock.millis()).thenReturn(START + delay);
+			final FireOnceEvent event = (FireOnceEvent) this.store.poll(0, TimeUnit.MILLISECONDS);
+			assertEquals("event" + delay, event.getName());
+		}
+
+		assertEquals(0, this.store.size());
+	}
+
+	@Test
+	public void testRandomDeadlines() throws InterruptedException {
+		final Random random = new Random(1337);
+		final TimingWheelEventStore coarseStore = new TimingWheelEventStore(clock, 10);
+
+		for (int i = 0; i < 10000; i++) {
+			final long delay = random.nextInt(3) == 0 ? random.nextInt(1000) : random.nextInt(200000000);
+			coarseStore.put(new FireOnceEvent(clock, START + delay, "event" + i));
+		}
+
+		long now = START;
+		long last = 0;
+		int count = 0;
+		while (count < 10000) {
+			now += random.nextInt(100000);
+			when(clock.millis()).thenReturn(now);
+
+			FireOnceEvent event;
+			while ((event = (FireOnceEvent) coarseStore.poll(0, TimeUnit.MILLISECONDS)) != null) {
+				assertTrue(event.getTimestamp() <= now);
+				assertTrue((event.getTimestamp() + 9) / 10 >= (last + 9) / 10);
+				last = event.getTimestamp();
+				count++;
+			}
+
+			assertEquals(10000 - count, coarseStore.size());
+		}
+	}
+
+	@Test
+	public void testRemove() throws InterruptedException {
+		final FireOnceEvent event1 = new FireOnceEvent(clock, START + 100, "event1");
+		final FireOnceEvent event2 = new FireOnceEvent(clock, START + 200, "event2");
+
+		this.store.put(event1);
+		this.store.put(event2);
+
+		assertTrue(this.store.remove(event1));
+		assertFalse(this.store.remove(event1));
+		assertEquals(1, this.store.size());
+
+		when(clock.millis()).thenReturn(START + 1000);
+		assertSame(event2, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testDuplicate() throws InterruptedException {
+		final FireOnceEvent event = new FireOnceEvent(clock, START + 100, "event1");
+
+		this.store.put(event);
+		this.store.put(event);
+		assertEquals(2, this.store.size());
+
+		when(clock.millis()).thenReturn(START + 100);
+		assertSame(event, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertSame(event, this.store.poll(0, TimeUnit.MILLISECONDS));
+		assertNull(this.store.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testElement() {
+		final FireOnceEvent event1 = new FireOnceEvent(clock, START + 5000, "event1");
+		final FireOnceEvent event2 = new FireOnceEvent(clock, START + 200, "event2");
+
+		this.store.put(event1);
+		this.store.put(event2);
+
+		assertSame(event2, this.store.element());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testElementEmpty() {
+		this.store.element();
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testPutNull() {
+		this.store.put(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidTick() {
+		new TimingWheelEventStore(clock, 0);
+	}
+
+	@Test
+	public void testPollWakesOnEarlierEvent() throws InterruptedException {
+		final List<DelayedEvent> events = new ArrayList<>();
+		this.store.put(new FireOnceEvent(clock, START + 3600000, "later"));
+
+		final Thread thread = new Thread(() -> {
+			try {
+				events.add(this.store.poll(1, TimeUnit.MINUTES));
+			} catch (InterruptedException e) {
+			}
+		});
+		thread.start();
+		Thread.sleep(100);
+
+		final FireOnceEvent event = new FireOnceEvent(clock, START, "now");
+		this.store.put(event);
+
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		assertSame(event, events.get(0));
+	}
+}
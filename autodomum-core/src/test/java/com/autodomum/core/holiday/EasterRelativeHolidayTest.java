@@ -0,0 +1,67 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.junit.Test;
+
+/**
+ * Test of the <code>EasterRelativeHoliday</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class EasterRelativeHolidayTest {
+
+	@Test
+	public void testEasterSunday() {
+		assertEaster(2016, Calendar.MARCH, 27);
+		assertEaster(2019, Calendar.APRIL, 21);
+		assertEaster(2016, Calendar.MARCH, 27);
+		assertEaster(2038, Calendar.APRIL, 25);
+		assertEaster(1818, Calendar.MARCH, 22);
+		assertEaster(2000, Calendar.APRIL, 23);
+	}
+
+	@Test
+	public void testOffset() {
+		final EasterRelativeHoliday holiday = new EasterRelativeHoliday(-47) {
+		};
+
+		assertEquals(-47, holiday.getOffset());
+		assertTrue(holiday.isHoliday(new GregorianCalendar(2016, Calendar.FEBRUARY, 9)));
+		assertFalse(holiday.isHoliday(new GregorianCalendar(2016, Calendar.FEBRUARY, 10)));
+		assertTrue(holiday.isHoliday(new GregorianCalendar(2017, Calendar.FEBRUARY, 28)));
+	}
+
+	private static void assertEaster(final int year, final int month, final int dayOfMonth) {
+		assertEquals(HolidayCalendar.dayOfYear(year, month, dayOfMonth), EasterRelativeHoliday.easterSunday(year));
+	}
+}
@@ -0,0 +1,196 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Test of the <code>HolidayCalendar</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class HolidayCalendarTest {
+
+	private Holiday[] holidays;
+
+	private HolidayCalendar holidayCalendar;
+
+	@Before
+	public void before() {
+		this.holidays = new Holiday[] { new AscensionDay(), new BoxingDay26(), new BoxingDay27(), new ChristmasDay(),
+				new ChristmasEve(), new EasterMonday(), new EasterSunday(), new Epiphany(), new FirstOfMay(),
+				new GoodFriday(), new NewYearsDay(), new NewYearsEve(), new WhitMonday(), new WhitsunDay() };
+		this.holidayCalendar = new HolidayCalendar(this.holidays);
+	}
+
+	@Test
+	public void testSameAsRules() {
+		final GregorianCalendar calendar = new GregorianCalendar(1999, Calendar.JANUARY, 1);
+
+		while (calendar.get(Calendar.YEAR) < 2031) {
+			boolean expected = false;
+			for (final Holiday holiday : this.holidays) {
+				expected |= holiday.isHoliday(calendar);
+			}
+
+			assertEquals(calendar.getTime().toString(), expected, this.holidayCalendar.isHoliday(calendar));
+			calendar.add(Calendar.DATE, 1);
+		}
+	}
+
+	@Test
+	public void testLeapYear() {
+		assertTrue(this.holidayCalendar.isHoliday(2016, Calendar.DECEMBER, 31));
+		assertTrue(this.holidayCalendar.isHoliday(2016, Calendar.MARCH, 25));
+		assertFalse(this.holidayCalendar.isHoliday(2016, Calendar.MARCH, 1));
+
+		final BitSet days = this.holidayCalendar.getHolidays(2016);
+		assertTrue(days.get(365));
+		assertFalse(days.get(366));
+		assertTrue(this.holidayCalendar.getHolidays(2017).get(364));
+	}
+
+	@Test
+	public void testLookupDoesNotAllocate() {
+		final Object bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof ThreadMXBean);
+		final ThreadMXBean threads = (ThreadMXBean) bean;
+		final long thread = Thread.currentThread().getId();
+
+		boolean holiday = false;
+		for (int i = 0; i < 10000; i++) {
+			holiday ^= this.holidayCalendar.isHoliday(2016, Calendar.DECEMBER, 25);
+		}
+
+		final long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < 10000; i++) {
+			holiday ^= this.holidayCalendar.isHoliday(2016, Calendar.DECEMBER, 25);
+		}
+		final long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		assertFalse(holiday);
+		assertTrue("Allocated " + allocated + " bytes", allocated < 10000);
+	}
+
+	@Test
+	public void testDayOfYear() {
+		assertEquals(0, HolidayCalendar.dayOfYear(2016, Calendar.JANUARY, 1));
+		assertEquals(59, HolidayCalendar.dayOfYear(2016, Calendar.FEBRUARY, 29));
+		assertEquals(60, HolidayCalendar.dayOfYear(2016, Calendar.MARCH, 1));
+		assertEquals(59, HolidayCalendar.dayOfYear(2017, Calendar.MARCH, 1));
+		assertEquals(59, HolidayCalendar.dayOfYear(1900, Calendar.MARCH, 1));
+		assertEquals(60, HolidayCalendar.dayOfYear(2000, Calendar.MARCH, 1));
+	}
+
+	@Test
+	public void testNextHoliday() {
+		assertEquals(new NamedHoliday(LocalDate.of(2016, 3, 25), "GoodFriday"),
+				this.holidayCalendar.nextHoliday(LocalDate.of(2016, 1, 7)));
+		assertEquals(new NamedHoliday(LocalDate.of(2016, 3, 25), "GoodFriday"),
+				this.holidayCalendar.nextHoliday(LocalDate.of(2016, 3, 25)));
+		assertEquals(new NamedHoliday(LocalDate.of(2017, 1, 1), "NewYearsDay"),
+				this.holidayCalendar.nextHoliday(LocalDate.of(2016, 12, 31).plusDays(1)));
+		assertEquals(new NamedHoliday(LocalDate.of(2016, 12, 31), "NewYearsEve"),
+				this.holidayCalendar.nextHoliday(LocalDate.of(2016, 12, 28)));
+	}
+
+	@Test
+	public void testNextHolidayNextYear() {
+		final HolidayCalendar calendar = new HolidayCalendar(new Epiphany());
+
+		assertEquals(new NamedHoliday(LocalDate.of(2017, 1, 6), "Epiphany"),
+				calendar.nextHoliday(LocalDate.of(2016, 1, 7)));
+	}
+
+	@Test
+	public void testNextHolidayNone() {
+		assertNull(new HolidayCalendar().nextHoliday(LocalDate.of(2016, 1, 1)));
+	}
+
+	@Test
+	public void testHolidaysBetween() {
+		assertEquals(
+				Arrays.asList(new NamedHoliday(LocalDate.of(2016, 12, 24), "ChristmasEve"),
+						new NamedHoliday(LocalDate.of(2016, 12, 25), "ChristmasDay"),
+						new NamedHoliday(LocalDate.of(2016, 12, 26), "BoxingDay26"),
+						new NamedHoliday(LocalDate.of(2016, 12, 27), "BoxingDay27"),
+						new NamedHoliday(LocalDate.of(2016, 12, 31), "NewYearsEve"),
+						new NamedHoliday(LocalDate.of(2017, 1, 1), "NewYearsDay")),
+				this.holidayCalendar.holidaysBetween(LocalDate.of(2016, 12, 24), LocalDate.of(2017, 1, 6)));
+
+		assertEquals(Arrays.asList(new NamedHoliday(LocalDate.of(2016, 5, 1), "FirstOfMay"),
+				new NamedHoliday(LocalDate.of(2016, 5, 5), "AscensionDay"),
+				new NamedHoliday(LocalDate.of(2016, 5, 15), "WhitsunDay"),
+				new NamedHoliday(LocalDate.of(2016, 5, 16), "WhitMonday")),
+				this.holidayCalendar.holidaysBetween(LocalDate.of(2016, 5, 1), LocalDate.of(2016, 6, 1)));
+
+		assertTrue(this.holidayCalendar.holidaysBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 1, 1)).isEmpty());
+		assertEquals(3 * 14, this.holidayCalendar
+				.holidaysBetween(LocalDate.of(2015, 1, 1), LocalDate.of(2018, 1, 1)).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testHolidaysBetweenInvalidRange() {
+		this.holidayCalendar.holidaysBetween(LocalDate.of(2016, 1, 2), LocalDate.of(2016, 1, 1));
+	}
+
+	@Test
+	public void testIsHolidayLocalDate() {
+		assertTrue(this.holidayCalendar.isHoliday(LocalDate.of(2016, 3, 28)));
+		assertFalse(this.holidayCalendar.isHoliday(LocalDate.of(2016, 3, 29)));
+	}
+
+	@Test
+	public void testGetHolidaysIsCopy() {
+		this.holidayCalendar.getHolidays(2016).clear();
+		assertTrue(this.holidayCalendar.isHoliday(2016, Calendar.DECEMBER, 24));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullHoliday() {
+		new HolidayCalendar(new ChristmasDay(), null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullHolidays() {
+		new HolidayCalendar((Holiday[]) null);
+	}
+}
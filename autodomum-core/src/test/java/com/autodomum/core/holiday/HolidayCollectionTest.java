@@ -1,11 +1,14 @@
 package com.autodomum.core.holiday;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 
@@ -44,4 +47,12 @@ public class HolidayCollectionTest {
 		assertFalse(this.holidayCollection.isHoliday(calendar));
 	}
 
+	@Test
+	public void testNextHoliday() {
+		assertEquals(new NamedHoliday(LocalDate.of(2016, 12, 25), "ChristmasDay"),
+				this.holidayCollection.nextHoliday(LocalDate.of(2016, 12, 1)));
+		assertEquals(Arrays.asList(new NamedHoliday(LocalDate.of(2016, 12, 25), "ChristmasDay"),
+				new NamedHoliday(LocalDate.of(2017, 1, 1), "NewYearsDay")),
+				this.holidayCollection.holidaysBetween(LocalDate.of(2016, 12, 1), LocalDate.of(2017, 2, 1)));
+	}
 }
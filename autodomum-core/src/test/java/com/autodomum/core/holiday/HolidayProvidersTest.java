@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test of the <code>HolidayProviders</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class HolidayProvidersTest {
+
+	private AtomicInteger created;
+
+	private AtomicInteger iterated;
+
+	private HolidayProviders holidayProviders;
+
+	@Before
+	public void before() {
+		this.created = new AtomicInteger();
+		this.iterated = new AtomicInteger();
+		this.holidayProviders = new HolidayProviders(() -> {
+			this.iterated.incrementAndGet();
+			return Arrays.<HolidayProvider> asList(new TestProvider("SE", "fixed 06-06 National Day"),
+					new TestProvider("no", "fixed 05-17 Constitution Day")).iterator();
+		});
+	}
+
+	@Test
+	public void testGetCalendar() {
+		assertEquals(0, this.iterated.get());
+
+		final HolidayCalendar calendar = this.holidayProviders.getCalendar("se");
+		assertTrue(calendar.isHoliday(LocalDate.of(2016, 6, 6)));
+		assertEquals(1, this.created.get());
+
+		assertSame(calendar, this.holidayProviders.getCalendar("SE"));
+		assertEquals(1, this.created.get());
+
+		assertTrue(this.holidayProviders.getCalendar("NO").isHoliday(LocalDate.of(2016, 5, 17)));
+		assertEquals(2, this.created.get());
+		assertEquals(1, this.iterated.get());
+	}
+
+	@Test
+	public void testGetRegions() {
+		assertEquals("[NO, SE]", this.holidayProviders.getRegions().toString());
+		assertEquals(0, this.created.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownRegion() {
+		this.holidayProviders.getCalendar("DK");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDuplicateRegion() {
+		new HolidayProviders(Arrays.<HolidayProvider> asList(new TestProvider("SE", "fixed 06-06 National Day"),
+				new TestProvider("se", "fixed 06-06 National Day"))).getCalendar("SE");
+	}
+
+	@Test
+	public void testServiceLoader() {
+		assertTrue(new HolidayProviders().getRegions().isEmpty());
+	}
+
+	private class TestProvider implements HolidayProvider {
+
+		private final String region;
+
+		private final String rule;
+
+		TestProvider(final String region, final String rule) {
+			this.region = region;
+			this.rule = rule;
+		}
+
+		@Override
+		public String getRegion() {
+			return this.region;
+		}
+
+		@Override
+		public HolidayCalendar createCalendar() {
+			HolidayProvidersTest.this.created.incrementAndGet();
+			return new HolidayCalendar(HolidayRules.parse(this.rule));
+		}
+	}
+}
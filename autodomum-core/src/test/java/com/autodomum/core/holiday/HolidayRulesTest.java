@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.core.holiday;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test of the <code>HolidayRules</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class HolidayRulesTest {
+
+	@Test
+	public void testFixed() {
+		final HolidayCalendar calendar = new HolidayCalendar(HolidayRules.parse("fixed 12-24 Christmas  Eve"));
+
+		assertEquals(Arrays.asList(new NamedHoliday(LocalDate.of(2016, 12, 24), "Christmas Eve")),
+				calendar.holidaysBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2017, 1, 1)));
+	}
+
+	@Test
+	public void testFixedLeapDay() {
+		final HolidayCalendar calendar = new HolidayCalendar(HolidayRules.parse("fixed 02-29 Leap day"));
+
+		assertTrue(calendar.isHoliday(LocalDate.of(2016, 2, 29)));
+		assertFalse(calendar.isHoliday(LocalDate.of(2017, 3, 1)));
+		assertTrue(calendar.getHolidays(2017).isEmpty());
+	}
+
+	@Test
+	public void testEaster() {
+		final HolidayCalendar calendar = new HolidayCalendar(HolidayRules.parse("easter -2 Good Friday"),
+				HolidayRules.parse("easter +39 Ascension Day"));
+
+		assertEquals(
+				Arrays.asList(new NamedHoliday(LocalDate.of(2016, 3, 25), "Good Friday"),
+						new NamedHoliday(LocalDate.of(2016, 5, 5), "Ascension Day")),
+				calendar.holidaysBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2017, 1, 1)));
+	}
+
+	@Test
+	public void testWeekday() {
+		final HolidayCalendar calendar = new HolidayCalendar(HolidayRules.parse("weekday 06-19 FRIDAY Midsummer Eve"),
+				HolidayRules.parse("weekday 11-01 thursday 4 Thanksgiving"),
+				HolidayRules.parse("weekday 05-31 MONDAY -1 Memorial Day"));
+
+		assertEquals(
+				Arrays.asList(new NamedHoliday(LocalDate.of(2016, 5, 30), "Memorial Day"),
+						new NamedHoliday(LocalDate.of(2016, 6, 24), "Midsummer Eve"),
+						new NamedHoliday(LocalDate.of(2016, 11, 24), "Thanksgiving")),
+				calendar.holidaysBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2017, 1, 1)));
+		assertTrue(calendar.isHoliday(LocalDate.of(2017, 6, 23)));
+		assertTrue(calendar.isHoliday(LocalDate.of(2021, 5, 31)));
+	}
+
+	@Test
+	public void testWeekdayNumericName() {
+		assertEquals("2 Day", HolidayRules.parse("weekday 01-01 MONDAY 1 2 Day").getName());
+		assertEquals("3", HolidayRules.parse("weekday 01-01 MONDAY 3").getName());
+	}
+
+	@Test
+	public void testParseReader() throws IOException {
+		final List<Holiday> holidays = HolidayRules
+				.parse(new StringReader("# comment\r\n\r\nfixed 01-01 New Year's Day\r\n  easter 0 Easter Sunday  \n"));
+
+		assertEquals(2, holidays.size());
+		assertEquals("New Year's Day", holidays.get(0).getName());
+		assertEquals("Easter Sunday", holidays.get(1).getName());
+	}
+
+	@Test
+	public void testInvalidLine() throws IOException {
+		try {
+			HolidayRules.parse(new StringReader("fixed 01-01 New Year's Day\nfixed 13-01 Invalid\n"));
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+			return;
+		}
+		throw new AssertionError("Expected IllegalArgumentException");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownType() {
+		HolidayRules.parse("monthly 01 Invalid");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingName() {
+		HolidayRules.parse("fixed 01-01");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDayOfWeek() {
+		HolidayRules.parse("weekday 01-01 FUNDAY Invalid");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroWeekday() {
+		HolidayRules.parse("weekday 01-01 MONDAY 0 Invalid");
+	}
+}
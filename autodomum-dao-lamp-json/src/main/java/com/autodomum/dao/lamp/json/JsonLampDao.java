@@ -26,9 +26,11 @@ package com.autodomum.dao.lamp.json;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,14 +41,20 @@ import org.springframework.stereotype.Repository;
 import com.autodomum.core.dao.LampDao;
 import com.autodomum.core.event.EventComponent;
 import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
 import com.autodomum.core.model.Lamp;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * This is a static JSON implementation of a data access object for lamps. All
- * lamps should be declared in /lamps.json in the resource directory.
+ * lamps should be declared in /lamps.json in the resource directory. Changes
+ * of on/off state and position may be persisted with a
+ * <code>LampJournal</code>.
  * 
  * @author Kenny Colliander Nordin
  * @since 0.0.1
@@ -56,25 +64,103 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class JsonLampDao implements LampDao {
 	private static final Logger LOG = LoggerFactory.getLogger(JsonLampDao.class);
 
+	private static final ObjectReader READER = new ObjectMapper().readerFor(Lamp.class);
+
 	private final Map<String, Lamp> lamps = new ConcurrentHashMap<>();
 
 	private EventComponent eventComponent;
 
+	private volatile LampJournal journal;
+
 	/**
-	 * Load an JSON array of <code>Lamp</code> objects into DAO
+	 * Load an JSON array of <code>Lamp</code> objects into DAO. The array is
+	 * streamed, so it is never held in memory as a JSON tree. The lamps are
+	 * stored once the whole array has been read, so a failed load leaves the
+	 * DAO unchanged.
 	 * 
 	 * @param inputStream
 	 *            the JSON array of <code>Lamp</code> objects.
 	 * @throws JsonParseException
 	 * @throws JsonMappingException
+	 *             if the content is not an array of lamps
 	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if the array contains the same lamp id more than once
 	 */
 	public void load(InputStream inputStream) throws JsonParseException, JsonMappingException, IOException {
-		final ObjectMapper objectMapper = new ObjectMapper();
-		Lamp[] lamps = objectMapper.readValue(inputStream, Lamp[].class);
-		if (lamps != null) {
-			for (Lamp lamp : lamps) {
-				this.lamps.put(lamp.getId(), lamp);
+		final long start = System.nanoTime();
+		final Map<String, Lamp> loaded = new HashMap<>();
+
+		try (final JsonParser parser = READER.getFactory().createParser(inputStream)) {
+			final JsonToken token = parser.nextToken();
+			if (token == JsonToken.VALUE_NULL) {
+				return;
+			}
+			if (token != JsonToken.START_ARRAY) {
+				throw JsonMappingException.from(parser, "Expected an array of lamps");
+			}
+
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				final Lamp lamp = READER.readValue(parser);
+				if (lamp == null || lamp.getId() == null) {
+					throw new NullPointerException("Lamp id may not be null");
+				}
+				if (loaded.putIfAbsent(lamp.getId(), lamp) != null) {
+					throw new IllegalArgumentException("Duplicate lamp id " + lamp.getId());
+				}
+			}
+		}
+
+		this.lamps.putAll(loaded);
+
+		final long elapsed = Math.max(1L, System.nanoTime() - start);
+		LOG.info("Loaded {} lamps in {} ms ({} lamps/s)", loaded.size(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+				loaded.size() * 1000000000L / elapsed);
+	}
+
+	/**
+	 * Restore the persisted state of the loaded lamps from a journal and
+	 * record all further changes in it. Should be called after
+	 * <code>load</code>, persisted lamps that have not been loaded are
+	 * ignored.
+	 * 
+	 * @param journal
+	 *            the journal
+	 * @throws IOException
+	 *             if the journal could not be read or opened
+	 */
+	public void recover(final LampJournal journal) throws IOException {
+		if (journal == null) {
+			throw new NullPointerException("Journal may not be null");
+		}
+
+		journal.recover(this::restore);
+		journal.start(this::getLamps);
+		this.journal = journal;
+	}
+
+	/**
+	 * Restore the persisted state of a lamp
+	 * 
+	 * @param lamp
+	 *            the persisted lamp
+	 */
+	private void restore(final Lamp lamp) {
+		final Lamp current = lamp.getId() == null ? null : this.lamps.get(lamp.getId());
+		if (current == null) {
+			LOG.debug("Ignoring persisted state of unknown lamp {}", lamp);
+			return;
+		}
+
+		synchronized (current) {
+			if (lamp.getOn() != null) {
+				current.setOn(lamp.getOn());
+			}
+			if (lamp.getX() != null) {
+				current.setX(lamp.getX());
+			}
+			if (lamp.getY() != null) {
+				current.setY(lamp.getY());
 			}
 		}
 	}
@@ -83,35 +169,96 @@ public class JsonLampDao implements LampDao {
 	public Lamp getLamp(final String id) {
 		Lamp lamp = this.lamps.get(id);
 		if (lamp != null) {
-			return (Lamp) lamp.clone();
+			synchronized (lamp) {
+				return (Lamp) lamp.clone();
+			}
 		}
 		return null;
 	}
 
 	@Override
 	public void updateLamp(final String id, final Lamp lamp) {
-		final Lamp current = this.lamps.get(id);
+		final Lamp current = this.apply(id, lamp);
 
 		if (current != null) {
-			boolean modified = false;
-			if (lamp.getOn() != null && lamp.getOn() != current.getOn()) {
-				current.setOn(lamp.getOn());
-				modified = true;
-			}
-			if (lamp.getX() != null && lamp.getX() != current.getX()) {
-				current.setX(lamp.getX());
-				modified = true;
-			}
-			if (lamp.getY() != null && lamp.getY() != current.getY()) {
-				current.setY(lamp.getY());
-				modified = true;
-			}
+			this.eventComponent.publish(new LampStateChangedEvent(current));
+		}
+	}
+
+	@Override
+	public void updateLamps(final Map<String, Lamp> lamps) {
+		final List<Lamp> updated = new ArrayList<>(lamps.size());
 
-			if (modified) {
-				LOG.info("Updated {}", current);
+		for (final Map.Entry<String, Lamp> entry : lamps.entrySet()) {
+			final Lamp current = this.apply(entry.getKey(), entry.getValue());
+			if (current != null) {
+				updated.add(current);
 			}
+		}
 
-			this.eventComponent.publish(new LampStateChangedEvent(current));
+		if (!updated.isEmpty()) {
+			this.eventComponent.publish(new LampsStateChangedEvent(updated));
+		}
+	}
+
+	/**
+	 * Apply the non-null fields of a lamp to the stored lamp
+	 * 
+	 * @param id
+	 *            the id of the lamp
+	 * @param lamp
+	 *            the lamp to update
+	 * @return a copy of the updated lamp, taken while holding its lock, or
+	 *         null if it does not exist
+	 */
+	private Lamp apply(final String id, final Lamp lamp) {
+		final Lamp current = this.lamps.get(id);
+
+		if (current == null) {
+			return null;
+		}
+
+		// Listeners may run asynchronously, so they get a copy that later
+		// updates do not change
+		synchronized (current) {
+			this.modify(current, lamp);
+			return (Lamp) current.clone();
+		}
+	}
+
+	/**
+	 * Apply the non-null fields of a lamp to the stored lamp and journal the
+	 * change, while holding the lock of the stored lamp so that the journal
+	 * order matches the order of the changes
+	 * 
+	 * @param current
+	 *            the stored lamp
+	 * @param lamp
+	 *            the lamp to update
+	 */
+	private void modify(final Lamp current, final Lamp lamp) {
+		boolean modified = false;
+		if (lamp.getOn() != null && !lamp.getOn().equals(current.getOn())) {
+			current.setOn(lamp.getOn());
+			modified = true;
+		}
+		if (lamp.getX() != null && !lamp.getX().equals(current.getX())) {
+			current.setX(lamp.getX());
+			modified = true;
+		}
+		if (lamp.getY() != null && !lamp.getY().equals(current.getY())) {
+			current.setY(lamp.getY());
+			modified = true;
+		}
+
+		if (modified) {
+			LOG.info("Updated {}", current);
+
+			final LampJournal journal = this.journal;
+			if (journal != null) {
+				journal.append(new Lamp(current.getId(), null, current.getOn(), current.getX(), current.getY(),
+						null));
+			}
 		}
 	}
 
@@ -119,8 +266,12 @@ public class JsonLampDao implements LampDao {
 	public Lamp[] getLamps() {
 		final List<Lamp> lamps = new ArrayList<>();
 
+		// Cloned under the lock of each lamp, so that a change is never half
+		// copied, e.g. into a snapshot of the journal
 		this.lamps.values().forEach(lamp -> {
-			lamps.add((Lamp) lamp.clone());
+			synchronized (lamp) {
+				lamps.add((Lamp) lamp.clone());
+			}
 		});
 
 		return lamps.toArray(new Lamp[lamps.size()]);
@@ -0,0 +1,445 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.dao.lamp.json;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.autodomum.core.model.Lamp;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * <p>
+ * Write-ahead journal of lamp state for the <code>JsonLampDao</code>. Each
+ * change is appended as a JSON line with the id, on/off state and position of
+ * the lamp to <code>lamps.journal</code>, and periodically compacted into a
+ * complete <code>lamps.json</code> that is written to a temporary file and
+ * atomically renamed before the journal is truncated.
+ * </p>
+ * <p>
+ * Changes are queued and written by a background thread, which syncs all
+ * changes that have queued up during the previous sync with a single fsync, so
+ * callers never wait for disk I/O. Records hold absolute values, so replaying
+ * a record that is also part of the snapshot is harmless. If a batch could
+ * not be written the writer compacts instead, and changes are not reported as
+ * synced until a compaction has succeeded. Failed compactions are retried with
+ * an exponentially growing delay.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class LampJournal implements Closeable {
+	private static final Logger LOG = LoggerFactory.getLogger(LampJournal.class);
+
+	private static final String JOURNAL = "lamps.journal";
+
+	private static final String SNAPSHOT = "lamps.json";
+
+	private static final String SNAPSHOT_TMP = "lamps.json.tmp";
+
+	private static final long IDLE_POLL = 100L;
+
+	private static final long MAX_RETRY_DELAY = 60000L;
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+	private final Path directory;
+
+	private final BlockingQueue<Lamp> queue = new LinkedBlockingQueue<>();
+
+	private final AtomicLong appended = new AtomicLong();
+
+	private final Object durableLock = new Object();
+
+	private long durable;
+
+	/**
+	 * Number of changes taken from the queue by the writer
+	 */
+	private long taken;
+
+	/**
+	 * The last failure to write, until a compaction has succeeded
+	 */
+	private volatile Exception failure;
+
+	/**
+	 * Delay before the next compaction after a failure, doubled after every
+	 * failed compaction. Only used by the writer.
+	 */
+	private long retryDelay;
+
+	/**
+	 * Earliest time for the next compaction after a failure. Only used by the
+	 * writer.
+	 */
+	private long retryAt;
+
+	private volatile int compactThreshold = 10000;
+
+	private volatile boolean compactRequested;
+
+	private volatile boolean running;
+
+	private int records;
+
+	private Supplier<Lamp[]> state;
+
+	private FileChannel channel;
+
+	private Writer writer;
+
+	private Thread thread;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param directory
+	 *            the directory of the journal and snapshot, created if missing
+	 */
+	public LampJournal(final Path directory) {
+		if (directory == null) {
+			throw new NullPointerException("Directory may not be null");
+		}
+
+		this.directory = directory;
+	}
+
+	/**
+	 * Read the snapshot and the journal
+	 * 
+	 * @param consumer
+	 *            receives the lamps of the snapshot and then the journaled
+	 *            changes in order
+	 * @throws IOException
+	 *             if the files could not be read
+	 */
+	public void recover(final Consumer<Lamp> consumer) throws IOException {
+		final Path snapshot = this.directory.resolve(SNAPSHOT);
+		if (Files.exists(snapshot)) {
+			final Lamp[] lamps = this.objectMapper.readValue(snapshot.toFile(), Lamp[].class);
+			if (lamps != null) {
+				for (final Lamp lamp : lamps) {
+					consumer.accept(lamp);
+				}
+			}
+		}
+
+		final Path journal = this.directory.resolve(JOURNAL);
+		if (Files.exists(journal)) {
+			try (final BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.isEmpty()) {
+						continue;
+					}
+
+					final Lamp lamp;
+					try {
+						lamp = this.objectMapper.readValue(line, Lamp.class);
+					} catch (IOException e) {
+						LOG.warn("Ignoring unreadable journal record {}", line);
+						continue;
+					}
+					consumer.accept(lamp);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compact the recovered state and start the background writer
+	 * 
+	 * @param state
+	 *            supplier of all lamps, called by the writer when compacting
+	 * @throws IOException
+	 *             if the journal could not be opened
+	 */
+	public synchronized void start(final Supplier<Lamp[]> state) throws IOException {
+		if (state == null) {
+			throw new NullPointerException("State may not be null");
+		}
+
+		if (this.running) {
+			throw new IllegalStateException("Journal already started");
+		}
+
+		Files.createDirectories(this.directory);
+		this.state = state;
+		this.compact();
+
+		this.running = true;
+		this.thread = new Thread(this::work, "LampJournal");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Queue a change, never blocks
+	 * 
+	 * @param lamp
+	 *            the id and new values of the lamp
+	 */
+	public void append(final Lamp lamp) {
+		if (!this.running) {
+			LOG.warn("Journal in {} is not started, dropped {}", this.directory, lamp);
+			return;
+		}
+
+		this.appended.incrementAndGet();
+		this.queue.add(lamp);
+	}
+
+	/**
+	 * Wait until all changes that have been appended are synced to disk
+	 * 
+	 * @throws IOException
+	 *             if the changes could not be written, or the journal has
+	 *             been closed before they were written
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public void flush() throws IOException, InterruptedException {
+		final long target = this.appended.get();
+		synchronized (this.durableLock) {
+			while (this.durable < target) {
+				final Exception failure = this.failure;
+				if (failure != null) {
+					throw new IOException("Failed to write journal in " + this.directory, failure);
+				}
+				if (this.thread == null || !this.thread.isAlive()) {
+					throw new IOException("Journal in " + this.directory + " is not running");
+				}
+				this.durableLock.wait(IDLE_POLL);
+			}
+		}
+	}
+
+	/**
+	 * Request a compaction by the background writer
+	 */
+	public void requestCompaction() {
+		this.compactRequested = true;
+	}
+
+	/**
+	 * @param compactThreshold
+	 *            number of records after which the journal is compacted
+	 */
+	public void setCompactThreshold(final int compactThreshold) {
+		if (compactThreshold < 1) {
+			throw new IllegalArgumentException("Compact threshold must be positive: " + compactThreshold);
+		}
+		this.compactThreshold = compactThreshold;
+	}
+
+	/**
+	 * @return the directory of the journal and snapshot
+	 */
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * Write all queued changes, compact and stop the background writer
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!this.running) {
+			return;
+		}
+
+		this.running = false;
+		try {
+			this.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// Changes appended while stopping are part of the final snapshot
+		final long target = this.appended.get();
+		this.compact();
+		this.markDurable(target);
+		this.closeWriter();
+	}
+
+	private void work() {
+		final List<Lamp> batch = new ArrayList<>();
+
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				final Lamp first = this.queue.poll(IDLE_POLL, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					this.queue.drainTo(batch);
+					this.taken += batch.size();
+					this.write(batch);
+					if (this.failure == null) {
+						this.markDurable(this.taken);
+					}
+				}
+			} catch (InterruptedException e) {
+				break;
+			} catch (IOException | RuntimeException e) {
+				this.fail("Failed to write journal in " + this.directory, e);
+			} finally {
+				batch.clear();
+			}
+
+			if (this.failure != null && System.currentTimeMillis() < this.retryAt) {
+				continue;
+			}
+
+			if (this.failure != null || this.compactRequested || this.records >= this.compactThreshold) {
+				// The snapshot holds every change taken so far, including lost ones
+				final long target = this.taken;
+				try {
+					this.compact();
+					if (this.failure != null) {
+						LOG.info("Recovered journal in {}", this.directory);
+						this.failure = null;
+					}
+					this.retryDelay = 0;
+					this.markDurable(target);
+				} catch (IOException | RuntimeException e) {
+					this.fail("Failed to compact journal in " + this.directory, e);
+					this.retryDelay = Math.min(Math.max(IDLE_POLL, this.retryDelay * 2), MAX_RETRY_DELAY);
+					this.retryAt = System.currentTimeMillis() + this.retryDelay;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Record a failure. Only the first failure is logged with its stack trace,
+	 * until the journal has recovered.
+	 * 
+	 * @param message
+	 *            the message
+	 * @param e
+	 *            the failure
+	 */
+	private void fail(final String message, final Exception e) {
+		if (this.failure == null) {
+			LOG.error(message, e);
+		} else {
+			LOG.debug("{}: {}", message, e.toString());
+		}
+		this.failure = e;
+	}
+
+	private void write(final List<Lamp> batch) throws IOException {
+		if (this.writer == null) {
+			throw new IOException("Journal in " + this.directory + " is not open");
+		}
+
+		for (final Lamp lamp : batch) {
+			this.writer.write(this.objectMapper.writeValueAsString(lamp));
+			this.writer.write('\n');
+		}
+		this.writer.flush();
+		this.channel.force(false);
+		this.records += batch.size();
+	}
+
+	/**
+	 * @param count
+	 *            the number of changes that are synced to disk
+	 */
+	private void markDurable(final long count) {
+		synchronized (this.durableLock) {
+			if (count > this.durable) {
+				this.durable = count;
+				this.durableLock.notifyAll();
+			}
+		}
+	}
+
+	private void compact() throws IOException {
+		final Path tmp = this.directory.resolve(SNAPSHOT_TMP);
+		final ByteBuffer buffer = ByteBuffer.wrap(this.objectMapper.writeValueAsBytes(this.state.get()));
+		try (final FileChannel snapshot = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				snapshot.write(buffer);
+			}
+			snapshot.force(true);
+		}
+		Files.move(tmp, this.directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		this.syncDirectory();
+
+		this.closeWriter();
+		this.channel = FileChannel.open(this.directory.resolve(JOURNAL), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.writer = Channels.newWriter(this.channel, StandardCharsets.UTF_8.newEncoder(), 8192);
+		this.records = 0;
+		this.compactRequested = false;
+		LOG.debug("Compacted lamp journal in {}", this.directory);
+	}
+
+	/**
+	 * Force the directory, so that the renamed snapshot survives a power loss.
+	 * Not all platforms support this, e.g. Windows.
+	 */
+	private void syncDirectory() {
+		try (final FileChannel directory = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+			directory.force(true);
+		} catch (IOException e) {
+			LOG.debug("Could not force directory {}", this.directory, e);
+		}
+	}
+
+	private void closeWriter() throws IOException {
+		if (this.writer != null) {
+			this.writer.close();
+			this.writer = null;
+			this.channel = null;
+		}
+	}
+}
@@ -27,6 +27,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,16 +36,25 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.autodomum.core.event.Event;
 import com.autodomum.core.event.EventComponent;
 import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
 import com.autodomum.core.model.Lamp;
 import com.autodomum.dao.lamp.json.JsonLampDao;
 import com.fasterxml.jackson.core.JsonParseException;
@@ -64,6 +74,9 @@ public class JsonLampDaoTest {
 	@Spy
 	private EventComponent eventComponent;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Before
 	public void before() throws JsonParseException, JsonMappingException, IOException {
 		this.dao = new JsonLampDao();
@@ -81,6 +94,65 @@ public class JsonLampDaoTest {
 		assertEquals("name1", lamp1.getName());
 	}
 
+	@Test
+	public void testLoad() throws IOException {
+		final StringBuilder data = new StringBuilder("[");
+		for (int i = 0; i < 1000; i++) {
+			data.append(i == 0 ? "" : ",").append("{\"id\":\"lamp").append(i).append("\",\"x\":").append(i)
+					.append("}");
+		}
+		data.append("]");
+
+		this.dao.load(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(1001, this.dao.getLamps().length);
+		assertEquals((Integer) 999, this.dao.getLamp("lamp999").getX());
+		assertEquals("name1", this.dao.getLamp("id1").getName());
+	}
+
+	@Test
+	public void testLoadEmpty() throws IOException {
+		this.dao.load(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)));
+		this.dao.load(new ByteArrayInputStream("null".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(1, this.dao.getLamps().length);
+	}
+
+	@Test(expected = JsonMappingException.class)
+	public void testLoadNotArray() throws IOException {
+		this.dao.load(new ByteArrayInputStream("{\"id\":\"id2\"}".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoadDuplicate() throws IOException {
+		this.dao.load(new ByteArrayInputStream("[{\"id\":\"id2\"},{\"id\":\"id2\"}]".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testLoadNullId() throws IOException {
+		this.dao.load(new ByteArrayInputStream("[{\"name\":\"name2\"}]".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testLoadFailureLeavesDaoUnchanged() throws IOException {
+		final String[] invalid = { "[{\"id\":\"id1\",\"x\":5},{\"id\":\"id2\"},{\"id\":\"id2\"}]",
+				"[{\"id\":\"id1\",\"x\":5},{\"id\":\"id2\"},{\"name\":\"name3\"}]",
+				"[{\"id\":\"id1\",\"x\":5},{\"id\":\"id2\"},null]" };
+
+		for (final String data : invalid) {
+			try {
+				this.dao.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+				fail("Expected failure for " + data);
+			} catch (IllegalArgumentException | NullPointerException e) {
+				// expected
+			}
+
+			assertEquals(1, this.dao.getLamps().length);
+			assertEquals((Integer) 1, this.dao.getLamp("id1").getX());
+			assertNull(this.dao.getLamp("id2"));
+		}
+	}
+
 	@Test
 	public void testUpdateLampX() {
 		Lamp lamp = new Lamp();
@@ -96,6 +168,24 @@ public class JsonLampDaoTest {
 		verify(eventComponent, times(1)).publish(new LampStateChangedEvent(newLamp));
 	}
 
+	@Test
+	public void testUpdateLampPublishesCopy() {
+		Lamp lamp = new Lamp();
+		lamp.setX(3);
+		this.dao.updateLamp("id1", lamp);
+
+		final ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+		verify(eventComponent, times(1)).publish(captor.capture());
+		final Lamp published = ((LampStateChangedEvent) captor.getValue()).getLamp();
+
+		// Later updates do not change the published lamp
+		lamp.setX(4);
+		this.dao.updateLamp("id1", lamp);
+
+		assertEquals((Integer) 3, published.getX());
+		assertEquals((Integer) 4, this.dao.getLamp("id1").getX());
+	}
+
 	@Test
 	public void testUpdateLampXNotModified() {
 		Lamp lamp = new Lamp();
@@ -177,6 +267,33 @@ public class JsonLampDaoTest {
 		verify(eventComponent, times(0)).publish(new LampStateChangedEvent(any()));
 	}
 
+	@Test
+	public void testUpdateLamps() {
+		Lamp lamp = new Lamp();
+		lamp.setOn(true);
+
+		Map<String, Lamp> lamps = new HashMap<>();
+		lamps.put("id1", lamp);
+		lamps.put("id2", lamp);
+
+		this.dao.updateLamps(lamps);
+		Lamp newLamp = this.dao.getLamp("id1");
+
+		assertTrue(newLamp.getOn());
+		verify(eventComponent, times(1)).publish(new LampsStateChangedEvent(Arrays.asList(newLamp)));
+		verify(eventComponent, times(1)).publish(any());
+	}
+
+	@Test
+	public void testUpdateLampsInvalidId() {
+		Lamp lamp = new Lamp();
+		lamp.setOn(true);
+
+		this.dao.updateLamps(Collections.singletonMap("id2", lamp));
+
+		verify(eventComponent, times(0)).publish(any());
+	}
+
 	@Test
 	public void testGetLamps() {
 		Lamp[] lamps = this.dao.getLamps();
@@ -200,4 +317,29 @@ public class JsonLampDaoTest {
 		assertNull(this.dao.getLamp("id2"));
 	}
 
+	@Test
+	public void testRecover() throws IOException, InterruptedException {
+		final Path directory = this.folder.getRoot().toPath();
+
+		final LampJournal journal = new LampJournal(directory);
+		this.dao.recover(journal);
+
+		final Lamp lamp = new Lamp();
+		lamp.setOn(true);
+		lamp.setX(300);
+		this.dao.updateLamp("id1", lamp);
+		journal.flush();
+
+		final JsonLampDao restarted = new JsonLampDao();
+		restarted.setEventComponent(eventComponent);
+		String data = "[{\"id\":\"id1\", \"name\":\"name1\",\"on\":false,\"x\":1,\"y\":2,\"callIds\":[\"a\",\"b\"]}]";
+		restarted.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+
+		final LampJournal restartedJournal = new LampJournal(directory);
+		restarted.recover(restartedJournal);
+
+		assertEquals(new Lamp("id1", "name1", true, 300, 2, Arrays.asList("a", "b")), restarted.getLamp("id1"));
+		restartedJournal.close();
+		journal.close();
+	}
 }
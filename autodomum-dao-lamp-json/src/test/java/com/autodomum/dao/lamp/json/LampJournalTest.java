@@ -0,0 +1,238 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.dao.lamp.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.autodomum.core.model.Lamp;
+
+/**
+ * Test of the <code>LampJournal</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class LampJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	private Lamp[] state;
+
+	@Before
+	public void before() {
+		this.directory = this.folder.getRoot().toPath().resolve("lamps");
+		this.state = new Lamp[] { new Lamp("id1", "name1", false, 1, 2, Arrays.asList("a")) };
+	}
+
+	@Test
+	public void testAppendAndRecover() throws IOException, InterruptedException {
+		try (final LampJournal journal = new LampJournal(this.directory)) {
+			journal.recover(lamp -> {
+				throw new AssertionError("Nothing to recover");
+			});
+			journal.start(() -> this.state);
+
+			journal.append(new Lamp("id1", null, true, null, null, null));
+			journal.append(new Lamp("id1", null, true, 5, 6, null));
+			journal.flush();
+
+			final List<String> lines = Files.readAllLines(this.directory.resolve("lamps.journal"));
+			assertEquals(Arrays.asList("{\"id\":\"id1\",\"on\":true}", "{\"id\":\"id1\",\"on\":true,\"x\":5,\"y\":6}"),
+					lines);
+		}
+
+		final List<Lamp> recovered = new ArrayList<>();
+		new LampJournal(this.directory).recover(recovered::add);
+
+		// Closing compacts the state into the snapshot
+		assertEquals(Arrays.asList(this.state), recovered);
+		assertEquals(0, Files.size(this.directory.resolve("lamps.journal")));
+	}
+
+	@Test
+	public void testRecoverSnapshotAndJournal() throws IOException, InterruptedException {
+		final LampJournal journal = new LampJournal(this.directory);
+		journal.recover(lamp -> {
+		});
+		journal.start(() -> this.state);
+		journal.append(new Lamp("id1", null, true, 5, 6, null));
+		journal.flush();
+
+		// Simulate a crash by reading while the journal still is open
+		final List<Lamp> recovered = new ArrayList<>();
+		new LampJournal(this.directory).recover(recovered::add);
+
+		assertEquals(Arrays.asList(this.state[0], new Lamp("id1", null, true, 5, 6, null)), recovered);
+		journal.close();
+	}
+
+	@Test
+	public void testTornRecord() throws IOException {
+		try (final LampJournal journal = new LampJournal(this.directory)) {
+			journal.start(() -> new Lamp[0]);
+		}
+
+		Files.write(this.directory.resolve("lamps.journal"),
+				"{\"id\":\"id1\",\"on\":true}\n{\"id\":\"id1\",\"o".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+
+		final List<Lamp> recovered = new ArrayList<>();
+		new LampJournal(this.directory).recover(recovered::add);
+
+		assertEquals(Collections.singletonList(new Lamp("id1", null, true, null, null, null)), recovered);
+	}
+
+	@Test
+	public void testCompactThreshold() throws IOException, InterruptedException {
+		final AtomicInteger compactions = new AtomicInteger();
+
+		try (final LampJournal journal = new LampJournal(this.directory)) {
+			journal.setCompactThreshold(10);
+			journal.start(() -> {
+				compactions.incrementAndGet();
+				return this.state;
+			});
+			assertEquals(1, compactions.get());
+
+			for (int i = 0; i < 25; i++) {
+				journal.append(new Lamp("id1", null, i % 2 == 0, null, null, null));
+				journal.flush();
+			}
+
+			assertEquals(3, compactions.get());
+			assertFalse(Files.exists(this.directory.resolve("lamps.json.tmp")));
+			assertEquals(5, Files.readAllLines(this.directory.resolve("lamps.journal")).size());
+		}
+	}
+
+	@Test
+	public void testAppendNotStarted() throws IOException, InterruptedException {
+		final LampJournal journal = new LampJournal(this.directory);
+
+		journal.append(new Lamp("id1", null, true, null, null, null));
+		journal.flush();
+		assertFalse(Files.exists(this.directory));
+	}
+
+	@Test
+	public void testRequestCompaction() throws IOException, InterruptedException {
+		try (final LampJournal journal = new LampJournal(this.directory)) {
+			journal.start(() -> this.state);
+			journal.append(new Lamp("id1", null, true, null, null, null));
+			journal.flush();
+			assertTrue(Files.size(this.directory.resolve("lamps.journal")) > 0);
+
+			journal.requestCompaction();
+			for (int i = 0; i < 50 && Files.size(this.directory.resolve("lamps.journal")) > 0; i++) {
+				Thread.sleep(20);
+			}
+			assertEquals(0, Files.size(this.directory.resolve("lamps.journal")));
+		}
+	}
+
+	@Test
+	public void testFlushReportsFailure() throws IOException, InterruptedException {
+		try (final LampJournal journal = new LampJournal(this.directory)) {
+			journal.start(() -> this.state);
+
+			// The snapshot can not be written
+			final Path tmp = Files.createDirectory(this.directory.resolve("lamps.json.tmp"));
+			journal.requestCompaction();
+			Thread.sleep(300);
+			journal.append(new Lamp("id1", null, true, null, null, null));
+
+			try {
+				journal.flush();
+				fail("Expected IOException");
+			} catch (IOException e) {
+				// expected
+			}
+
+			// Synced once a compaction succeeds
+			Files.delete(tmp);
+			for (int i = 0; i < 100; i++) {
+				try {
+					journal.flush();
+					break;
+				} catch (IOException e) {
+					Thread.sleep(50);
+				}
+			}
+			journal.flush();
+		}
+	}
+
+	@Test
+	public void testCompactionBackoff() throws IOException, InterruptedException {
+		final AtomicInteger compactions = new AtomicInteger();
+
+		try (final LampJournal journal = new LampJournal(this.directory)) {
+			journal.start(() -> {
+				compactions.incrementAndGet();
+				return this.state;
+			});
+
+			// The snapshot can not be written
+			final Path tmp = Files.createDirectory(this.directory.resolve("lamps.json.tmp"));
+			journal.requestCompaction();
+			Thread.sleep(1000);
+
+			// Retried after 100, 200 and 400 ms rather than every poll
+			assertTrue("Compactions: " + compactions.get(), compactions.get() <= 6);
+			Files.delete(tmp);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCompactThreshold() {
+		new LampJournal(this.directory).setCompactThreshold(0);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullDirectory() {
+		new LampJournal(null);
+	}
+}
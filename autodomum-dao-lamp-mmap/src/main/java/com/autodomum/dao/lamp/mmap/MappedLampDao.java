@@ -0,0 +1,513 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.dao.lamp.mmap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.autodomum.core.dao.LampDao;
+import com.autodomum.core.event.EventComponent;
+import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
+import com.autodomum.core.model.Lamp;
+
+/**
+ * <p>
+ * Data access object for lamps backed by a memory-mapped file, intended for
+ * installations with thousands of lamps. Opening the file maps it without
+ * parsing anything, and updates are written directly to the mapping and
+ * persisted by the operating system, or explicitly with <code>force()</code>.
+ * </p>
+ * <p>
+ * The file starts with a header followed by one fixed size record per lamp,
+ * sorted by id so that lamps are found with a binary search in the mapping,
+ * and a table of interned strings for ids, names and call ids:
+ * </p>
+ * 
+ * <pre>
+ * header:  int magic, int version, int count, int string table offset
+ * record:  int flags, int x, int y, int id, int name, int call ids
+ * strings: int length, UTF-8 bytes
+ * list:    int count, int string...
+ * </pre>
+ * <p>
+ * String and list references are offsets into the string table, -1 is null.
+ * The id, name and call ids of a lamp are fixed when the file is created.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class MappedLampDao implements LampDao, Closeable {
+	private static final Logger LOG = LoggerFactory.getLogger(MappedLampDao.class);
+
+	private static final int MAGIC = 0x41444c4d;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 16;
+
+	private static final int RECORD_SIZE = 24;
+
+	private static final int FLAGS = 0;
+
+	private static final int X = 4;
+
+	private static final int Y = 8;
+
+	private static final int ID = 12;
+
+	private static final int NAME = 16;
+
+	private static final int CALL_IDS = 20;
+
+	private static final int ON = 1;
+
+	private static final int ON_SET = 1 << 1;
+
+	private static final int X_SET = 1 << 2;
+
+	private static final int Y_SET = 1 << 3;
+
+	private static final int NULL = -1;
+
+	private final MappedByteBuffer buffer;
+
+	private final int count;
+
+	private final int strings;
+
+	private EventComponent eventComponent;
+
+	private MappedLampDao(final MappedByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a lamp file");
+		}
+
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported lamp file version " + buffer.getInt(4));
+		}
+
+		this.buffer = buffer;
+		this.count = buffer.getInt(8);
+		this.strings = buffer.getInt(12);
+
+		if (this.count < 0 || HEADER_SIZE + (long) this.count * RECORD_SIZE > this.strings
+				|| this.strings > buffer.capacity()) {
+			throw new IOException("Corrupt lamp file");
+		}
+	}
+
+	/**
+	 * Map an existing lamp file
+	 * 
+	 * @param file
+	 *            the file
+	 * @return the DAO
+	 * @throws IOException
+	 *             if the file could not be mapped or is not a lamp file
+	 */
+	public static MappedLampDao open(final Path file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final MappedLampDao dao = new MappedLampDao(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+			LOG.info("Mapped {} lamps from {}", dao.count, file);
+			return dao;
+		}
+	}
+
+	/**
+	 * Create a lamp file, replacing any existing file atomically, and map it
+	 * 
+	 * @param file
+	 *            the file
+	 * @param lamps
+	 *            the lamps
+	 * @return the DAO
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	public static MappedLampDao create(final Path file, final Lamp[] lamps) throws IOException {
+		final Lamp[] sorted = lamps.clone();
+		final byte[][] ids = new byte[sorted.length][];
+		for (final Lamp lamp : sorted) {
+			if (lamp == null || lamp.getId() == null) {
+				throw new NullPointerException("Lamp id may not be null");
+			}
+		}
+		Arrays.sort(sorted, Comparator.comparing(lamp -> lamp.getId().getBytes(StandardCharsets.UTF_8),
+				MappedLampDao::compare));
+
+		final StringTable table = new StringTable();
+		final ByteBuffer records = ByteBuffer.allocate(HEADER_SIZE + sorted.length * RECORD_SIZE);
+		records.position(HEADER_SIZE);
+
+		for (int i = 0; i < sorted.length; i++) {
+			final Lamp lamp = sorted[i];
+			ids[i] = lamp.getId().getBytes(StandardCharsets.UTF_8);
+			if (i > 0 && compare(ids[i - 1], ids[i]) == 0) {
+				throw new IllegalArgumentException("Duplicate lamp id " + lamp.getId());
+			}
+
+			records.putInt(flags(lamp.getOn(), lamp.getX(), lamp.getY()));
+			records.putInt(lamp.getX() == null ? 0 : lamp.getX());
+			records.putInt(lamp.getY() == null ? 0 : lamp.getY());
+			records.putInt(table.string(lamp.getId()));
+			records.putInt(table.string(lamp.getName()));
+			records.putInt(table.list(lamp.getCallIds()));
+		}
+
+		records.putInt(0, MAGIC);
+		records.putInt(4, VERSION);
+		records.putInt(8, sorted.length);
+		records.putInt(12, records.capacity());
+		records.position(0);
+
+		final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (final FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			final ByteBuffer stringTable = table.toByteBuffer();
+			while (records.hasRemaining()) {
+				channel.write(records);
+			}
+			while (stringTable.hasRemaining()) {
+				channel.write(stringTable);
+			}
+			channel.force(true);
+		}
+		Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		return open(file);
+	}
+
+	@Override
+	public Lamp getLamp(final String id) {
+		final int record = this.find(id);
+		return record == NULL ? null : this.read(record);
+	}
+
+	@Override
+	public void updateLamp(final String id, final Lamp lamp) {
+		final int record = this.find(id);
+		if (record == NULL) {
+			return;
+		}
+
+		final Lamp current = this.apply(record, lamp);
+		if (this.eventComponent != null) {
+			this.eventComponent.publish(new LampStateChangedEvent(current));
+		}
+	}
+
+	@Override
+	public void updateLamps(final Map<String, Lamp> lamps) {
+		final List<Lamp> updated = new ArrayList<>(lamps.size());
+
+		for (final Map.Entry<String, Lamp> entry : lamps.entrySet()) {
+			final int record = this.find(entry.getKey());
+			if (record != NULL) {
+				updated.add(this.apply(record, entry.getValue()));
+			}
+		}
+
+		if (!updated.isEmpty() && this.eventComponent != null) {
+			this.eventComponent.publish(new LampsStateChangedEvent(updated));
+		}
+	}
+
+	@Override
+	public Lamp[] getLamps() {
+		final Lamp[] lamps = new Lamp[this.count];
+		for (int i = 0; i < this.count; i++) {
+			lamps[i] = this.read(HEADER_SIZE + i * RECORD_SIZE);
+		}
+		return lamps;
+	}
+
+	/**
+	 * @return number of lamps
+	 */
+	public int size() {
+		return this.count;
+	}
+
+	/**
+	 * Write all updates to the file
+	 */
+	public void force() {
+		this.buffer.force();
+	}
+
+	/**
+	 * Write all updates to the file. The mapping is released when the DAO is
+	 * garbage collected.
+	 */
+	@Override
+	public void close() {
+		this.force();
+	}
+
+	public void setEventComponent(final EventComponent eventComponent) {
+		this.eventComponent = eventComponent;
+	}
+
+	/**
+	 * Apply the non-null fields of a lamp to a record
+	 * 
+	 * @param record
+	 *            the offset of the record
+	 * @param lamp
+	 *            the lamp to update
+	 * @return the updated lamp
+	 */
+	private synchronized Lamp apply(final int record, final Lamp lamp) {
+		int flags = this.buffer.getInt(record + FLAGS);
+
+		if (lamp.getOn() != null) {
+			flags = (flags & ~ON) | ON_SET | (lamp.getOn() ? ON : 0);
+		}
+		if (lamp.getX() != null) {
+			flags |= X_SET;
+			this.buffer.putInt(record + X, lamp.getX());
+		}
+		if (lamp.getY() != null) {
+			flags |= Y_SET;
+			this.buffer.putInt(record + Y, lamp.getY());
+		}
+		this.buffer.putInt(record + FLAGS, flags);
+
+		return this.read(record);
+	}
+
+	/**
+	 * Read a record. The state is read while holding the same lock as
+	 * <code>apply</code>, so that an update is never seen half written and is
+	 * visible to all threads. The id, name and call ids are fixed and read
+	 * without the lock.
+	 * 
+	 * @param record
+	 *            the offset of the record
+	 * @return the lamp
+	 */
+	private Lamp read(final int record) {
+		final int flags;
+		final int x;
+		final int y;
+		synchronized (this) {
+			flags = this.buffer.getInt(record + FLAGS);
+			x = this.buffer.getInt(record + X);
+			y = this.buffer.getInt(record + Y);
+		}
+
+		return new Lamp(this.string(this.buffer.getInt(record + ID)), this.string(this.buffer.getInt(record + NAME)),
+				(flags & ON_SET) == 0 ? null : (flags & ON) != 0, (flags & X_SET) == 0 ? null : x,
+				(flags & Y_SET) == 0 ? null : y, this.list(this.buffer.getInt(record + CALL_IDS)));
+	}
+
+	/**
+	 * Binary search of the records by id
+	 * 
+	 * @param id
+	 *            the id
+	 * @return the offset of the record, or -1 if not found
+	 */
+	private int find(final String id) {
+		if (id == null) {
+			return NULL;
+		}
+
+		final byte[] key = id.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = this.count - 1;
+
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int record = HEADER_SIZE + mid * RECORD_SIZE;
+			final int cmp = this.compareString(this.buffer.getInt(record + ID), key);
+
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return record;
+			}
+		}
+
+		return NULL;
+	}
+
+	private int compareString(final int reference, final byte[] key) {
+		final int offset = this.strings + reference;
+		final int length = this.buffer.getInt(offset);
+		final int min = Math.min(length, key.length);
+
+		for (int i = 0; i < min; i++) {
+			final int cmp = (this.buffer.get(offset + 4 + i) & 0xff) - (key[i] & 0xff);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+
+		return length - key.length;
+	}
+
+	private String string(final int reference) {
+		if (reference == NULL) {
+			return null;
+		}
+
+		final int offset = this.strings + reference;
+		final byte[] bytes = new byte[this.buffer.getInt(offset)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = this.buffer.get(offset + 4 + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private List<String> list(final int reference) {
+		if (reference == NULL) {
+			return null;
+		}
+
+		final int offset = this.strings + reference;
+		final int size = this.buffer.getInt(offset);
+		final List<String> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(this.string(this.buffer.getInt(offset + 4 + i * 4)));
+		}
+		return list;
+	}
+
+	private static int flags(final Boolean on, final Integer x, final Integer y) {
+		int flags = 0;
+		if (on != null) {
+			flags |= ON_SET | (on ? ON : 0);
+		}
+		if (x != null) {
+			flags |= X_SET;
+		}
+		if (y != null) {
+			flags |= Y_SET;
+		}
+		return flags;
+	}
+
+	private static int compare(final byte[] a, final byte[] b) {
+		final int min = Math.min(a.length, b.length);
+		for (int i = 0; i < min; i++) {
+			final int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return a.length - b.length;
+	}
+
+	/**
+	 * Table of interned strings and string lists used when creating a file
+	 */
+	private static final class StringTable {
+
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		private final Map<List<String>, Integer> lists = new HashMap<>();
+
+		private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+		int string(final String value) {
+			if (value == null) {
+				return NULL;
+			}
+
+			final Integer existing = this.strings.get(value);
+			if (existing != null) {
+				return existing;
+			}
+
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			final int reference = this.reserve(4 + bytes.length);
+			this.buffer.putInt(bytes.length).put(bytes);
+			this.strings.put(value, reference);
+			return reference;
+		}
+
+		int list(final List<String> values) {
+			if (values == null) {
+				return NULL;
+			}
+
+			final Integer existing = this.lists.get(values);
+			if (existing != null) {
+				return existing;
+			}
+
+			final int[] references = new int[values.size()];
+			for (int i = 0; i < references.length; i++) {
+				references[i] = this.string(values.get(i));
+			}
+
+			final int reference = this.reserve(4 + references.length * 4);
+			this.buffer.putInt(references.length);
+			for (final int element : references) {
+				this.buffer.putInt(element);
+			}
+			this.lists.put(new ArrayList<>(values), reference);
+			return reference;
+		}
+
+		ByteBuffer toByteBuffer() {
+			final ByteBuffer result = this.buffer.duplicate();
+			result.flip();
+			return result;
+		}
+
+		private int reserve(final int length) {
+			if (this.buffer.remaining() < length) {
+				final ByteBuffer grown = ByteBuffer
+						.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + length));
+				this.buffer.flip();
+				grown.put(this.buffer);
+				this.buffer = grown;
+			}
+			return this.buffer.position();
+		}
+	}
+}
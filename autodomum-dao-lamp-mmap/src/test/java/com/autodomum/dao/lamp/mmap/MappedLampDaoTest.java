@@ -0,0 +1,226 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.dao.lamp.mmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.autodomum.core.event.EventComponent;
+import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
+import com.autodomum.core.model.Lamp;
+
+/**
+ * Test of the <code>MappedLampDao</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MappedLampDaoTest {
+
+	private MappedLampDao dao;
+
+	private Path file;
+
+	@Spy
+	private EventComponent eventComponent;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void before() throws IOException {
+		this.file = this.folder.getRoot().toPath().resolve("lamps.bin");
+		this.dao = MappedLampDao.create(this.file,
+				new Lamp[] { new Lamp("id2", "name2", null, null, null, null),
+						new Lamp("id1", "name1", false, 1, 2, Arrays.asList("a", "b")),
+						new Lamp("id3", null, true, -1, 0, Arrays.asList("a", "b")) });
+		this.dao.setEventComponent(this.eventComponent);
+	}
+
+	@After
+	public void after() {
+		this.dao.close();
+	}
+
+	@Test
+	public void testGetLamp() {
+		assertEquals(new Lamp("id1", "name1", false, 1, 2, Arrays.asList("a", "b")), this.dao.getLamp("id1"));
+		assertEquals(new Lamp("id2", "name2", null, null, null, null), this.dao.getLamp("id2"));
+		assertEquals(new Lamp("id3", null, true, -1, 0, Arrays.asList("a", "b")), this.dao.getLamp("id3"));
+		assertNull(this.dao.getLamp("id0"));
+		assertNull(this.dao.getLamp("id4"));
+		assertNull(this.dao.getLamp(null));
+	}
+
+	@Test
+	public void testGetLamps() {
+		final Lamp[] lamps = this.dao.getLamps();
+
+		assertEquals(3, this.dao.size());
+		assertEquals(3, lamps.length);
+		assertEquals("id1", lamps[0].getId());
+		assertEquals("id2", lamps[1].getId());
+		assertEquals("id3", lamps[2].getId());
+	}
+
+	@Test
+	public void testUpdateLamp() {
+		final Lamp lamp = new Lamp();
+		lamp.setOn(true);
+		lamp.setX(3);
+
+		this.dao.updateLamp("id1", lamp);
+		final Lamp updated = this.dao.getLamp("id1");
+
+		assertTrue(updated.getOn());
+		assertEquals((Integer) 3, updated.getX());
+		assertEquals((Integer) 2, updated.getY());
+		verify(this.eventComponent).publish(new LampStateChangedEvent(updated));
+
+		lamp.setOn(false);
+		this.dao.updateLamp("id2", lamp);
+		assertFalse(this.dao.getLamp("id2").getOn());
+		assertEquals((Integer) 3, this.dao.getLamp("id2").getX());
+		assertNull(this.dao.getLamp("id2").getY());
+	}
+
+	@Test
+	public void testUpdateLampNotFound() {
+		final Lamp lamp = new Lamp();
+		lamp.setOn(true);
+
+		this.dao.updateLamp("id4", lamp);
+
+		verify(this.eventComponent, never()).publish(any(LampStateChangedEvent.class));
+	}
+
+	@Test
+	public void testUpdateLamps() {
+		final Lamp lamp = new Lamp();
+		lamp.setY(7);
+
+		final Map<String, Lamp> lamps = new HashMap<>();
+		lamps.put("id1", lamp);
+		lamps.put("id4", lamp);
+
+		this.dao.updateLamps(lamps);
+		final Lamp updated = this.dao.getLamp("id1");
+
+		assertEquals((Integer) 7, updated.getY());
+		verify(this.eventComponent).publish(new LampsStateChangedEvent(Arrays.asList(updated)));
+	}
+
+	@Test
+	public void testGetLampConcurrentUpdate() throws InterruptedException {
+		final Lamp lamp = new Lamp();
+		lamp.setX(0);
+		lamp.setY(0);
+		this.dao.updateLamp("id3", lamp);
+
+		final Thread writer = new Thread(() -> {
+			for (int i = 1; i < 20000; i++) {
+				lamp.setX(i);
+				lamp.setY(i);
+				this.dao.updateLamp("id3", lamp);
+			}
+		});
+		writer.start();
+
+		try {
+			while (writer.isAlive()) {
+				final Lamp read = this.dao.getLamp("id3");
+				assertEquals(read.getX(), read.getY());
+			}
+		} finally {
+			writer.join();
+		}
+	}
+
+	@Test
+	public void testOpen() throws IOException {
+		final Lamp lamp = new Lamp();
+		lamp.setOn(true);
+		this.dao.updateLamp("id2", lamp);
+		this.dao.close();
+
+		this.dao = MappedLampDao.open(this.file);
+
+		assertEquals(3, this.dao.size());
+		assertTrue(this.dao.getLamp("id2").getOn());
+		assertEquals("name2", this.dao.getLamp("id2").getName());
+		assertEquals(Arrays.asList("a", "b"), this.dao.getLamp("id3").getCallIds());
+	}
+
+	@Test
+	public void testCreateEmpty() throws IOException {
+		this.dao.close();
+		this.dao = MappedLampDao.create(this.file, new Lamp[0]);
+
+		assertEquals(0, this.dao.size());
+		assertNull(this.dao.getLamp("id1"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateDuplicate() throws IOException {
+		MappedLampDao.create(this.folder.getRoot().toPath().resolve("duplicate.bin"),
+				new Lamp[] { new Lamp("id1", null, null, null, null, null),
+						new Lamp("id1", null, null, null, null, null) });
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testCreateNullId() throws IOException {
+		MappedLampDao.create(this.folder.getRoot().toPath().resolve("null.bin"), new Lamp[] { new Lamp() });
+	}
+
+	@Test(expected = IOException.class)
+	public void testOpenInvalid() throws IOException {
+		final Path invalid = this.folder.getRoot().toPath().resolve("invalid.bin");
+		Files.write(invalid, new byte[32]);
+
+		MappedLampDao.open(invalid);
+	}
+}
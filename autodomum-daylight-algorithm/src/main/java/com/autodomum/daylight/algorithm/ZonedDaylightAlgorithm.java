@@ -0,0 +1,202 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.daylight.algorithm;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import com.autodomum.core.daylight.Coordinate;
+import com.autodomum.core.daylight.Daylight;
+
+/**
+ * Keep track of daylight using java.time. Uses the same day length model as
+ * <code>DaylightAlgorithm</code>, but centers the day on the solar noon of the
+ * longitude, corrected by the equation of time, and uses an explicit time zone
+ * to decide the local date. The class is immutable and thread safe, and the
+ * primitive methods do not allocate.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class ZonedDaylightAlgorithm implements Daylight {
+
+	private static final long DAY = 86400000L;
+
+	private static final double MINUTE = 60000d;
+
+	private static final double REFRACTION = Math.sin(Math.toRadians(0.8333d));
+
+	private final ZoneId zone;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param zone
+	 *            the time zone used to decide the local date of a time
+	 */
+	public ZonedDaylightAlgorithm(final ZoneId zone) {
+		if (zone == null) {
+			throw new NullPointerException("Zone may not be null");
+		}
+		this.zone = zone;
+	}
+
+	@Override
+	public Date sunrise(final Coordinate coordinate, final Date date) {
+		return new Date(this.sunriseEpochMillis(coordinate, this.toLocalDate(date)));
+	}
+
+	@Override
+	public Date sunset(final Coordinate coordinate, final Date date) {
+		return new Date(this.sunsetEpochMillis(coordinate, this.toLocalDate(date)));
+	}
+
+	/**
+	 * Estimate sunrise
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param date
+	 *            the local date
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	public long sunriseEpochMillis(final Coordinate coordinate, final LocalDate date) {
+		return sunriseEpochMillis(coordinate.getLatitude(), coordinate.getLongitude(), date);
+	}
+
+	/**
+	 * Estimate sunset
+	 * 
+	 * @param coordinate
+	 *            the coordinate
+	 * @param date
+	 *            the local date
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	public long sunsetEpochMillis(final Coordinate coordinate, final LocalDate date) {
+		return sunsetEpochMillis(coordinate.getLatitude(), coordinate.getLongitude(), date);
+	}
+
+	/**
+	 * Estimate sunrise. During polar day sunrise is twelve hours before solar
+	 * noon, and during polar night it is at solar noon.
+	 * 
+	 * @param latitude
+	 *            the latitude
+	 * @param longitude
+	 *            the longitude
+	 * @param date
+	 *            the local date
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	public static long sunriseEpochMillis(final double latitude, final double longitude, final LocalDate date) {
+		final int day = date.getDayOfYear();
+		return epochMillis(date.toEpochDay(), solarNoon(longitude, day) - length(latitude, day) * 30d);
+	}
+
+	/**
+	 * Estimate sunset. During polar day sunset is twelve hours after solar
+	 * noon, and during polar night it is at solar noon.
+	 * 
+	 * @param latitude
+	 *            the latitude
+	 * @param longitude
+	 *            the longitude
+	 * @param date
+	 *            the local date
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	public static long sunsetEpochMillis(final double latitude, final double longitude, final LocalDate date) {
+		final int day = date.getDayOfYear();
+		return epochMillis(date.toEpochDay(), solarNoon(longitude, day) + length(latitude, day) * 30d);
+	}
+
+	/**
+	 * Calculate length of the day, including refraction
+	 * 
+	 * @param latitude
+	 *            the latitude
+	 * @param day
+	 *            the day of the year
+	 * @return time in hours, 0 during polar night and 24 during polar day
+	 */
+	public static double length(final double latitude, final int day) {
+		final double p = Math
+				.asin(.39795 * Math.cos(.2163108 + 2 * Math.atan(.9671396 * Math.tan(.00860 * (day - 186)))));
+		final double phi = Math.toRadians(latitude);
+		final double argument = (REFRACTION + Math.sin(phi) * Math.sin(p)) / (Math.cos(phi) * Math.cos(p));
+
+		if (argument <= -1d) {
+			return 0d;
+		}
+		if (argument >= 1d) {
+			return 24d;
+		}
+		return 24d - (24d / Math.PI) * Math.acos(argument);
+	}
+
+	/**
+	 * Calculate the equation of time, the difference between apparent and
+	 * mean solar time
+	 * 
+	 * @param day
+	 *            the day of the year
+	 * @return time in minutes
+	 */
+	public static double equationOfTime(final int day) {
+		final double b = Math.toRadians((360d / 365d) * (day - 81));
+
+		return 9.87d * Math.sin(2 * b) - 7.53d * Math.cos(b) - 1.5d * Math.sin(b);
+	}
+
+	/**
+	 * Calculate solar noon
+	 * 
+	 * @param longitude
+	 *            the longitude, positive east of Greenwich
+	 * @param day
+	 *            the day of the year
+	 * @return minutes after midnight UTC
+	 */
+	public static double solarNoon(final double longitude, final int day) {
+		return 720d - 4d * longitude - equationOfTime(day);
+	}
+
+	/**
+	 * @return the time zone used to decide the local date of a time
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	private static long epochMillis(final long epochDay, final double minutes) {
+		return epochDay * DAY + Math.round(minutes * MINUTE);
+	}
+
+	private LocalDate toLocalDate(final Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(this.zone).toLocalDate();
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.daylight.algorithm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.autodomum.core.daylight.Coordinate;
+
+/**
+ * Test of the <code>ZonedDaylightAlgorithm</code> class. Reference values are
+ * from the NOAA solar calculator.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class ZonedDaylightAlgorithmTest {
+
+	private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+	private static final Coordinate COORDINATE = new Coordinate(18.063240d, 59.334591d);
+
+	private static final long TOLERANCE = 3 * 60000L;
+
+	private final ZonedDaylightAlgorithm algorithm = new ZonedDaylightAlgorithm(STOCKHOLM);
+
+	private static long time(final String localDateTime) {
+		return LocalDateTime.parse(localDateTime).atZone(STOCKHOLM).toInstant().toEpochMilli();
+	}
+
+	private void assertDaylight(final String date, final String sunrise, final String sunset) {
+		final LocalDate localDate = LocalDate.parse(date);
+
+		assertEquals(time(date + "T" + sunrise), this.algorithm.sunriseEpochMillis(COORDINATE, localDate), TOLERANCE);
+		assertEquals(time(date + "T" + sunset), this.algorithm.sunsetEpochMillis(COORDINATE, localDate), TOLERANCE);
+	}
+
+	@Test
+	public void testMidsummer() {
+		assertDaylight("2016-06-21", "03:30:57", "22:08:17");
+	}
+
+	@Test
+	public void testMidwinter() {
+		assertDaylight("2016-12-21", "08:43:40", "14:48:24");
+	}
+
+	@Test
+	public void testEquinoxes() {
+		assertDaylight("2016-03-20", "05:48:35", "18:02:55");
+		assertDaylight("2016-09-22", "06:32:51", "18:46:31");
+	}
+
+	@Test
+	public void testDaylightSavingTime() {
+		assertDaylight("2016-04-05", "06:01:20", "19:40:48");
+	}
+
+	@Test
+	public void testDate() {
+		final Date date = new Date(time("2016-06-21T23:30:00"));
+
+		assertEquals(this.algorithm.sunriseEpochMillis(COORDINATE, LocalDate.of(2016, 6, 21)),
+				this.algorithm.sunrise(COORDINATE, date).getTime());
+		assertEquals(this.algorithm.sunsetEpochMillis(COORDINATE, LocalDate.of(2016, 6, 21)),
+				this.algorithm.sunset(COORDINATE, date).getTime());
+	}
+
+	@Test
+	public void testPolarDayAndNight() {
+		assertEquals(24d, ZonedDaylightAlgorithm.length(78.22d, 172), 0d);
+		assertEquals(0d, ZonedDaylightAlgorithm.length(78.22d, 355), 0d);
+	}
+
+	@Test
+	public void testSolarNoonLongitude() {
+		assertEquals(4d, ZonedDaylightAlgorithm.solarNoon(0d, 100) - ZonedDaylightAlgorithm.solarNoon(1d, 100),
+				0.000001d);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullZone() {
+		new ZonedDaylightAlgorithm(null);
+	}
+}
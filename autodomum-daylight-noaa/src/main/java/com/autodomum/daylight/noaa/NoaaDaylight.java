@@ -0,0 +1,300 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.daylight.noaa;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import com.autodomum.core.daylight.Coordinate;
+import com.autodomum.core.daylight.Daylight;
+
+/**
+ * Keep track of daylight using the
+ * <a href="https://www.esrl.noaa.gov/gmd/grad/solcalc/calcdetails.html">NOAA
+ * solar calculator</a>. The position of the sun is calculated at solar noon
+ * and then again at the estimated sunrise or sunset, which gives an accuracy
+ * of about a minute outside of the polar regions.
+ * <p>
+ * During polar day sunrise is at the start and sunset at the end of the local
+ * day. During polar night, or when the sun never reaches the zenith, sunrise
+ * and sunset are both at solar noon.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+@Component
+@Scope
+public class NoaaDaylight implements Daylight {
+
+	private static final long DAY = 86400000L;
+
+	private static final double MINUTE = 60000d;
+
+	private static final double JULIAN_UNIX_EPOCH = 2440587.5d;
+
+	private static final double J2000 = 2451545d;
+
+	private final ZoneId zone;
+
+	private final Zenith zenith;
+
+	private final double cosZenith;
+
+	/**
+	 * Constructor, using the default time zone and official sunrise and
+	 * sunset
+	 */
+	public NoaaDaylight() {
+		this(ZoneId.systemDefault(), Zenith.OFFICIAL);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param zone
+	 *            the time zone used to decide the local date of a time
+	 * @param zenith
+	 *            the zenith that defines sunrise and sunset
+	 */
+	public NoaaDaylight(final ZoneId zone, final Zenith zenith) {
+		if (zone == null) {
+			throw new NullPointerException("Zone may not be null");
+		}
+
+		if (zenith == null) {
+			throw new NullPointerException("Zenith may not be null");
+		}
+
+		this.zone = zone;
+		this.zenith = zenith;
+		this.cosZenith = Math.cos(Math.toRadians(zenith.getDegrees()));
+	}
+
+	@Override
+	public Date sunrise(final Coordinate coordinate, final Date date) {
+		return new Date(this.sunriseEpochMillis(coordinate.getLatitude(), coordinate.getLongitude(),
+				this.toLocalDate(date)));
+	}
+
+	@Override
+	public Date sunset(final Coordinate coordinate, final Date date) {
+		return new Date(this.sunsetEpochMillis(coordinate.getLatitude(), coordinate.getLongitude(),
+				this.toLocalDate(date)));
+	}
+
+	/**
+	 * Calculate sunrise
+	 * 
+	 * @param latitude
+	 *            the latitude
+	 * @param longitude
+	 *            the longitude, positive east of Greenwich
+	 * @param date
+	 *            the local date
+	 * @return the time for sunrise in UTC milliseconds
+	 */
+	public long sunriseEpochMillis(final double latitude, final double longitude, final LocalDate date) {
+		return this.event(latitude, longitude, date, -1);
+	}
+
+	/**
+	 * Calculate sunset
+	 * 
+	 * @param latitude
+	 *            the latitude
+	 * @param longitude
+	 *            the longitude, positive east of Greenwich
+	 * @param date
+	 *            the local date
+	 * @return the time for sunset in UTC milliseconds
+	 */
+	public long sunsetEpochMillis(final double latitude, final double longitude, final LocalDate date) {
+		return this.event(latitude, longitude, date, 1);
+	}
+
+	/**
+	 * Calculate sunrise or sunset
+	 * 
+	 * @param latitude
+	 *            the latitude
+	 * @param longitude
+	 *            the longitude
+	 * @param date
+	 *            the local date
+	 * @param sign
+	 *            -1 for sunrise, 1 for sunset
+	 * @return the time in UTC milliseconds
+	 */
+	private long event(final double latitude, final double longitude, final LocalDate date, final int sign) {
+		final long epochDay = date.toEpochDay();
+		final double noon = solarNoon(longitude, epochDay);
+
+		double cosHourAngle = this.cosHourAngle(latitude, declination(julianCentury(epochDay, noon)));
+
+		if (cosHourAngle > 1d) {
+			return epochMillis(epochDay, noon);
+		}
+
+		if (cosHourAngle < -1d) {
+			final LocalDate day = sign < 0 ? date : date.plusDays(1);
+			return day.atStartOfDay(this.zone).toInstant().toEpochMilli();
+		}
+
+		double minutes = noon + sign * 4d * Math.toDegrees(Math.acos(cosHourAngle));
+
+		// Refine with the position of the sun at the estimated time
+		final double t = julianCentury(epochDay, minutes);
+		cosHourAngle = this.cosHourAngle(latitude, declination(t));
+
+		if (cosHourAngle >= -1d && cosHourAngle <= 1d) {
+			minutes = 720d - 4d * longitude - equationOfTime(t) + sign * 4d * Math.toDegrees(Math.acos(cosHourAngle));
+		}
+
+		return epochMillis(epochDay, minutes);
+	}
+
+	/**
+	 * Calculate the cosine of the hour angle when the sun is at the zenith
+	 * 
+	 * @param latitude
+	 *            the latitude in degrees
+	 * @param declination
+	 *            the declination of the sun in radians
+	 * @return the cosine, above 1 if the sun never reaches the zenith and below
+	 *         -1 if the sun never passes it
+	 */
+	private double cosHourAngle(final double latitude, final double declination) {
+		final double phi = Math.toRadians(latitude);
+
+		return this.cosZenith / (Math.cos(phi) * Math.cos(declination)) - Math.tan(phi) * Math.tan(declination);
+	}
+
+	/**
+	 * Calculate solar noon
+	 * 
+	 * @param longitude
+	 *            the longitude, positive east of Greenwich
+	 * @param epochDay
+	 *            the local date as days since 1970-01-01
+	 * @return minutes after midnight UTC
+	 */
+	public static double solarNoon(final double longitude, final long epochDay) {
+		final double estimate = 720d - 4d * longitude - equationOfTime(julianCentury(epochDay, 720d - 4d * longitude));
+
+		return 720d - 4d * longitude - equationOfTime(julianCentury(epochDay, estimate));
+	}
+
+	/**
+	 * Calculate the declination of the sun
+	 * 
+	 * @param t
+	 *            the time in Julian centuries since J2000
+	 * @return the declination in radians
+	 */
+	static double declination(final double t) {
+		final double omega = Math.toRadians(125.04d - 1934.136d * t);
+		final double lambda = Math.toRadians(trueLongitude(t) - 0.00569d - 0.00478d * Math.sin(omega));
+
+		return Math.asin(Math.sin(obliquity(t)) * Math.sin(lambda));
+	}
+
+	/**
+	 * Calculate the equation of time, the difference between apparent and
+	 * mean solar time
+	 * 
+	 * @param t
+	 *            the time in Julian centuries since J2000
+	 * @return time in minutes
+	 */
+	static double equationOfTime(final double t) {
+		final double l0 = Math.toRadians(meanLongitude(t));
+		final double m = Math.toRadians(meanAnomaly(t));
+		final double e = eccentricity(t);
+		final double tanHalf = Math.tan(obliquity(t) / 2d);
+		final double y = tanHalf * tanHalf;
+
+		return 4d * Math.toDegrees(y * Math.sin(2d * l0) - 2d * e * Math.sin(m)
+				+ 4d * e * y * Math.sin(m) * Math.cos(2d * l0) - 0.5d * y * y * Math.sin(4d * l0)
+				- 1.25d * e * e * Math.sin(2d * m));
+	}
+
+	private static double julianCentury(final long epochDay, final double minutes) {
+		return (epochDay + JULIAN_UNIX_EPOCH + minutes / 1440d - J2000) / 36525d;
+	}
+
+	private static double meanLongitude(final double t) {
+		return (280.46646d + t * (36000.76983d + t * 0.0003032d)) % 360d;
+	}
+
+	private static double meanAnomaly(final double t) {
+		return 357.52911d + t * (35999.05029d - 0.0001537d * t);
+	}
+
+	private static double eccentricity(final double t) {
+		return 0.016708634d - t * (0.000042037d + 0.0000001267d * t);
+	}
+
+	private static double trueLongitude(final double t) {
+		final double m = Math.toRadians(meanAnomaly(t));
+		final double center = Math.sin(m) * (1.914602d - t * (0.004817d + 0.000014d * t))
+				+ Math.sin(2d * m) * (0.019993d - 0.000101d * t) + Math.sin(3d * m) * 0.000289d;
+
+		return meanLongitude(t) + center;
+	}
+
+	private static double obliquity(final double t) {
+		final double seconds = 21.448d - t * (46.815d + t * (0.00059d - t * 0.001813d));
+		final double mean = 23d + (26d + seconds / 60d) / 60d;
+
+		return Math.toRadians(mean + 0.00256d * Math.cos(Math.toRadians(125.04d - 1934.136d * t)));
+	}
+
+	private static long epochMillis(final long epochDay, final double minutes) {
+		return epochDay * DAY + Math.round(minutes * MINUTE);
+	}
+
+	private LocalDate toLocalDate(final Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(this.zone).toLocalDate();
+	}
+
+	/**
+	 * @return the time zone used to decide the local date of a time
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * @return the zenith that defines sunrise and sunset
+	 */
+	public Zenith getZenith() {
+		return zenith;
+	}
+}
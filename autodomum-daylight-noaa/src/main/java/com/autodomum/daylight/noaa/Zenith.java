@@ -0,0 +1,67 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.daylight.noaa;
+
+/**
+ * The zenith angle of the sun that defines sunrise and sunset
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public enum Zenith {
+
+	/**
+	 * Official sunrise and sunset, the upper edge of the sun at the horizon
+	 * including refraction
+	 */
+	OFFICIAL(90.833d),
+
+	/**
+	 * Civil twilight, the sun 6 degrees below the horizon
+	 */
+	CIVIL(96d),
+
+	/**
+	 * Nautical twilight, the sun 12 degrees below the horizon
+	 */
+	NAUTICAL(102d),
+
+	/**
+	 * Astronomical twilight, the sun 18 degrees below the horizon
+	 */
+	ASTRONOMICAL(108d);
+
+	private final double degrees;
+
+	private Zenith(final double degrees) {
+		this.degrees = degrees;
+	}
+
+	/**
+	 * @return the zenith angle in degrees
+	 */
+	public double getDegrees() {
+		return degrees;
+	}
+}
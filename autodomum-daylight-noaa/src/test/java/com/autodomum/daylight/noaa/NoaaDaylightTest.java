@@ -0,0 +1,143 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.daylight.noaa;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.autodomum.core.daylight.Coordinate;
+
+/**
+ * Test of the <code>NoaaDaylight</code> class. Reference values are from the
+ * NOAA solar calculator.
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class NoaaDaylightTest {
+
+	private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+	private static final double LATITUDE = 59.334591d;
+
+	private static final double LONGITUDE = 18.063240d;
+
+	private static final long TOLERANCE = 60000L;
+
+	private static long time(final ZoneId zone, final String localDateTime) {
+		return LocalDateTime.parse(localDateTime).atZone(zone).toInstant().toEpochMilli();
+	}
+
+	private static void assertDaylight(final NoaaDaylight daylight, final double latitude, final double longitude,
+			final String date, final String sunrise, final String sunset) {
+		final LocalDate localDate = LocalDate.parse(date);
+
+		assertEquals(time(daylight.getZone(), date + "T" + sunrise),
+				daylight.sunriseEpochMillis(latitude, longitude, localDate), TOLERANCE);
+		assertEquals(time(daylight.getZone(), date + "T" + sunset),
+				daylight.sunsetEpochMillis(latitude, longitude, localDate), TOLERANCE);
+	}
+
+	@Test
+	public void testOfficial() {
+		final NoaaDaylight daylight = new NoaaDaylight(STOCKHOLM, Zenith.OFFICIAL);
+
+		assertDaylight(daylight, LATITUDE, LONGITUDE, "2016-06-21", "03:30:57", "22:08:17");
+		assertDaylight(daylight, LATITUDE, LONGITUDE, "2016-12-21", "08:43:40", "14:48:24");
+		assertDaylight(daylight, LATITUDE, LONGITUDE, "2016-03-20", "05:48:35", "18:02:55");
+		assertDaylight(daylight, LATITUDE, LONGITUDE, "2016-09-22", "06:32:51", "18:46:31");
+		assertDaylight(daylight, LATITUDE, LONGITUDE, "2016-04-05", "06:01:20", "19:40:48");
+	}
+
+	@Test
+	public void testTwilight() {
+		assertDaylight(new NoaaDaylight(STOCKHOLM, Zenith.CIVIL), LATITUDE, LONGITUDE, "2016-12-21", "07:47:59",
+				"15:44:05");
+		assertDaylight(new NoaaDaylight(STOCKHOLM, Zenith.NAUTICAL), LATITUDE, LONGITUDE, "2016-12-21", "06:52:35",
+				"16:39:29");
+		assertDaylight(new NoaaDaylight(STOCKHOLM, Zenith.ASTRONOMICAL), LATITUDE, LONGITUDE, "2016-12-21",
+				"06:02:07", "17:29:56");
+	}
+
+	@Test
+	public void testOtherHemispheres() {
+		assertDaylight(new NoaaDaylight(ZoneId.of("America/New_York"), Zenith.OFFICIAL), 40.7128d, -74.0060d,
+				"2016-07-04", "05:30:29", "20:30:24");
+		assertDaylight(new NoaaDaylight(ZoneId.of("Australia/Sydney"), Zenith.OFFICIAL), -33.8688d, 151.2093d,
+				"2016-06-21", "07:00:01", "16:53:55");
+	}
+
+	@Test
+	public void testPolarDay() {
+		final ZoneId zone = ZoneId.of("Arctic/Longyearbyen");
+		final NoaaDaylight daylight = new NoaaDaylight(zone, Zenith.OFFICIAL);
+		final LocalDate date = LocalDate.of(2016, 6, 21);
+
+		assertEquals(date.atStartOfDay(zone).toInstant().toEpochMilli(),
+				daylight.sunriseEpochMillis(78.22d, 15.65d, date));
+		assertEquals(date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+				daylight.sunsetEpochMillis(78.22d, 15.65d, date));
+	}
+
+	@Test
+	public void testPolarNight() {
+		final NoaaDaylight daylight = new NoaaDaylight(ZoneId.of("Arctic/Longyearbyen"), Zenith.OFFICIAL);
+		final LocalDate date = LocalDate.of(2016, 12, 21);
+		final long noon = date.toEpochDay() * 86400000L
+				+ Math.round(NoaaDaylight.solarNoon(15.65d, date.toEpochDay()) * 60000d);
+
+		assertEquals(noon, daylight.sunriseEpochMillis(78.22d, 15.65d, date));
+		assertEquals(noon, daylight.sunsetEpochMillis(78.22d, 15.65d, date));
+	}
+
+	@Test
+	public void testDate() {
+		final NoaaDaylight daylight = new NoaaDaylight(STOCKHOLM, Zenith.OFFICIAL);
+		final Coordinate coordinate = new Coordinate(LONGITUDE, LATITUDE);
+		final Date date = new Date(time(STOCKHOLM, "2016-06-21T00:30:00"));
+
+		assertEquals(daylight.sunriseEpochMillis(LATITUDE, LONGITUDE, LocalDate.of(2016, 6, 21)),
+				daylight.sunrise(coordinate, date).getTime());
+		assertEquals(daylight.sunsetEpochMillis(LATITUDE, LONGITUDE, LocalDate.of(2016, 6, 21)),
+				daylight.sunset(coordinate, date).getTime());
+	}
+
+	@Test
+	public void testSolarNoonLongitude() {
+		final long epochDay = LocalDate.of(2016, 4, 5).toEpochDay();
+
+		assertEquals(60d, NoaaDaylight.solarNoon(0d, epochDay) - NoaaDaylight.solarNoon(15d, epochDay), 0.1d);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullZenith() {
+		new NoaaDaylight(STOCKHOLM, null);
+	}
+}
@@ -24,6 +24,7 @@
 package com.autodomum.example;
 
 import java.io.InputStream;
+import java.nio.file.Paths;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -34,11 +35,18 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 
+import com.autodomum.core.daylight.CachingDaylight;
 import com.autodomum.core.daylight.Coordinate;
+import com.autodomum.core.daylight.Daylight;
+import com.autodomum.core.event.DispatchPolicy;
 import com.autodomum.core.event.EventComponent;
 import com.autodomum.core.event.EventContext;
+import com.autodomum.core.event.EventJournal;
 import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
+import com.autodomum.core.event.SchedulerMode;
 import com.autodomum.dao.lamp.json.JsonLampDao;
+import com.autodomum.dao.lamp.json.LampJournal;
 import com.autodomum.provider.telldus.TelldusComponent;
 import com.autodomum.script.nashorn.NashornScriptComponent;
 
@@ -64,6 +72,15 @@ public class Example1 {
 		final TelldusComponent telldusComponent = context.getBean(TelldusComponent.class);
 		final NashornScriptComponent nashornScriptComponent = context.getBean(NashornScriptComponent.class);
 
+		eventComponent.setSchedulerMode(SchedulerMode.EVENT_DRIVEN);
+		eventComponent.setDaylight(new CachingDaylight(context.getBean(Daylight.class)));
+
+		// Script callbacks share one Nashorn engine, which is not thread-safe,
+		// so they are called synchronously by the default dispatch policy
+
+		// Keep attributes and scheduled events between restarts
+		eventComponent.setJournal(new EventJournal(Paths.get("data", "events")));
+
 		final Thread eventComponentThread = new Thread(eventComponent);
 		eventComponentThread.setDaemon(true);
 		eventComponentThread.setPriority(Thread.MIN_PRIORITY);
@@ -74,7 +91,8 @@ public class Example1 {
 		eventContext.setCoordinate(new Coordinate(18.063240d, 59.334591d));
 
 		eventComponent.updateEventContext();
-		eventComponent.register(LampStateChangedEvent.class, telldusComponent);
+		eventComponent.register(LampStateChangedEvent.class, telldusComponent, DispatchPolicy.SYNCHRONOUS);
+		eventComponent.register(LampsStateChangedEvent.class, telldusComponent, DispatchPolicy.SYNCHRONOUS);
 
 		final Thread telldusComponentThread = new Thread(telldusComponent);
 		telldusComponentThread.setDaemon(true);
@@ -86,6 +104,9 @@ public class Example1 {
 			jsonLampDao.load(inputStream);
 		}
 
+		// Restore lamp states and positions from the previous run
+		jsonLampDao.recover(new LampJournal(Paths.get("data", "lamps")));
+
 		try (InputStream inputStream = Example1.class.getResourceAsStream("/ai.js")) {
 			nashornScriptComponent.replaceScript(inputStream);
 		}
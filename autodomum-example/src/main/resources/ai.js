@@ -12,19 +12,21 @@ var TurnOffAllLamps = new Packages.com.autodomum.core.event.EventCallback() {
 		var reset = true;
 		if(event instanceof Java.type("com.autodomum.core.event.FireOnceEvent")) {
 			if(event.getName().equals('turnOffAllLampsEvening')) {
-				eventComponent.registerEventOnceTomorrow(0, eventContext.getRandom().nextInt(30), 'turnOffAllLampsEvening');				
+				eventComponent.replaceEventOnceTomorrow(0, eventContext.getRandom().nextInt(30), 'turnOffAllLampsEvening');				
 			} else  if(event.getName().equals('turnOffAllLampsMorning')) {
-				eventComponent.registerEventOnceTomorrow(8,eventContext.getRandom().nextInt(30), 'turnOffAllLampsMorning');				
+				eventComponent.replaceEventOnceTomorrow(8, eventContext.getRandom().nextInt(30), 'turnOffAllLampsMorning');				
 			} else {
 				reset = false;
 			}
 		}
 		
 		if(reset) {
+			var lamps = new java.util.HashMap();
 			for each (var lamp in eventContext.getLampDao().getLamps()) {
 				lamp.setOn(false);
-				eventContext.getLampDao().updateLamp(lamp.getId(), lamp);
+				lamps.put(lamp.getId(), lamp);
 			}
+			eventContext.getLampDao().updateLamps(lamps);
 		}
 	}
 }
@@ -53,11 +55,11 @@ var ChangeLampStateEvent = new Packages.com.autodomum.core.event.EventCallback()
 
 var TurnOnLampsEvening = new Packages.com.autodomum.core.event.EventCallback() {
 	work: function(eventContext, event) {
-			eventComponent.registerEventOnce(eventContext.getRandom().nextInt(900000), 'turnOnLampDownstairs');
-			eventComponent.registerEventOnce(eventContext.getRandom().nextInt(900000), 'turnOnLampUpstairs');
+			eventComponent.replaceEventOnce(eventContext.getRandom().nextInt(900000), 'turnOnLampDownstairs');
+			eventComponent.replaceEventOnce(eventContext.getRandom().nextInt(900000), 'turnOnLampUpstairs');
 			
-			eventComponent.registerEventOnce(3 * 3600000 + eventContext.getRandom().nextInt(120000), 'turnOffLampDownstairs');
-			eventComponent.registerEventOnce(3 * 3600000 + eventContext.getRandom().nextInt(120000), 'turnOffLampUpstairs');
+			eventComponent.replaceEventOnce(3 * 3600000 + eventContext.getRandom().nextInt(120000), 'turnOffLampDownstairs');
+			eventComponent.replaceEventOnce(3 * 3600000 + eventContext.getRandom().nextInt(120000), 'turnOffLampUpstairs');
 	}
 }
 
@@ -66,5 +68,5 @@ eventComponent.register(Packages.com.autodomum.core.event.FireOnceEvent.class, C
 
 eventComponent.register(Packages.com.autodomum.core.event.SunsetEvent.class, TurnOnLampsEvening);
 
-eventComponent.registerEventOnceTomorrow(0, 30, 'turnOffAllLampsEvening');
-eventComponent.registerEventOnceTomorrow(8, 30, 'turnOffAllLampsMorning');
+eventComponent.replaceEventOnceTomorrow(0, 30, 'turnOffAllLampsEvening');
+eventComponent.replaceEventOnceTomorrow(8, 30, 'turnOffAllLampsMorning');
@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.holiday.sweden;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.junit.Test;
+
+import com.autodomum.core.holiday.HolidayCalendar;
+import com.autodomum.core.holiday.HolidayProviders;
+import com.autodomum.core.holiday.NamedHoliday;
+
+/**
+ * Test of the <code>SwedishHolidayProvider</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class SwedishHolidayProviderTest {
+
+	@Test
+	public void testSameAsSwedishHolidays() {
+		final SwedishHolidays swedishHolidays = new SwedishHolidays();
+		final HolidayCalendar calendar = new SwedishHolidayProvider().createCalendar();
+
+		for (int year = 1990; year <= 2050; year++) {
+			assertEquals(Integer.toString(year), swedishHolidays.getCalendar().getHolidays(year),
+					calendar.getHolidays(year));
+		}
+	}
+
+	@Test
+	public void testServiceLoader() {
+		final HolidayProviders holidayProviders = new HolidayProviders();
+
+		assertTrue(holidayProviders.getRegions().contains("SE"));
+		final HolidayCalendar calendar = holidayProviders.getCalendar("se");
+		assertTrue(calendar.isHoliday(new GregorianCalendar(2016, Calendar.JUNE, 24)));
+		assertEquals(new NamedHoliday(LocalDate.of(2016, 11, 5), "All Saints' Day"),
+				calendar.nextHoliday(LocalDate.of(2016, 6, 27)));
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends commands by starting the <code>tdtool</code> command line tool, one
+ * process per command
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class ExecTelldusTransport implements TelldusTransport {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ExecTelldusTransport.class);
+
+	@Override
+	public void turnOn(final String callId) throws IOException {
+		Runtime.getRuntime().exec("tdtool --on " + callId);
+		LOG.debug("Call: tdtool --on {}", callId);
+	}
+
+	@Override
+	public void turnOff(final String callId) throws IOException {
+		Runtime.getRuntime().exec("tdtool --off " + callId);
+		LOG.debug("Call: tdtool --off {}", callId);
+	}
+}
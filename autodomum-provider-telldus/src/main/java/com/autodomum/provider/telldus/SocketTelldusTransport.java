@@ -0,0 +1,325 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends commands directly to the telldusd service using its client protocol,
+ * over a connection that is kept open between commands. Several commands are
+ * written at once and their replies are read afterwards.
+ * <p>
+ * Java 8 does not support UNIX domain sockets, so telldusd's client socket
+ * (usually <code>/tmp/TelldusClient</code>) has to be exposed via TCP, e.g.
+ * <code>socat TCP-LISTEN:50800,bind=127.0.0.1,fork,reuseaddr UNIX-CONNECT:/tmp/TelldusClient</code>.
+ * The stock telldusd answers one command per connection and then closes it;
+ * the transport then reconnects and sends the commands that have not been
+ * answered.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class SocketTelldusTransport implements TelldusTransport {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SocketTelldusTransport.class);
+
+	private static final int SUCCESS = 0;
+
+	private static final int DEFAULT_TIMEOUT = 5000;
+
+	private final String host;
+
+	private final int port;
+
+	private final int timeout;
+
+	private Socket socket;
+
+	private OutputStream outputStream;
+
+	private InputStream inputStream;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param host
+	 *            the host of telldusd
+	 * @param port
+	 *            the TCP port of telldusd
+	 */
+	public SocketTelldusTransport(final String host, final int port) {
+		this(host, port, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param host
+	 *            the host of telldusd
+	 * @param port
+	 *            the TCP port of telldusd
+	 * @param timeout
+	 *            the connect and read timeout in milliseconds
+	 */
+	public SocketTelldusTransport(final String host, final int port, final int timeout) {
+		if (host == null) {
+			throw new NullPointerException("Host may not be null");
+		}
+
+		if (port <= 0 || port > 65535) {
+			throw new IllegalArgumentException("Invalid port: " + port);
+		}
+
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Timeout may not be negative: " + timeout);
+		}
+
+		this.host = host;
+		this.port = port;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public void turnOn(final String callId) throws IOException {
+		this.send(true, Collections.singletonList(callId));
+	}
+
+	@Override
+	public void turnOff(final String callId) throws IOException {
+		this.send(false, Collections.singletonList(callId));
+	}
+
+	@Override
+	public synchronized void send(final boolean on, final Collection<String> callIds) throws IOException {
+		final String function = on ? "tdTurnOn" : "tdTurnOff";
+		final List<String> ids = new ArrayList<>(callIds);
+		final List<String> messages = new ArrayList<>(ids.size());
+
+		for (final String callId : ids) {
+			messages.add(encode(function, deviceId(callId)));
+		}
+
+		final int[] results = new int[messages.size()];
+		int answered = 0;
+		boolean retried = false;
+
+		while (answered < messages.size()) {
+			final int count = this.exchange(messages, answered, results);
+
+			if (count == 0) {
+				if (retried) {
+					throw new IOException("telldusd at " + this.host + ":" + this.port + " closed the connection");
+				}
+				retried = true;
+			} else {
+				retried = false;
+			}
+			answered += count;
+		}
+
+		for (int i = 0; i < results.length; i++) {
+			LOG.debug("Call: {} {} returned {}", function, ids.get(i), results[i]);
+
+			if (results[i] != SUCCESS) {
+				throw new IOException("telldusd returned " + results[i] + " for " + function + " " + ids.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Write messages and read their replies. If the connection is closed by
+	 * telldusd it is disconnected, to be reconnected by the next exchange.
+	 * 
+	 * @param messages
+	 *            all messages
+	 * @param from
+	 *            the index of the first message to send
+	 * @param results
+	 *            the results of all messages
+	 * @return the number of messages that were answered
+	 * @throws IOException
+	 *             if telldusd could not be reached or did not reply in time
+	 */
+	private int exchange(final List<String> messages, final int from, final int[] results) throws IOException {
+		if (this.socket == null) {
+			this.connect();
+		}
+
+		int count = 0;
+		try {
+			final StringBuilder builder = new StringBuilder();
+			for (int i = from; i < messages.size(); i++) {
+				builder.append(messages.get(i));
+			}
+
+			this.outputStream.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+			this.outputStream.flush();
+
+			for (int i = from; i < messages.size(); i++) {
+				final Integer result = this.readInteger();
+				if (result == null) {
+					this.disconnect();
+					return count;
+				}
+				results[i] = result;
+				count++;
+			}
+			return count;
+
+		} catch (SocketTimeoutException e) {
+			this.disconnect();
+			throw e;
+		} catch (IOException e) {
+			LOG.debug("Connection to telldusd lost", e);
+			this.disconnect();
+			return count;
+		}
+	}
+
+	/**
+	 * Read an integer reply, encoded as <code>i&lt;value&gt;s</code>
+	 * 
+	 * @return the value or null if the connection was closed
+	 * @throws IOException
+	 *             if the reply is invalid
+	 */
+	private Integer readInteger() throws IOException {
+		int c = this.inputStream.read();
+		if (c == -1) {
+			return null;
+		}
+
+		if (c != 'i') {
+			throw new IOException("Unexpected reply from telldusd: " + (char) c);
+		}
+
+		final StringBuilder value = new StringBuilder();
+		while ((c = this.inputStream.read()) != 's') {
+			if (c == -1) {
+				return null;
+			}
+			value.append((char) c);
+		}
+
+		try {
+			return Integer.valueOf(value.toString());
+		} catch (NumberFormatException e) {
+			throw new IOException("Unexpected reply from telldusd: i" + value + "s", e);
+		}
+	}
+
+	/**
+	 * Connect to telldusd
+	 * 
+	 * @throws IOException
+	 *             if the connection failed
+	 */
+	private void connect() throws IOException {
+		final Socket socket = new Socket();
+		try {
+			socket.setTcpNoDelay(true);
+			socket.setSoTimeout(this.timeout);
+			socket.connect(new InetSocketAddress(this.host, this.port), this.timeout);
+		} catch (IOException e) {
+			socket.close();
+			throw e;
+		}
+
+		this.socket = socket;
+		this.outputStream = socket.getOutputStream();
+		this.inputStream = new BufferedInputStream(socket.getInputStream());
+		LOG.debug("Connected to telldusd at {}:{}", this.host, this.port);
+	}
+
+	/**
+	 * Close the connection to telldusd, if connected
+	 */
+	private void disconnect() {
+		if (this.socket != null) {
+			try {
+				this.socket.close();
+			} catch (IOException e) {
+				LOG.debug("Failed to close connection to telldusd", e);
+			}
+			this.socket = null;
+			this.outputStream = null;
+			this.inputStream = null;
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		this.disconnect();
+	}
+
+	/**
+	 * Encode a function call with a single integer argument
+	 * 
+	 * @param function
+	 *            the function name
+	 * @param argument
+	 *            the argument
+	 * @return the message
+	 */
+	static String encode(final String function, final int argument) {
+		return function.length() + ":" + function + "i" + argument + "s";
+	}
+
+	/**
+	 * Parse a device id
+	 * 
+	 * @param callId
+	 *            the device id
+	 * @return the device id as an integer
+	 * @throws IOException
+	 *             if the device id is not numeric
+	 */
+	private static int deviceId(final String callId) throws IOException {
+		try {
+			return Integer.parseInt(callId);
+		} catch (NumberFormatException e) {
+			throw new IOException("Telldus device id must be numeric: " + callId, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SocketTelldusTransport [host=" + host + ", port=" + port + "]";
+	}
+}
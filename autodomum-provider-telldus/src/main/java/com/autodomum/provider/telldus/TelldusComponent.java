@@ -24,8 +24,10 @@
 package com.autodomum.provider.telldus;
 
 import java.io.IOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -33,10 +35,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import com.autodomum.core.event.BoundedEventQueue;
 import com.autodomum.core.event.Event;
 import com.autodomum.core.event.EventCallback;
 import com.autodomum.core.event.EventContext;
 import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
+import com.autodomum.core.event.OverflowPolicy;
 import com.autodomum.core.model.Lamp;
 
 /**
@@ -44,10 +49,21 @@ import com.autodomum.core.model.Lamp;
  * for managing power switches. Please read
  * <a href="http://developer.telldus.se/wiki/tellstickController">Telldus
  * developer forums</a> on how to install the <code>tdtool</code> that this
- * component is using for changing states on power switches.
+ * component is using for changing states on power switches by default. A
+ * <code>SocketTelldusTransport</code> may be set to talk to telldusd directly,
+ * with <code>tdtool</code> as fallback.
  * <p>
  * Telldus is registered to Telldus Technologies AB, Sweden
  * </p>
+ * <p>
+ * By default only the latest state of each lamp is kept while waiting to be
+ * sent. Each device is sent a number of repeated frames, interleaved with the
+ * frames of other devices and separated by a gap so that the frames do not
+ * collide on the radio. A newer state for a device replaces its pending
+ * repeats. Consecutive frames with the same state, such as the lamps of a
+ * <code>LampsStateChangedEvent</code>, are handed to the transport as one
+ * batch.
+ * </p>
  * 
  * @author Kenny Colliander Nordin
  * @since 0.0.1
@@ -58,43 +74,243 @@ public class TelldusComponent implements Runnable, EventCallback {
 
 	private static final Logger LOG = LoggerFactory.getLogger(TelldusComponent.class);
 
-	private BlockingQueue<Lamp> lampStates = new LinkedBlockingQueue<>();
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	private static final int DEFAULT_REPEATS = 3;
+
+	private static final long DEFAULT_FRAME_GAP = 250L;
+
+	private volatile BoundedEventQueue<Lamp> lampStates = new BoundedEventQueue<>(DEFAULT_CAPACITY,
+			OverflowPolicy.COALESCE, Lamp::getId);
+
+	private volatile TelldusTransport fallbackTransport = new ExecTelldusTransport();
+
+	private volatile TelldusTransport transport;
+
+	private final TransmitScheduler transmitScheduler = new TransmitScheduler(DEFAULT_REPEATS);
+
+	private volatile int repeats = DEFAULT_REPEATS;
+
+	private volatile long frameGap = DEFAULT_FRAME_GAP;
 
 	@Override
 	public void work(final EventContext eventContext, final Event event) {
 		if (event instanceof LampStateChangedEvent) {
-			this.lampStates.add(((LampStateChangedEvent) event).getLamp());
+			this.offer(((LampStateChangedEvent) event).getLamp());
+		} else if (event instanceof LampsStateChangedEvent) {
+			for (final Lamp lamp : ((LampsStateChangedEvent) event).getLamps()) {
+				this.offer(lamp);
+			}
+		}
+	}
+
+	/**
+	 * Queue a copy of a lamp state to be sent
+	 * 
+	 * @param lamp
+	 *            the lamp
+	 */
+	private void offer(final Lamp lamp) {
+		final Lamp copy = (Lamp) lamp.clone();
+		if (!this.lampStates.offer(copy)) {
+			LOG.warn("Too many pending lamp states, rejected {}", copy);
 		}
 	}
 
+	/**
+	 * Limit the number of lamp states waiting to be sent. Should be set before
+	 * the component is started, pending lamp states are not moved.
+	 * 
+	 * @param capacity
+	 *            the maximum number of pending lamp states
+	 * @param overflowPolicy
+	 *            the policy when too many lamp states are pending,
+	 *            <code>OverflowPolicy.COALESCE</code> keeps only the latest
+	 *            state of each lamp
+	 */
+	public void setLampStateLimit(final int capacity, final OverflowPolicy overflowPolicy) {
+		this.lampStates = new BoundedEventQueue<>(capacity, overflowPolicy, Lamp::getId);
+	}
+
+	/**
+	 * @param lampStates
+	 *            the queue of lamp states waiting to be sent
+	 */
+	void setLampStates(final BoundedEventQueue<Lamp> lampStates) {
+		this.lampStates = lampStates;
+	}
+
+	/**
+	 * @param transport
+	 *            the transport used to send commands, the fallback transport
+	 *            is used if it fails or if no transport is set
+	 */
+	public void setTransport(final TelldusTransport transport) {
+		if (transport == null) {
+			throw new NullPointerException("Transport may not be null");
+		}
+		this.transport = transport;
+	}
+
+	/**
+	 * @param fallbackTransport
+	 *            the transport used if the transport fails or is not set
+	 */
+	public void setFallbackTransport(final TelldusTransport fallbackTransport) {
+		if (fallbackTransport == null) {
+			throw new NullPointerException("Fallback transport may not be null");
+		}
+		this.fallbackTransport = fallbackTransport;
+	}
+
+	/**
+	 * @param repeats
+	 *            the number of frames sent to each device for a state change
+	 */
+	public void setRepeats(final int repeats) {
+		if (repeats <= 0) {
+			throw new IllegalArgumentException("Repeats must be positive: " + repeats);
+		}
+		this.repeats = repeats;
+	}
+
+	/**
+	 * @param frameGap
+	 *            the time in milliseconds between two frames on the radio
+	 */
+	public void setFrameGap(final long frameGap) {
+		if (frameGap < 0) {
+			throw new IllegalArgumentException("Frame gap may not be negative: " + frameGap);
+		}
+		this.frameGap = frameGap;
+	}
+
+	/**
+	 * @return the lamp states waiting to be sent
+	 */
+	public BoundedEventQueue<Lamp> getLampStates() {
+		return lampStates;
+	}
+
 	@Override
 	public void run() {
 		LOG.info("Started!");
 		try {
+			final List<Lamp> lamps = new ArrayList<>();
+			long nextFrame = System.nanoTime();
 			while (true) {
-				final Lamp lamp = lampStates.poll(1, TimeUnit.HOURS);
-
-				if (lamp != null && lamp.getCallIds() != null) {
-					for (String callId : lamp.getCallIds()) {
-						try {
-							for (int i = 0; i < 3; i++) {
-								if (lamp.getOn()) {
-									Runtime.getRuntime().exec("tdtool --on " + callId);
-									LOG.debug("Call: tdtool --on {}", callId);
-								} else {
-									Runtime.getRuntime().exec("tdtool --off " + callId);
-									LOG.debug("Call: tdtool --off {}", callId);
-								}
-							}
-						} catch (IOException e) {
-							LOG.warn("Failed to call tdtool for {}", lamp, e);
-						}
-						Thread.sleep(1500);
+				// Transmit before taking new lamp states, so that a steady
+				// stream of lamp states can not starve the radio
+				if (!this.transmitScheduler.isEmpty() && nextFrame - System.nanoTime() <= 0) {
+					this.transmitNextFrame();
+					nextFrame = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.frameGap);
+				}
+
+				final long wait = this.transmitScheduler.isEmpty() ? TimeUnit.HOURS.toNanos(1)
+						: nextFrame - System.nanoTime();
+				if (wait > 0) {
+					final Lamp lamp = this.lampStates.poll(wait, TimeUnit.NANOSECONDS);
+					if (lamp != null) {
+						this.schedule(lamp);
 					}
 				}
+
+				this.lampStates.drainTo(lamps);
+				for (final Lamp lamp : lamps) {
+					this.schedule(lamp);
+				}
+				lamps.clear();
 			}
 		} catch (InterruptedException e) {
 		}
+
+		final TelldusTransport transport = this.transport != null ? this.transport : this.fallbackTransport;
+		try {
+			transport.close();
+		} catch (IOException e) {
+			LOG.debug("Failed to close {}", transport, e);
+		}
 		LOG.info("Exit!");
 	}
+
+	/**
+	 * Schedule the state of a lamp for all its call ids
+	 * 
+	 * @param lamp
+	 *            the lamp
+	 */
+	private void schedule(final Lamp lamp) {
+		if (lamp.getCallIds() == null || lamp.getOn() == null) {
+			return;
+		}
+
+		this.transmitScheduler.setRepeats(this.repeats);
+		for (final String callId : lamp.getCallIds()) {
+			this.transmitScheduler.schedule(callId, lamp.getOn());
+		}
+	}
+
+	/**
+	 * Send the next batch of scheduled frames
+	 */
+	private void transmitNextFrame() {
+		final List<TransmitScheduler.Transmission> batch = this.transmitScheduler.nextBatch();
+		final List<String> callIds = new ArrayList<>(batch.size());
+		for (final TransmitScheduler.Transmission transmission : batch) {
+			callIds.add(transmission.getCallId());
+		}
+
+		try {
+			this.send(batch.get(0).isOn(), callIds);
+		} catch (IOException e) {
+			LOG.warn("Failed to send state to {}", callIds, e);
+		}
+	}
+
+	/**
+	 * Send a command, using the fallback transport if the transport fails or
+	 * is not set
+	 * 
+	 * @param on
+	 *            true to turn on the device
+	 * @param callId
+	 *            the device id
+	 * @throws IOException
+	 *             if the command could not be sent
+	 */
+	void send(final boolean on, final String callId) throws IOException {
+		this.send(on, Collections.singletonList(callId));
+	}
+
+	/**
+	 * Send a command to several devices, using the fallback transport for all
+	 * of them if the transport fails or is not set
+	 * 
+	 * @param on
+	 *            true to turn on the devices
+	 * @param callIds
+	 *            the device ids
+	 * @throws IOException
+	 *             if the commands could not be sent
+	 */
+	void send(final boolean on, final Collection<String> callIds) throws IOException {
+		final TelldusTransport transport = this.transport;
+		final TelldusTransport fallbackTransport = this.fallbackTransport;
+
+		if (transport == null) {
+			fallbackTransport.send(on, callIds);
+			return;
+		}
+
+		try {
+			transport.send(on, callIds);
+		} catch (IOException e) {
+			if (transport == fallbackTransport) {
+				throw e;
+			}
+
+			LOG.warn("Failed to send via {}, falling back to {}", transport, fallbackTransport, e);
+			fallbackTransport.send(on, callIds);
+		}
+	}
 }
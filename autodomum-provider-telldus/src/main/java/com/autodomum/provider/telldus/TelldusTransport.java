@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Sends commands to power switches via Telldus
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public interface TelldusTransport extends Closeable {
+
+	/**
+	 * Turn on a device
+	 * 
+	 * @param callId
+	 *            the device id
+	 * @throws IOException
+	 *             if the command could not be sent
+	 */
+	void turnOn(String callId) throws IOException;
+
+	/**
+	 * Turn off a device
+	 * 
+	 * @param callId
+	 *            the device id
+	 * @throws IOException
+	 *             if the command could not be sent
+	 */
+	void turnOff(String callId) throws IOException;
+
+	/**
+	 * Turn on or off several devices. Transports that can send several
+	 * commands at once should override this method.
+	 * 
+	 * @param on
+	 *            true to turn on the devices
+	 * @param callIds
+	 *            the device ids
+	 * @throws IOException
+	 *             if any of the commands could not be sent
+	 */
+	default void send(final boolean on, final Collection<String> callIds) throws IOException {
+		for (final String callId : callIds) {
+			if (on) {
+				this.turnOn(callId);
+			} else {
+				this.turnOff(callId);
+			}
+		}
+	}
+
+	@Override
+	default void close() throws IOException {
+	}
+}
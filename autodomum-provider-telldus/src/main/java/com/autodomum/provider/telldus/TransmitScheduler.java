@@ -0,0 +1,180 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedules radio frames for devices that share a transmitter. Each device is
+ * sent a number of repeats, but instead of repeating a device back-to-back
+ * every round sends one frame to each pending device, so all devices get their
+ * first frame before any device is repeated. A newer state for a device
+ * replaces its pending repeats.
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+class TransmitScheduler {
+
+	private final Deque<Transmission> round = new ArrayDeque<>();
+
+	private final Map<String, Transmission> pending = new HashMap<>();
+
+	private int repeats;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param repeats
+	 *            the number of frames to send to each device
+	 */
+	TransmitScheduler(final int repeats) {
+		this.setRepeats(repeats);
+	}
+
+	/**
+	 * Schedule a state for a device. If the device already is pending, its
+	 * state is replaced and its repeats are restarted without changing its
+	 * place in the round.
+	 * 
+	 * @param callId
+	 *            the device id
+	 * @param on
+	 *            true to turn on the device
+	 */
+	void schedule(final String callId, final boolean on) {
+		Transmission transmission = this.pending.get(callId);
+
+		if (transmission == null) {
+			transmission = new Transmission(callId);
+			this.pending.put(callId, transmission);
+			this.round.add(transmission);
+		}
+
+		transmission.on = on;
+		transmission.remaining = this.repeats;
+	}
+
+	/**
+	 * Retrieve the next frame to send
+	 * 
+	 * @return the next frame or null if nothing is pending
+	 */
+	Transmission next() {
+		final Transmission transmission = this.round.poll();
+		if (transmission == null) {
+			return null;
+		}
+
+		if (--transmission.remaining > 0) {
+			this.round.add(transmission);
+		} else {
+			this.pending.remove(transmission.callId);
+		}
+
+		return transmission;
+	}
+
+	/**
+	 * Retrieve the next frames to send as one batch: the next frame and the
+	 * frames that directly follow it in the round with the same state, at
+	 * most one frame per device
+	 * 
+	 * @return the frames, empty if nothing is pending
+	 */
+	List<Transmission> nextBatch() {
+		final int size = this.round.size();
+		final Transmission first = this.next();
+		if (first == null) {
+			return Collections.emptyList();
+		}
+
+		final List<Transmission> batch = new ArrayList<>(size);
+		batch.add(first);
+
+		for (int i = 1; i < size && this.round.peek().on == first.on; i++) {
+			batch.add(this.next());
+		}
+		return batch;
+	}
+
+	/**
+	 * @return true if no frames are pending
+	 */
+	boolean isEmpty() {
+		return this.round.isEmpty();
+	}
+
+	/**
+	 * @return the number of devices with pending frames
+	 */
+	int size() {
+		return this.round.size();
+	}
+
+	/**
+	 * @param repeats
+	 *            the number of frames to send to each device, applies to
+	 *            states scheduled afterwards
+	 */
+	void setRepeats(final int repeats) {
+		if (repeats <= 0) {
+			throw new IllegalArgumentException("Repeats must be positive: " + repeats);
+		}
+		this.repeats = repeats;
+	}
+
+	/**
+	 * A device with pending frames
+	 */
+	static class Transmission {
+
+		private final String callId;
+
+		private boolean on;
+
+		private int remaining;
+
+		Transmission(final String callId) {
+			this.callId = callId;
+		}
+
+		String getCallId() {
+			return callId;
+		}
+
+		boolean isOn() {
+			return on;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fake telldusd that answers function calls with a single integer argument
+ * over TCP and records them
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class FakeTelldusService implements Closeable {
+
+	private final ServerSocket serverSocket;
+
+	private final boolean singleRequest;
+
+	private final List<String> commands = Collections.synchronizedList(new ArrayList<>());
+
+	private final AtomicInteger connections = new AtomicInteger();
+
+	private volatile int result;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param singleRequest
+	 *            true to close each connection after one reply, like the stock
+	 *            telldusd
+	 * @throws IOException
+	 */
+	public FakeTelldusService(final boolean singleRequest) throws IOException {
+		this.singleRequest = singleRequest;
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+		final Thread thread = new Thread(this::accept, "FakeTelldusService");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void accept() {
+		try {
+			while (true) {
+				final Socket socket = this.serverSocket.accept();
+				this.connections.incrementAndGet();
+
+				final Thread thread = new Thread(() -> this.serve(socket), "FakeTelldusConnection");
+				thread.setDaemon(true);
+				thread.start();
+			}
+		} catch (IOException e) {
+		}
+	}
+
+	private void serve(final Socket socket) {
+		try (Socket s = socket) {
+			final InputStream inputStream = new BufferedInputStream(s.getInputStream());
+			final OutputStream outputStream = s.getOutputStream();
+
+			while (true) {
+				final String function = readString(inputStream);
+				if (function == null) {
+					return;
+				}
+
+				if (inputStream.read() != 'i') {
+					return;
+				}
+
+				this.commands.add(function + " " + readUntil(inputStream, 's'));
+				outputStream.write(("i" + this.result + "s").getBytes(StandardCharsets.UTF_8));
+				outputStream.flush();
+
+				if (this.singleRequest) {
+					return;
+				}
+			}
+		} catch (IOException e) {
+		}
+	}
+
+	private static String readString(final InputStream inputStream) throws IOException {
+		final String length = readUntil(inputStream, ':');
+		if (length == null || length.isEmpty()) {
+			return null;
+		}
+
+		final StringBuilder builder = new StringBuilder();
+		for (int i = Integer.parseInt(length); i > 0; i--) {
+			builder.append((char) inputStream.read());
+		}
+		return builder.toString();
+	}
+
+	private static String readUntil(final InputStream inputStream, final char delimiter) throws IOException {
+		final StringBuilder builder = new StringBuilder();
+		int c;
+		while ((c = inputStream.read()) != delimiter) {
+			if (c == -1) {
+				return null;
+			}
+			builder.append((char) c);
+		}
+		return builder.toString();
+	}
+
+	public int getPort() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	public List<String> getCommands() {
+		synchronized (this.commands) {
+			return new ArrayList<>(this.commands);
+		}
+	}
+
+	public int getConnections() {
+		return this.connections.get();
+	}
+
+	public void setResult(final int result) {
+		this.result = result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.serverSocket.close();
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test of the <code>SocketTelldusTransport</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class SocketTelldusTransportTest {
+
+	private FakeTelldusService service;
+
+	private SocketTelldusTransport transport;
+
+	@After
+	public void after() throws IOException {
+		if (this.transport != null) {
+			this.transport.close();
+		}
+		if (this.service != null) {
+			this.service.close();
+		}
+	}
+
+	private void start(final boolean singleRequest) throws IOException {
+		this.service = new FakeTelldusService(singleRequest);
+		this.transport = new SocketTelldusTransport("127.0.0.1", this.service.getPort());
+	}
+
+	@Test
+	public void testEncode() {
+		assertEquals("8:tdTurnOni1s", SocketTelldusTransport.encode("tdTurnOn", 1));
+		assertEquals("9:tdTurnOffi12s", SocketTelldusTransport.encode("tdTurnOff", 12));
+	}
+
+	@Test
+	public void testPersistentConnection() throws IOException {
+		this.start(false);
+
+		this.transport.turnOn("1");
+		this.transport.turnOff("2");
+		this.transport.turnOn("3");
+
+		assertEquals(Arrays.asList("tdTurnOn 1", "tdTurnOff 2", "tdTurnOn 3"), this.service.getCommands());
+		assertEquals(1, this.service.getConnections());
+	}
+
+	@Test
+	public void testPipelined() throws IOException {
+		this.start(false);
+
+		this.transport.send(false, Arrays.asList("1", "2", "3"));
+
+		assertEquals(Arrays.asList("tdTurnOff 1", "tdTurnOff 2", "tdTurnOff 3"), this.service.getCommands());
+		assertEquals(1, this.service.getConnections());
+	}
+
+	@Test
+	public void testReconnectAfterSingleRequest() throws IOException {
+		this.start(true);
+
+		this.transport.send(true, Arrays.asList("1", "2", "3"));
+		this.transport.turnOff("4");
+
+		assertEquals(Arrays.asList("tdTurnOn 1", "tdTurnOn 2", "tdTurnOn 3", "tdTurnOff 4"),
+				this.service.getCommands());
+		assertEquals(4, this.service.getConnections());
+	}
+
+	@Test(expected = IOException.class)
+	public void testErrorResult() throws IOException {
+		this.start(false);
+		this.service.setResult(-3);
+
+		this.transport.turnOn("1");
+	}
+
+	@Test(expected = IOException.class)
+	public void testNonNumericCallId() throws IOException {
+		this.start(false);
+
+		this.transport.turnOn("kitchen");
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotRunning() throws IOException {
+		final int port;
+		try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			port = serverSocket.getLocalPort();
+		}
+
+		this.transport = new SocketTelldusTransport("127.0.0.1", port);
+		this.transport.turnOn("1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPort() {
+		new SocketTelldusTransport("127.0.0.1", 0);
+	}
+}
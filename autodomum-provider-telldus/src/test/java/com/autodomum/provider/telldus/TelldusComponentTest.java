@@ -0,0 +1,309 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.autodomum.core.event.BoundedEventQueue;
+import com.autodomum.core.event.LampStateChangedEvent;
+import com.autodomum.core.event.LampsStateChangedEvent;
+import com.autodomum.core.event.OverflowPolicy;
+import com.autodomum.core.model.Lamp;
+
+/**
+ * Test of the <code>TelldusComponent</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class TelldusComponentTest {
+
+	@Test
+	public void testCoalesceLampStates() {
+		final TelldusComponent component = new TelldusComponent();
+		final Lamp lamp = new Lamp();
+		lamp.setId("lamp1");
+
+		for (int i = 0; i < 10; i++) {
+			lamp.setOn(i % 2 == 0);
+			component.work(null, new LampStateChangedEvent(lamp));
+		}
+
+		final Lamp pending = component.getLampStates().poll();
+		assertEquals("lamp1", pending.getId());
+		assertFalse(pending.getOn());
+		assertNull(component.getLampStates().poll());
+		assertEquals(9, component.getLampStates().getCoalescedCount());
+	}
+
+	@Test
+	public void testBatch() {
+		final TelldusComponent component = new TelldusComponent();
+		final Lamp lamp1 = new Lamp("1", "a", true, 0, 0, Arrays.asList("1"));
+		final Lamp lamp2 = new Lamp("2", "b", false, 0, 0, Arrays.asList("2"));
+
+		component.work(null, new LampsStateChangedEvent(Arrays.asList(lamp1, lamp2)));
+
+		assertEquals(lamp1, component.getLampStates().poll());
+		assertEquals(lamp2, component.getLampStates().poll());
+		assertNull(component.getLampStates().poll());
+	}
+
+	@Test
+	public void testLampStatesAreSnapshots() {
+		final TelldusComponent component = new TelldusComponent();
+		component.setLampStateLimit(10, OverflowPolicy.BLOCK);
+		final Lamp lamp = new Lamp();
+		lamp.setId("lamp1");
+
+		lamp.setOn(true);
+		component.work(null, new LampStateChangedEvent(lamp));
+		lamp.setOn(false);
+		component.work(null, new LampStateChangedEvent(lamp));
+
+		assertEquals(Boolean.TRUE, component.getLampStates().poll().getOn());
+		assertEquals(Boolean.FALSE, component.getLampStates().poll().getOn());
+	}
+
+	@Test
+	public void testSendFallback() throws IOException {
+		final TelldusComponent component = new TelldusComponent();
+		final List<String> sent = new ArrayList<>();
+
+		component.setTransport(new TelldusTransport() {
+			@Override
+			public void turnOn(String callId) throws IOException {
+				throw new IOException("Not running");
+			}
+
+			@Override
+			public void turnOff(String callId) throws IOException {
+				throw new IOException("Not running");
+			}
+		});
+		component.setFallbackTransport(new TelldusTransport() {
+			@Override
+			public void turnOn(String callId) throws IOException {
+				sent.add("on " + callId);
+			}
+
+			@Override
+			public void turnOff(String callId) throws IOException {
+				sent.add("off " + callId);
+			}
+		});
+
+		component.send(true, "1");
+		component.send(false, "2");
+
+		assertEquals(Arrays.asList("on 1", "off 2"), sent);
+	}
+
+	@Test
+	public void testRunFallbackOnly() throws InterruptedException {
+		final TelldusComponent component = new TelldusComponent();
+		final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+		component.setRepeats(1);
+		component.setFrameGap(1);
+		component.setFallbackTransport(new TelldusTransport() {
+			@Override
+			public void turnOn(String callId) throws IOException {
+				sent.add("on " + callId);
+			}
+
+			@Override
+			public void turnOff(String callId) throws IOException {
+				sent.add("off " + callId);
+			}
+
+			@Override
+			public void close() throws IOException {
+				sent.add("close");
+			}
+		});
+
+		component.work(null, new LampStateChangedEvent(new Lamp("1", "a", true, 0, 0, Arrays.asList("1"))));
+
+		final Thread thread = new Thread(component);
+		thread.start();
+
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (sent.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		thread.interrupt();
+		thread.join(5000);
+
+		assertFalse(thread.isAlive());
+		assertEquals(Arrays.asList("on 1", "close"), sent);
+	}
+
+	@Test
+	public void testRunInterleavesFrames() throws InterruptedException {
+		final TelldusComponent component = new TelldusComponent();
+		final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+		component.setRepeats(2);
+		component.setFrameGap(1);
+		component.setTransport(new TelldusTransport() {
+			@Override
+			public void turnOn(String callId) throws IOException {
+				sent.add("on " + callId);
+			}
+
+			@Override
+			public void turnOff(String callId) throws IOException {
+				sent.add("off " + callId);
+			}
+		});
+
+		component.work(null, new LampStateChangedEvent(new Lamp("1", "a", true, 0, 0, Arrays.asList("1"))));
+		component.work(null, new LampStateChangedEvent(new Lamp("2", "b", false, 0, 0, Arrays.asList("2", "3"))));
+
+		final Thread thread = new Thread(component);
+		thread.start();
+
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (sent.size() < 6 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		thread.interrupt();
+		thread.join(5000);
+
+		assertFalse(thread.isAlive());
+		assertEquals(Arrays.asList("on 1", "off 2", "off 3", "on 1", "off 2", "off 3"), sent);
+	}
+
+	@Test
+	public void testRunBatchesFrames() throws InterruptedException {
+		final TelldusComponent component = new TelldusComponent();
+		final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+		component.setRepeats(1);
+		component.setFrameGap(1);
+		component.setTransport(new TelldusTransport() {
+			@Override
+			public void turnOn(String callId) throws IOException {
+				throw new IOException("Not batched");
+			}
+
+			@Override
+			public void turnOff(String callId) throws IOException {
+				throw new IOException("Not batched");
+			}
+
+			@Override
+			public void send(boolean on, Collection<String> callIds) throws IOException {
+				sent.add((on ? "on " : "off ") + callIds);
+			}
+		});
+
+		component.work(null,
+				new LampsStateChangedEvent(Arrays.asList(new Lamp("1", "a", true, 0, 0, Arrays.asList("1", "2")),
+						new Lamp("2", "b", true, 0, 0, Arrays.asList("3")),
+						new Lamp("3", "c", false, 0, 0, Arrays.asList("4")))));
+
+		final Thread thread = new Thread(component);
+		thread.start();
+
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (sent.size() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		thread.interrupt();
+		thread.join(5000);
+
+		assertFalse(thread.isAlive());
+		assertEquals(Arrays.asList("on [1, 2, 3]", "off [4]"), sent);
+	}
+
+	@Test
+	public void testRunIsNotStarvedByLampStates() throws InterruptedException {
+		final TelldusComponent component = new TelldusComponent();
+		final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+		component.setFrameGap(1);
+		component.setTransport(new TelldusTransport() {
+			@Override
+			public void turnOn(String callId) throws IOException {
+				sent.add("on " + callId);
+			}
+
+			@Override
+			public void turnOff(String callId) throws IOException {
+				sent.add("off " + callId);
+			}
+		});
+
+		// A queue that always has another lamp state
+		final Lamp lamp = new Lamp("1", "a", true, 0, 0, Arrays.asList("1"));
+		component.setLampStates(new BoundedEventQueue<Lamp>(1, OverflowPolicy.COALESCE, Lamp::getId) {
+			@Override
+			public Lamp poll() {
+				return lamp;
+			}
+
+			@Override
+			public Lamp poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				return lamp;
+			}
+
+			@Override
+			public int drainTo(final Collection<? super Lamp> collection) {
+				collection.add(lamp);
+				return 1;
+			}
+		});
+
+		final Thread thread = new Thread(component);
+		thread.start();
+
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (sent.size() < 10 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		thread.interrupt();
+		thread.join(5000);
+
+		assertFalse(thread.isAlive());
+		assertTrue(sent.size() >= 10);
+	}
+}
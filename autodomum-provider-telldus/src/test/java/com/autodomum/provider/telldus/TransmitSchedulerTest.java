@@ -0,0 +1,130 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Kenny Colliander Nordin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.autodomum.provider.telldus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test of the <code>TransmitScheduler</code> class
+ * 
+ * @author Kenny Colliander Nordin
+ * @since 0.0.1
+ */
+public class TransmitSchedulerTest {
+
+	private static List<String> drain(final TransmitScheduler scheduler) {
+		final List<String> frames = new ArrayList<>();
+		TransmitScheduler.Transmission transmission;
+		while ((transmission = scheduler.next()) != null) {
+			frames.add((transmission.isOn() ? "on " : "off ") + transmission.getCallId());
+		}
+		return frames;
+	}
+
+	@Test
+	public void testInterleaved() {
+		final TransmitScheduler scheduler = new TransmitScheduler(2);
+
+		scheduler.schedule("1", true);
+		scheduler.schedule("2", false);
+		scheduler.schedule("3", true);
+		assertEquals(3, scheduler.size());
+
+		assertEquals(Arrays.asList("on 1", "off 2", "on 3", "on 1", "off 2", "on 3"), drain(scheduler));
+		assertTrue(scheduler.isEmpty());
+	}
+
+	@Test
+	public void testReplace() {
+		final TransmitScheduler scheduler = new TransmitScheduler(2);
+
+		scheduler.schedule("1", true);
+		scheduler.schedule("2", true);
+		assertEquals("on 1", drain(scheduler, 1));
+
+		scheduler.schedule("1", false);
+
+		assertEquals(Arrays.asList("on 2", "off 1", "on 2", "off 1"), drain(scheduler));
+	}
+
+	@Test
+	public void testNextBatch() {
+		final TransmitScheduler scheduler = new TransmitScheduler(2);
+
+		scheduler.schedule("1", true);
+		scheduler.schedule("2", true);
+		scheduler.schedule("3", false);
+		scheduler.schedule("4", true);
+
+		assertEquals("on 1,on 2", batch(scheduler));
+		assertEquals("off 3", batch(scheduler));
+		assertEquals("on 4,on 1,on 2", batch(scheduler));
+		assertEquals("off 3", batch(scheduler));
+		assertEquals("on 4", batch(scheduler));
+		assertEquals("", batch(scheduler));
+	}
+
+	@Test
+	public void testEmpty() {
+		final TransmitScheduler scheduler = new TransmitScheduler(1);
+
+		assertTrue(scheduler.isEmpty());
+		assertNull(scheduler.next());
+
+		scheduler.schedule("1", true);
+		assertFalse(scheduler.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRepeats() {
+		new TransmitScheduler(0);
+	}
+
+	private static String batch(final TransmitScheduler scheduler) {
+		final StringBuilder builder = new StringBuilder();
+		for (final TransmitScheduler.Transmission transmission : scheduler.nextBatch()) {
+			builder.append(builder.length() == 0 ? "" : ",");
+			builder.append((transmission.isOn() ? "on " : "off ") + transmission.getCallId());
+		}
+		return builder.toString();
+	}
+
+	private static String drain(final TransmitScheduler scheduler, final int frames) {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < frames; i++) {
+			final TransmitScheduler.Transmission transmission = scheduler.next();
+			builder.append((transmission.isOn() ? "on " : "off ") + transmission.getCallId());
+		}
+		return builder.toString();
+	}
+}